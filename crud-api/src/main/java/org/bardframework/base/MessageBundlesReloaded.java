@@ -0,0 +1,22 @@
+package org.bardframework.base;
+
+import org.springframework.context.MessageSource;
+
+/**
+ * publish after reloading message bundles (e.g. <code>ReloadableResourceBundleMessageSource.clearCache()</code>), so cached translations dropped.
+ */
+public class MessageBundlesReloaded {
+
+    private final MessageSource messageSource;
+
+    /**
+     * @param messageSource reloaded message source, null if all message sources reloaded
+     */
+    public MessageBundlesReloaded(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    public MessageSource getMessageSource() {
+        return messageSource;
+    }
+}
@@ -0,0 +1,51 @@
+package org.bardframework.base;
+
+import org.springframework.context.MessageSource;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * resolved translations per message source and locale, used by {@link UtilityMethods}.
+ * keys that have no translation are cached too (with their fallback value), so missing keys are resolved once.
+ * must be cleared when message bundles reloaded, see {@link TranslationCacheInvalidator}.
+ */
+public final class TranslationCache {
+
+    /**
+     * upper limit of cached entries per locale, keys normally come from code (headers, enums), limit only guards against dynamic keys
+     */
+    private static final int MAX_ENTRIES_PER_LOCALE = 50_000;
+    private static final Map<MessageSource, Map<Locale, Map<Object, Object>>> CACHE = new ConcurrentHashMap<>();
+
+    private TranslationCache() {
+    }
+
+    /**
+     * @param key key of translation (e.g. message key or key chain)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(MessageSource messageSource, Locale locale, Object key, Supplier<T> loader) {
+        Map<Object, Object> translations = CACHE.computeIfAbsent(messageSource, source -> new ConcurrentHashMap<>())
+                .computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+        Object value = translations.get(key);
+        if (null == value) {
+            value = loader.get();
+            if (translations.size() >= MAX_ENTRIES_PER_LOCALE) {
+                translations.clear();
+            }
+            translations.put(key, value);
+        }
+        return (T) value;
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    public static void clear(MessageSource messageSource) {
+        CACHE.remove(messageSource);
+    }
+}
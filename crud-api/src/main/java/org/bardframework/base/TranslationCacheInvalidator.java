@@ -0,0 +1,26 @@
+package org.bardframework.base;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * clear {@link TranslationCache} when message bundles reloaded or application context refreshed.
+ */
+@Component
+public class TranslationCacheInvalidator {
+
+    @EventListener
+    public void onBundlesReloaded(MessageBundlesReloaded event) {
+        if (null == event.getMessageSource()) {
+            TranslationCache.clear();
+        } else {
+            TranslationCache.clear(event.getMessageSource());
+        }
+    }
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        TranslationCache.clear();
+    }
+}
@@ -4,9 +4,9 @@ import org.bardframework.commons.utils.AssertionUtils;
 import org.bardframework.commons.utils.StringUtils;
 import org.bardframework.crud.commons.model.BaseData;
 import org.springframework.context.MessageSource;
-import org.springframework.context.NoSuchMessageException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -251,25 +251,38 @@ public final class UtilityMethods {
         return translate(anEnum.getClass().getSimpleName() + "." + anEnum.name(), messageSource, locale);
     }
 
+    /**
+     * translations without arguments are cached per locale, see {@link TranslationCache}
+     */
     public static String translate(String key, MessageSource messageSource, Locale locale, Object... args) {
         AssertionUtils.hasText(key, "null key not acceptable");
         AssertionUtils.notNull(messageSource, "null messageSource not acceptable");
         AssertionUtils.notNull(locale, "null locale not acceptable");
+        if (null == args || args.length == 0) {
+            return TranslationCache.get(messageSource, locale, key, () -> messageSource.getMessage(key, null, key + "_" + locale.getLanguage(), locale));
+        }
         return messageSource.getMessage(key, args, key + "_" + locale.getLanguage(), locale);
     }
 
+    /**
+     * translate first key that has a message, keys resolved with null default message (no exception for missing keys)
+     * and result of each key chain cached per locale, including chains that have no translation.
+     */
     public static String translate(List<String> keys, MessageSource messageSource, Locale locale) {
         AssertionUtils.notEmpty(keys, "null or empty keys not acceptable");
-        for (String key : keys) {
-            try {
-                return messageSource.getMessage(key, null, locale);
-            } catch (NoSuchMessageException e) {
-                /*
-                  do nothing, try next key.
-                 */
+        /*
+          copy of keys as cache key, so caller can't change key of cached entry
+         */
+        List<String> cacheKey = Collections.unmodifiableList(new ArrayList<>(keys));
+        return TranslationCache.get(messageSource, locale, cacheKey, () -> {
+            for (String key : cacheKey) {
+                String message = messageSource.getMessage(key, null, null, locale);
+                if (null != message) {
+                    return message;
+                }
             }
-        }
-        return keys.get(0) + "_" + locale.getLanguage();
+            return cacheKey.get(0) + "_" + locale.getLanguage();
+        });
     }
 
     public static String toMessageKey(String raw) {
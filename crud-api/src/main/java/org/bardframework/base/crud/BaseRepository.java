@@ -1,6 +1,7 @@
 package org.bardframework.base.crud;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -54,6 +55,17 @@ public interface BaseRepository<M extends BaseModelAbstract<I>, C extends BaseCr
 
     M update(M model, U user);
 
+    /**
+     * update all models, implementations may override to update with one batch statement
+     */
+    default List<M> update(List<M> models, U user) {
+        List<M> result = new ArrayList<>();
+        for (M model : models) {
+            result.add(this.update(model, user));
+        }
+        return result;
+    }
+
     DataTableModel<M> filter(C criteria, U user);
 
     List<I> getIds(C criteria, U user);
@@ -1,6 +1,7 @@
 package org.bardframework.base.crud;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Created by vahid (va.zafari@gmail.com) on 11/6/17.
@@ -15,4 +16,21 @@ public interface BaseService<M extends BaseModelAbstract<I>, C extends BaseCrite
     M update(I id, D dto, U user);
 
     DataTableModel<M> filter(C criteria, U user);
+
+    /**
+     * @param chunkSize count of items saved in each transaction, all items saved in one transaction if less than 1
+     * @return per item result, in order of <code>dtos</code>
+     */
+    BulkResult<M> saveBulk(List<D> dtos, int chunkSize, U user);
+
+    /**
+     * @see #saveBulk(List, int, Object)
+     */
+    BulkResult<M> updateBulk(List<BulkUpdateItem<I, D>> items, int chunkSize, U user);
+
+    /**
+     * @return per item result, count of deleted records for each id.
+     * @see #saveBulk(List, int, Object)
+     */
+    BulkResult<Long> deleteBulk(List<I> ids, int chunkSize, U user);
 }
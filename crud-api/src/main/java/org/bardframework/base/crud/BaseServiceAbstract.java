@@ -5,13 +5,17 @@ import org.bardframework.commons.utils.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +28,10 @@ public abstract class BaseServiceAbstract<M extends BaseModelAbstract<I>, C exte
     protected final Class<C> criteriaClazz;
     @Autowired
     protected R repository;
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+    @Autowired(required = false)
+    protected Validator validator;
 
     public BaseServiceAbstract() {
         ParameterizedType parameterizedType = null;
@@ -96,22 +104,24 @@ public abstract class BaseServiceAbstract<M extends BaseModelAbstract<I>, C exte
 
     @Transactional
     public long delete(C criteria, U user) {
-        List<M> models = this.repository.get(criteria, user);
+        return this.deleteModels(this.repository.get(criteria, user), user);
+    }
+
+    /**
+     * delete given (fetched) models with one statement, between batch hooks
+     */
+    protected long deleteModels(List<M> models, U user) {
         if (CollectionUtils.isEmpty(models)) {
             return 0;
         }
-        for (M model : models) {
-            this.preDelete(model, user);
-        }
+        this.preDeleteBatch(models, user);
         /*
         call directDelete(List) instead of delete(List).
         maybe some joined part has been deleted in preDelete (like status change)
          */
         long deletedCount = repository.directDelete(models.stream().map(M::getId).collect(Collectors.toList()), user);
         if (deletedCount > 0) {
-            for (M model : models) {
-                this.postDelete(model, user);
-            }
+            this.postDeleteBatch(models, user);
         }
         if (models.size() != deletedCount) {
             LOGGER.warn("deleting with criteria, expect delete {} item(s), but {} deleted.", models.size(), deletedCount);
@@ -157,6 +167,30 @@ public abstract class BaseServiceAbstract<M extends BaseModelAbstract<I>, C exte
     protected void postDelete(M deletedModel, U user) {
     }
 
+    /**
+     * execute once before deleting a batch of data, override to do set based checks with one query.
+     * calls {@link #preDelete(BaseModelAbstract, Object)} for each model by default.
+     *
+     * @param models
+     */
+    protected void preDeleteBatch(List<M> models, U user) {
+        for (M model : models) {
+            this.preDelete(model, user);
+        }
+    }
+
+    /**
+     * execute once after deleting a batch of data.
+     * calls {@link #postDelete(BaseModelAbstract, Object)} for each model by default.
+     *
+     * @param deletedModels
+     */
+    protected void postDeleteBatch(List<M> deletedModels, U user) {
+        for (M model : deletedModels) {
+            this.postDelete(model, user);
+        }
+    }
+
     /**
      * save new data
      *
@@ -184,18 +218,16 @@ public abstract class BaseServiceAbstract<M extends BaseModelAbstract<I>, C exte
     @Transactional
     public List<M> save(List<D> dtos, U user) {
         AssertionUtils.notEmpty(dtos, "dtos cannot be null or empty.");
+        this.preSaveBatch(dtos, user);
         List<M> list = new ArrayList<>();
         for (D dto : dtos) {
-            this.preSave(dto, user);
             list.add(this.onSave(dto, user));
         }
         list = this.getRepository().save(list, user);
         if (list.size() != dtos.size()) {
             throw new IllegalStateException("invalid save operation, save " + dtos.size() + " dtos, but result size is " + list.size());
         }
-        for (int i = 0; i < list.size(); i++) {
-            this.postSave(list.get(i), dtos.get(i), user);
-        }
+        this.postSaveBatch(list, dtos, user);
         return list;
     }
 
@@ -214,6 +246,33 @@ public abstract class BaseServiceAbstract<M extends BaseModelAbstract<I>, C exte
     protected void postSave(M savedModel, D dto, U user) {
     }
 
+    /**
+     * execute once before saving a batch of dtos, override to validate or enrich whole batch with one query.
+     * calls {@link #preSave(Object, Object)} for each dto by default.
+     *
+     * @param dtos
+     * @param user
+     */
+    protected void preSaveBatch(List<D> dtos, U user) {
+        for (D dto : dtos) {
+            this.preSave(dto, user);
+        }
+    }
+
+    /**
+     * execute once after saving a batch of dtos.
+     * calls {@link #postSave(BaseModelAbstract, Object, Object)} for each saved model by default.
+     *
+     * @param savedModels saved models, in order of <code>dtos</code>
+     * @param dtos
+     * @param user
+     */
+    protected void postSaveBatch(List<M> savedModels, List<D> dtos, U user) {
+        for (int i = 0; i < savedModels.size(); i++) {
+            this.postSave(savedModels.get(i), dtos.get(i), user);
+        }
+    }
+
     @Transactional
     @Override
     public M update(I id, D dto, U user) {
@@ -237,6 +296,160 @@ public abstract class BaseServiceAbstract<M extends BaseModelAbstract<I>, C exte
         return this.getRepository().filter(criteria, user);
     }
 
+    @Override
+    public BulkResult<M> saveBulk(List<D> dtos, int chunkSize, U user) {
+        AssertionUtils.notEmpty(dtos, "dtos cannot be null or empty.");
+        return this.executeBulk(dtos, chunkSize, dto -> this.validate(dto, ValidationGroups.Save.class),
+                chunk -> this.reload(this.save(chunk, user).stream().map(M::getId).collect(Collectors.toList()), user),
+                dto -> this.save(dto, user));
+    }
+
+    @Override
+    public BulkResult<M> updateBulk(List<BulkUpdateItem<I, D>> items, int chunkSize, U user) {
+        AssertionUtils.notEmpty(items, "items cannot be null or empty.");
+        return this.executeBulk(items, chunkSize, item -> null == item.getId() ? "id cannot be null." : this.validate(item.getDto(), ValidationGroups.Update.class),
+                chunk -> this.updateChunk(chunk, user),
+                item -> this.update(item.getId(), item.getDto(), user));
+    }
+
+    @Override
+    public BulkResult<Long> deleteBulk(List<I> ids, int chunkSize, U user) {
+        AssertionUtils.notEmpty(ids, "ids cannot be null or empty.");
+        return this.executeBulk(ids, chunkSize, id -> null == id ? "id cannot be null." : null,
+                chunk -> {
+                    C criteria = this.getEmptyCriteria();
+                    criteria.setIds(chunk);
+                    List<M> models = this.repository.get(criteria, user);
+                    Set<I> existingIds = models.stream().map(M::getId).collect(Collectors.toSet());
+                    this.deleteModels(models, user);
+                    return chunk.stream().map(id -> existingIds.contains(id) ? 1L : 0L).collect(Collectors.toList());
+                },
+                id -> this.delete(id, user));
+    }
+
+    /**
+     * update a chunk of bulk update: previous models fetched and updated with one statement each (instead of one per item),
+     * hooks of single update called for each item.
+     *
+     * @return updated models, in order of <code>items</code>
+     */
+    protected List<M> updateChunk(List<BulkUpdateItem<I, D>> items, U user) {
+        List<I> ids = items.stream().map(BulkUpdateItem::getId).collect(Collectors.toList());
+        Map<I, M> previousModels = new HashMap<>();
+        this.getRepository().get(ids, user).forEach(model -> previousModels.put(model.getId(), model));
+        List<M> models = new ArrayList<>();
+        for (BulkUpdateItem<I, D> item : items) {
+            M previousModel = previousModels.get(item.getId());
+            if (null == previousModel) {
+                throw new IllegalArgumentException("data with id '" + item.getId() + "' not found.");
+            }
+            this.preUpdate(previousModel, item.getDto(), user);
+            models.add(this.onUpdate(item.getDto(), previousModel, user));
+        }
+        this.getRepository().update(models, user);
+        for (BulkUpdateItem<I, D> item : items) {
+            this.postUpdate(previousModels.get(item.getId()), item.getDto(), user);
+        }
+        return this.reload(ids, user);
+    }
+
+    /**
+     * @return fresh models of given identifiers in same order (as single save and update return), null for not found ones
+     */
+    protected List<M> reload(List<I> ids, U user) {
+        Map<I, M> models = new HashMap<>();
+        this.getRepository().get(ids, user).forEach(model -> models.put(model.getId(), model));
+        return ids.stream().map(models::get).collect(Collectors.toList());
+    }
+
+    /**
+     * execute bulk operation, chunk by chunk, each chunk in its own transaction.
+     * if <code>chunkSize</code> less than 1, all items executed in one transaction and nothing persisted when any item fails.
+     * otherwise items of a failed chunk retried one by one, so only invalid items fail.
+     *
+     * @param validator      return error message of invalid item, null for valid one
+     * @param chunkOperation execute a chunk of items, must return one result per item
+     * @param itemOperation  execute single item
+     */
+    protected <T, O> BulkResult<O> executeBulk(List<T> items, int chunkSize, Function<T, String> validator, Function<List<T>, List<O>> chunkOperation, Function<T, O> itemOperation) {
+        boolean atomic = chunkSize < 1;
+        List<BulkItemResult<O>> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            String error = null == items.get(i) ? "null item not acceptable." : validator.apply(items.get(i));
+            if (null == error) {
+                validIndexes.add(i);
+            } else {
+                results.set(i, BulkItemResult.failed(i, error));
+            }
+        }
+        if (atomic && validIndexes.size() != items.size()) {
+            validIndexes.forEach(index -> results.set(index, BulkItemResult.rolledBack(index, "not executed, some other items are invalid.")));
+            return new BulkResult<>(results);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        if (!atomic) {
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+        int size = atomic ? Math.max(1, validIndexes.size()) : chunkSize;
+        for (int from = 0; from < validIndexes.size(); from += size) {
+            List<Integer> chunkIndexes = validIndexes.subList(from, Math.min(from + size, validIndexes.size()));
+            List<T> chunk = chunkIndexes.stream().map(items::get).collect(Collectors.toList());
+            try {
+                List<O> chunkResults = transactionTemplate.execute(status -> chunkOperation.apply(chunk));
+                if (null == chunkResults || chunkResults.size() != chunk.size()) {
+                    throw new IllegalStateException("invalid bulk operation, execute " + chunk.size() + " items, but result size is " + (null == chunkResults ? 0 : chunkResults.size()));
+                }
+                for (int i = 0; i < chunkIndexes.size(); i++) {
+                    results.set(chunkIndexes.get(i), BulkItemResult.succeed(chunkIndexes.get(i), chunkResults.get(i)));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("bulk operation on {} item(s) failed.", chunk.size(), e);
+                if (atomic) {
+                    chunkIndexes.forEach(index -> results.set(index, BulkItemResult.rolledBack(index, this.toErrorMessage(e))));
+                    continue;
+                }
+                for (Integer index : chunkIndexes) {
+                    results.set(index, this.executeBulkItem(transactionTemplate, index, items.get(index), itemOperation, chunk.size() == 1 ? e : null));
+                }
+            }
+        }
+        return new BulkResult<>(results);
+    }
+
+    private <T, O> BulkItemResult<O> executeBulkItem(TransactionTemplate transactionTemplate, int index, T item, Function<T, O> itemOperation, RuntimeException previousError) {
+        /*
+          single item chunk already failed, don't retry it
+         */
+        if (null != previousError) {
+            return BulkItemResult.failed(index, this.toErrorMessage(previousError));
+        }
+        try {
+            return BulkItemResult.succeed(index, transactionTemplate.execute(status -> itemOperation.apply(item)));
+        } catch (RuntimeException e) {
+            LOGGER.debug("bulk operation on item {} failed.", index, e);
+            return BulkItemResult.failed(index, this.toErrorMessage(e));
+        }
+    }
+
+    protected String validate(Object target, Class<?> group) {
+        if (null == target) {
+            return "null item not acceptable.";
+        }
+        if (null == this.validator) {
+            return null;
+        }
+        Set<ConstraintViolation<Object>> violations = this.validator.validate(target, group);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(violation -> violation.getPropertyPath() + " " + violation.getMessage()).collect(Collectors.joining(", "));
+    }
+
+    protected String toErrorMessage(Exception e) {
+        return null == e.getMessage() ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
     public List<I> getIds(C criteria, U user) {
         return this.getRepository().getIds(criteria, user);
     }
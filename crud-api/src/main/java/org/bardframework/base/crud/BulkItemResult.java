@@ -0,0 +1,51 @@
+package org.bardframework.base.crud;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * result of one item of a bulk operation, <code>index</code> is position of item in request.
+ */
+public class BulkItemResult<R> {
+
+    private final int index;
+    private final BulkItemStatus status;
+    private final R result;
+    private final String error;
+
+    @JsonCreator
+    public BulkItemResult(@JsonProperty("index") int index, @JsonProperty("status") BulkItemStatus status, @JsonProperty("result") R result, @JsonProperty("error") String error) {
+        this.index = index;
+        this.status = status;
+        this.result = result;
+        this.error = error;
+    }
+
+    public static <R> BulkItemResult<R> succeed(int index, R result) {
+        return new BulkItemResult<>(index, BulkItemStatus.SUCCEED, result, null);
+    }
+
+    public static <R> BulkItemResult<R> failed(int index, String error) {
+        return new BulkItemResult<>(index, BulkItemStatus.FAILED, null, error);
+    }
+
+    public static <R> BulkItemResult<R> rolledBack(int index, String error) {
+        return new BulkItemResult<>(index, BulkItemStatus.ROLLED_BACK, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public BulkItemStatus getStatus() {
+        return status;
+    }
+
+    public R getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,13 @@
+package org.bardframework.base.crud;
+
+/**
+ * outcome of one item of a bulk operation.
+ */
+public enum BulkItemStatus {
+    SUCCEED,
+    FAILED,
+    /**
+     * item itself was valid, but not persisted because it was in a failed atomic operation.
+     */
+    ROLLED_BACK
+}
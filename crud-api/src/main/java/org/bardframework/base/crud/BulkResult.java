@@ -0,0 +1,39 @@
+package org.bardframework.base.crud;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.bardframework.commons.utils.AssertionUtils;
+
+import java.util.List;
+
+/**
+ * per item outcome of a bulk operation, in same order of request items.
+ */
+public class BulkResult<R> {
+
+    private final List<BulkItemResult<R>> items;
+
+    @JsonCreator
+    public BulkResult(@JsonProperty("items") List<BulkItemResult<R>> items) {
+        AssertionUtils.notNull(items, "null items not acceptable");
+        this.items = items;
+    }
+
+    public List<BulkItemResult<R>> getItems() {
+        return items;
+    }
+
+    public long getSucceedCount() {
+        return items.stream().filter(item -> item.getStatus() == BulkItemStatus.SUCCEED).count();
+    }
+
+    public long getFailedCount() {
+        return items.size() - this.getSucceedCount();
+    }
+
+    @JsonIgnore
+    public boolean isAllSucceed() {
+        return this.getFailedCount() == 0;
+    }
+}
@@ -0,0 +1,36 @@
+package org.bardframework.base.crud;
+
+import java.io.Serializable;
+
+/**
+ * one item of bulk update request.
+ */
+public class BulkUpdateItem<I extends Serializable, D> {
+
+    private I id;
+    private D dto;
+
+    public BulkUpdateItem() {
+    }
+
+    public BulkUpdateItem(I id, D dto) {
+        this.id = id;
+        this.dto = dto;
+    }
+
+    public I getId() {
+        return id;
+    }
+
+    public void setId(I id) {
+        this.id = id;
+    }
+
+    public D getDto() {
+        return dto;
+    }
+
+    public void setDto(D dto) {
+        this.dto = dto;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.Serializable;
+import java.util.List;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -15,6 +16,9 @@ public interface WriteRestController<M extends BaseModelAbstract<I>, D, S extend
     String SAVE_URL = "";
     String UPDATE_URL = "{id}";
     String DELETE_URL = "{id}";
+    String SAVE_BULK_URL = "bulk";
+    String UPDATE_BULK_URL = "bulk";
+    String DELETE_BULK_URL = "bulk/delete";
 
     @PostMapping(value = SAVE_URL, consumes = APPLICATION_JSON_VALUE)
     default M SAVE(@RequestBody @Validated(ValidationGroups.Save.class) D dto) {
@@ -31,6 +35,25 @@ public interface WriteRestController<M extends BaseModelAbstract<I>, D, S extend
         return this.getService().delete(id, this.getUser());
     }
 
+    /**
+     * @param chunkSize count of items committed together, all or nothing if less than 1.
+     *                  when a chunk fails, its items retried one by one so only invalid items fail.
+     */
+    @PostMapping(value = SAVE_BULK_URL, consumes = APPLICATION_JSON_VALUE)
+    default BulkResult<M> SAVE_BULK(@RequestBody List<D> dtos, @RequestParam(value = "chunkSize", defaultValue = "0") int chunkSize) {
+        return this.getService().saveBulk(dtos, chunkSize, this.getUser());
+    }
+
+    @PutMapping(value = UPDATE_BULK_URL, consumes = APPLICATION_JSON_VALUE)
+    default BulkResult<M> UPDATE_BULK(@RequestBody List<BulkUpdateItem<I, D>> items, @RequestParam(value = "chunkSize", defaultValue = "0") int chunkSize) {
+        return this.getService().updateBulk(items, chunkSize, this.getUser());
+    }
+
+    @PostMapping(value = DELETE_BULK_URL, consumes = APPLICATION_JSON_VALUE)
+    default BulkResult<Long> DELETE_BULK(@RequestBody List<I> ids, @RequestParam(value = "chunkSize", defaultValue = "0") int chunkSize) {
+        return this.getService().deleteBulk(ids, chunkSize, this.getUser());
+    }
+
     S getService();
 
     U getUser();
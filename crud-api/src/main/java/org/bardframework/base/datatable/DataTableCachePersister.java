@@ -0,0 +1,15 @@
+package org.bardframework.base.datatable;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * durable storage of users data table structures, called by {@link DataTableCacheWriteBehind} on background thread.
+ */
+public interface DataTableCachePersister {
+
+    /**
+     * @param structures changed structures, grouped by user id. each table of a user appears at most once (latest state).
+     */
+    void persist(Map<String, Collection<DataTableCachedStructure>> structures);
+}
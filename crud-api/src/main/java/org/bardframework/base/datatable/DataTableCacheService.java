@@ -1,17 +1,10 @@
 package org.bardframework.base.datatable;
 
-import org.bardframework.base.datatable.event.DataTableCacheStructureUpdated;
-import org.bardframework.commons.utils.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -20,71 +13,70 @@ import java.util.stream.Collectors;
 @Service
 public class DataTableCacheService {
 
-    private static final Map<String, Map<String, DataTableCachedStructure>> cache = new ConcurrentHashMap<>();
+    /*
+      default store used when no other store bean defined.
+     */
+    @Autowired(required = false)
+    private DataTableCacheStore store = new InMemoryDataTableCacheStore();
     @Autowired
-    private ApplicationEventPublisher eventPublisher;
+    private DataTableCacheWriteBehind writeBehind;
 
     public void setStructures(String userId, Collection<DataTableCachedStructure> cachedStructures) {
-        cache.put(userId, new ConcurrentHashMap<>());
-        cachedStructures.forEach(dataTableStructure -> cache.get(userId).put(dataTableStructure.getTable(), dataTableStructure));
+        store.putAll(userId, cachedStructures.stream().map(DataTableSnapshot::of).collect(Collectors.toList()));
     }
 
     public List<DataTableCachedStructure> getStructures(String userId) {
-        if (!cache.containsKey(userId) || null == cache.get(userId)) {
-            return Collections.EMPTY_LIST;
-        }
-        return cache.get(userId).values().stream().collect(Collectors.toList());
+        return store.getAll(userId).stream().map(DataTableSnapshot::toStructure).collect(Collectors.toList());
     }
 
+    /**
+     * if filter is empty, fill it from cached snapshot, otherwise cache it.
+     * changes are persisted and published later by {@link DataTableCacheWriteBehind}, unchanged filters ignored.
+     */
     public void cacheFilter(String userId, String table, DataTableFilter filter) {
-        cache.putIfAbsent(userId, new ConcurrentHashMap<>());
-        DataTableCachedStructure cachedStructure = cache.get(userId).get(table);
         if (filter.isEmpty()) {
-            if (null != cachedStructure) {
-                filter.setPage(cachedStructure.getPage());
-                filter.setCount(cachedStructure.getCount());
-                filter.setHeaders(cachedStructure.getHeaders());
-            }
-        } else {
-            if (null == cachedStructure) {
-                cachedStructure = new DataTableCachedStructure(table);
+            DataTableSnapshot snapshot = store.get(userId, table);
+            if (null != snapshot) {
+                filter.setPage(snapshot.getPage());
+                filter.setCount(snapshot.getCount());
+                filter.setHeaders(snapshot.toHeaderDtos());
             }
-            cachedStructure.setPage(filter.getPage());
-            cachedStructure.setCount(filter.getCount());
-            cachedStructure.setQuery(filter.getQuery());
-            cachedStructure.setHeaders(filter.getHeaders());
-            cache.get(userId).put(table, cachedStructure);
+            return;
+        }
+        DataTableSnapshot snapshot = DataTableSnapshot.of(table, filter);
+        if (store.put(userId, snapshot)) {
+            writeBehind.enqueue(userId, snapshot.toStructure());
         }
-        eventPublisher.publishEvent(new DataTableCacheStructureUpdated(userId));
     }
 
+    /**
+     * merge cached snapshot of user into a copy of given structure (default headers), given structure not changed.
+     *
+     * @return new mutable structure owned by caller, or given structure if user has no snapshot of table
+     */
     public DataTableFilter getStructure(String userId, String table, DataTableFilter<? extends DataTableFilter<?>> structure) {
-        if (!cache.containsKey(userId)) {
-            return structure;
-        }
-        DataTableCachedStructure cachedStructure = cache.get(userId).get(table);
-        if (null == cachedStructure) {
-            return structure;
-        }
-        structure.setQuery(cachedStructure.getQuery());
-        structure.setPage(cachedStructure.getPage());
-        structure.setCount(cachedStructure.getCount());
-        if (CollectionUtils.isEmpty(cachedStructure.getHeaders())) {
+        DataTableSnapshot snapshot = store.get(userId, table);
+        if (null == snapshot) {
             return structure;
         }
-        Map<String, HeaderDto> columnMap = (Map<String, HeaderDto>) cachedStructure.getHeaders().stream().collect(Collectors.toMap(HeaderDto::getId, Function.identity()));
-        structure.getHeaders().stream().filter(column -> columnMap.containsKey(column.getId())).forEach(
-                column -> {
-                    HeaderDto cachedColumn = columnMap.get(column.getId());
-                    column.setQuery(cachedColumn.getQuery());
-                    column.setMin(cachedColumn.getMin());
-                    column.setMax(cachedColumn.getMax());
-                    column.setSort(cachedColumn.getSort());
-                    column.setVisible(cachedColumn.isVisible());
-                    column.setSortSequence(cachedColumn.getSortSequence());
-                    column.setSelected(cachedColumn.getSelected());
-                }
-        );
-        return structure;
+        return snapshot.merge(structure);
+    }
+
+    /**
+     * @return immutable snapshot of user table, null if not exist
+     */
+    public DataTableSnapshot getSnapshot(String userId, String table) {
+        return store.get(userId, table);
+    }
+
+    public void evict(String userId) {
+        store.remove(userId);
+    }
+
+    /**
+     * @return usage and memory footprint of underlying store
+     */
+    public DataTableCacheStatistics getStatistics() {
+        return store.getStatistics();
     }
 }
@@ -0,0 +1,62 @@
+package org.bardframework.base.datatable;
+
+/**
+ * snapshot of {@link DataTableCacheStore} usage and memory footprint.
+ */
+public class DataTableCacheStatistics {
+
+    private final long userCount;
+    private final long structureCount;
+    private final long estimatedBytes;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public DataTableCacheStatistics(long userCount, long structureCount, long estimatedBytes, long hitCount, long missCount, long evictionCount) {
+        this.userCount = userCount;
+        this.structureCount = structureCount;
+        this.estimatedBytes = estimatedBytes;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public long getUserCount() {
+        return userCount;
+    }
+
+    public long getStructureCount() {
+        return structureCount;
+    }
+
+    /**
+     * @return estimated heap size of held snapshots and merged structures in bytes
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DataTableCacheStatistics{" +
+                "userCount=" + userCount +
+                ", structureCount=" + structureCount +
+                ", estimatedBytes=" + estimatedBytes +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package org.bardframework.base.datatable;
+
+import java.util.Collection;
+
+/**
+ * storage of users data table snapshots (filters, sorts, visible headers), used by {@link DataTableCacheService}.
+ * implementations must be thread safe, each update must atomically replace snapshot of a table.
+ */
+public interface DataTableCacheStore {
+
+    /**
+     * @return snapshot of given table, null if not exist
+     */
+    DataTableSnapshot get(String userId, String table);
+
+    Collection<DataTableSnapshot> getAll(String userId);
+
+    /**
+     * atomically replace snapshot of table, if it differs from current one.
+     *
+     * @return true if snapshot changed, false if it was equal to current snapshot
+     */
+    boolean put(String userId, DataTableSnapshot snapshot);
+
+    /**
+     * replace all snapshots of user with given snapshots
+     */
+    void putAll(String userId, Collection<DataTableSnapshot> snapshots);
+
+    void remove(String userId);
+
+    DataTableCacheStatistics getStatistics();
+}
@@ -0,0 +1,138 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.base.datatable.event.DataTableCacheStructureUpdated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * coalesce changed structures per user and table, then persist them in batch and publish one
+ * {@link DataTableCacheStructureUpdated} per user, on a background thread.
+ */
+@Component
+public class DataTableCacheWriteBehind {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataTableCacheWriteBehind.class);
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 2000;
+
+    /*
+      latest changed structure of each user and table. flush removes an entry only if it is still the persisted one,
+      so a structure queued while persisting is kept for next flush.
+     */
+    private final Map<PendingKey, DataTableCachedStructure> pending = new ConcurrentHashMap<>();
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired(required = false)
+    private DataTableCachePersister persister;
+
+    @PostConstruct
+    private void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-table-cache-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    private void stop() {
+        executor.shutdown();
+        this.flushSafely();
+    }
+
+    /**
+     * queue changed structure, replaces previous not flushed state of same table.
+     */
+    public void enqueue(String userId, DataTableCachedStructure structure) {
+        pending.put(new PendingKey(userId, structure.getTable()), structure);
+    }
+
+    /**
+     * persist and publish all queued changes
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<PendingKey, DataTableCachedStructure> flushing = new HashMap<>(pending);
+        if (flushing.isEmpty()) {
+            return;
+        }
+        Map<String, Collection<DataTableCachedStructure>> batch = new HashMap<>();
+        flushing.forEach((key, structure) -> batch.computeIfAbsent(key.userId, userId -> new ArrayList<>()).add(structure));
+        if (null != persister) {
+            try {
+                persister.persist(batch);
+            } catch (RuntimeException e) {
+                LOGGER.error("persisting {} user(s) data table structures failed, retry on next flush.", batch.size(), e);
+                return;
+            }
+        }
+        flushing.forEach((key, structure) -> pending.remove(key, structure));
+        batch.keySet().forEach(userId -> eventPublisher.publishEvent(new DataTableCacheStructureUpdated(userId)));
+    }
+
+    private void flushSafely() {
+        try {
+            this.flush();
+        } catch (RuntimeException e) {
+            LOGGER.error("flushing data table structures failed.", e);
+        }
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    /**
+     * must be set before initialization
+     */
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private static final class PendingKey {
+        private final String userId;
+        private final String table;
+
+        private PendingKey(String userId, String table) {
+            this.userId = userId;
+            this.table = table;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PendingKey)) {
+                return false;
+            }
+            PendingKey that = (PendingKey) o;
+            return Objects.equals(userId, that.userId) && Objects.equals(table, that.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, table);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.bardframework.base.datatable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * compact binary encoding of {@link DataTableCachedStructure}.
+ * only user state of headers (filter, sort, visibility) encoded, other header properties are derived from structure definition.
+ */
+public final class DataTableCachedStructureCodec {
+
+    private static final byte VERSION = 1;
+
+    private DataTableCachedStructureCodec() {
+    }
+
+    public static byte[] encode(DataTableCachedStructure structure) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, structure.getTable());
+            out.writeLong(structure.getPage());
+            out.writeLong(structure.getCount());
+            writeString(out, structure.getQuery());
+            List<HeaderDto> headers = structure.getHeaders();
+            out.writeInt(null == headers ? -1 : headers.size());
+            if (null != headers) {
+                for (HeaderDto header : headers) {
+                    writeHeader(out, header);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("can't encode cached structure " + structure.getTable(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static DataTableCachedStructure decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unsupported cached structure encoding version: " + version);
+            }
+            DataTableCachedStructure structure = new DataTableCachedStructure(readString(in));
+            structure.setPage(in.readLong());
+            structure.setCount(in.readLong());
+            structure.setQuery(readString(in));
+            int headersCount = in.readInt();
+            if (headersCount >= 0) {
+                List<HeaderDto> headers = new ArrayList<>(headersCount);
+                for (int i = 0; i < headersCount; i++) {
+                    headers.add(readHeader(in));
+                }
+                structure.setHeaders(headers);
+            }
+            return structure;
+        } catch (IOException e) {
+            throw new IllegalStateException("can't decode cached structure", e);
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, HeaderDto header) throws IOException {
+        writeString(out, header.getId());
+        writeString(out, header.getQuery());
+        writeString(out, header.getMin());
+        writeString(out, header.getMax());
+        out.writeByte(null == header.getSort() ? -1 : header.getSort().ordinal());
+        out.writeByte(null == header.getVisible() ? -1 : header.getVisible() ? 1 : 0);
+        out.writeInt(header.getSortSequence());
+        List<String> selected = header.getSelected();
+        out.writeInt(null == selected ? -1 : selected.size());
+        if (null != selected) {
+            for (String value : selected) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static HeaderDto readHeader(DataInputStream in) throws IOException {
+        HeaderDto header = new HeaderDto();
+        header.setId(readString(in));
+        header.setQuery(readString(in));
+        header.setMin(readString(in));
+        header.setMax(readString(in));
+        byte sort = in.readByte();
+        header.setSort(sort < 0 ? null : Sort.values()[sort]);
+        byte visible = in.readByte();
+        header.setVisible(visible < 0 ? null : visible == 1);
+        header.setSortSequence(in.readInt());
+        int selectedCount = in.readInt();
+        if (selectedCount >= 0) {
+            List<String> selected = new ArrayList<>(selectedCount);
+            for (int i = 0; i < selectedCount; i++) {
+                selected.add(readString(in));
+            }
+            header.setSelected(selected);
+        }
+        return header;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(null != value);
+        if (null != value) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,17 @@
+package org.bardframework.base.datatable;
+
+/**
+ * resolve database column of header fields, used by {@link DataTableUtils} to bind headers to query paths.
+ */
+public interface DataTableColumnResolver {
+
+    /**
+     * @return table that given class mapped to, null if class not mapped to any table
+     */
+    String getTableName(Class<?> clazz);
+
+    /**
+     * @return query path of column that given field of table mapped to, null if field is not a column (e.g. transient or computed field)
+     */
+    Object getColumn(String tableName, String fieldName);
+}
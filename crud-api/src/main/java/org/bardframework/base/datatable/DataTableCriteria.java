@@ -0,0 +1,12 @@
+package org.bardframework.base.datatable;
+
+/**
+ * criteria that carries user data table filter (column filters, sorts and global query), applied by repository on query.
+ */
+public interface DataTableCriteria {
+
+    /**
+     * @return filter of data table, null if criteria not filtered by data table
+     */
+    DataTableFilter<?> getDataTableFilter();
+}
@@ -0,0 +1,26 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.base.crud.BaseCriteria;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+public interface DataTableEntityRepository<C extends BaseCriteria<I> & DataTableCriteria, I extends Serializable, U> {
+
+    /**
+     * count of records per value of each select header, under given criteria and data table filter.
+     * selection of each header itself not applied on its own counts, so counts of other options remain visible.
+     *
+     * @param headers ids of <code>SINGLE_SELECT</code> or <code>MULTI_SELECT</code> headers
+     * @return counts keyed by header id, then by value (enum name or string value of column)
+     */
+    Map<String, Map<String, Long>> getFacets(C criteria, Collection<String> headers, U user);
+
+    /**
+     * global bounds of all <code>MIN_MAX</code> headers (not restricted by criteria), served from cache.
+     *
+     * @return bounds keyed by header id
+     */
+    Map<String, MinMaxBounds> getBounds(U user);
+}
@@ -0,0 +1,41 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.base.crud.BaseCriteria;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public interface DataTableEntityService<C extends BaseCriteria<I> & DataTableCriteria, R extends DataTableEntityRepository<C, I, U>, I extends Serializable, U> {
+
+    /**
+     * set facet counts of select headers of data table filter of criteria
+     */
+    default void fillFacets(C criteria, U user) {
+        if (null == criteria.getDataTableFilter() || null == criteria.getDataTableFilter().getHeaders()) {
+            return;
+        }
+        List<HeaderDto> headers = criteria.getDataTableFilter().getHeaders().stream()
+                .filter(header -> header.getFilteringType() == FilteringType.SINGLE_SELECT || header.getFilteringType() == FilteringType.MULTI_SELECT)
+                .collect(Collectors.toList());
+        if (headers.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Long>> facets = this.getRepository().getFacets(criteria, headers.stream().map(HeaderDto::getId).collect(Collectors.toList()), user);
+        headers.forEach(header -> header.setFacets(facets.get(header.getId())));
+    }
+
+    /**
+     * set global bounds of <code>MIN_MAX</code> headers, used by client to render range of sliders
+     */
+    default void fillBounds(List<HeaderDto> headers, U user) {
+        if (null == headers || headers.stream().noneMatch(header -> header.getFilteringType() == FilteringType.MIN_MAX)) {
+            return;
+        }
+        Map<String, MinMaxBounds> bounds = this.getRepository().getBounds(user);
+        headers.stream().filter(header -> header.getFilteringType() == FilteringType.MIN_MAX).forEach(header -> header.setBounds(bounds.get(header.getId())));
+    }
+
+    R getRepository();
+}
@@ -0,0 +1,70 @@
+package org.bardframework.base.datatable;
+
+import org.springframework.core.convert.converter.Converter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * resolved field of a header path, see {@link DataTableMetadata}.
+ */
+public final class DataTableHeaderMetadata {
+
+    private final String path;
+    private final String fieldName;
+    private final Class<?> containerClazz;
+    private final Class<?> valueType;
+    private final Supplier<Converter<?, ?>> inputConverter;
+    private final Supplier<Converter<?, ?>> outputConverter;
+    private final List<String> messageKeys;
+
+    /**
+     * @param containerClazz class that declares field of last part of path
+     * @param inputConverter factory of input converter, null if value type needs no conversion
+     * @param outputConverter factory of output converter, null if value type needs no conversion
+     */
+    public DataTableHeaderMetadata(String path, String fieldName, Class<?> containerClazz, Class<?> valueType, Supplier<Converter<?, ?>> inputConverter, Supplier<Converter<?, ?>> outputConverter, List<String> messageKeys) {
+        this.path = path;
+        this.fieldName = fieldName;
+        this.containerClazz = containerClazz;
+        this.valueType = valueType;
+        this.inputConverter = inputConverter;
+        this.outputConverter = outputConverter;
+        this.messageKeys = Collections.unmodifiableList(messageKeys);
+    }
+
+    /**
+     * @return new input converter instance, null if value type needs no conversion
+     */
+    public Converter<?, ?> newInputConverter() {
+        return null == inputConverter ? null : inputConverter.get();
+    }
+
+    /**
+     * @return new output converter instance, null if value type needs no conversion
+     */
+    public Converter<?, ?> newOutputConverter() {
+        return null == outputConverter ? null : outputConverter.get();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Class<?> getContainerClazz() {
+        return containerClazz;
+    }
+
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
+    public List<String> getMessageKeys() {
+        return messageKeys;
+    }
+}
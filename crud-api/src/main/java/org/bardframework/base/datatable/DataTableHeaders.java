@@ -0,0 +1,21 @@
+package org.bardframework.base.datatable;
+
+import java.lang.annotation.*;
+
+/**
+ * header paths of a data table model class. when <code>crud-processor</code> is on annotation processor path,
+ * {@link DataTableMetadata} of annotated class generated at compile time and invalid paths fail the build.
+ * <p>
+ * paths are declared here separately from {@link DataTableStructure} beans, so only these paths checked at build time:
+ * a structure header that is not declared here is bound by reflection at runtime (and reported as warning on startup).
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface DataTableHeaders {
+
+    /**
+     * paths of headers, same as {@link HeaderAbstract#getPath()} of structure headers (e.g. <code>name</code>, <code>address.city</code>)
+     */
+    String[] value();
+}
@@ -0,0 +1,19 @@
+package org.bardframework.base.datatable;
+
+/**
+ * broadcast changes of users data table structures between cluster nodes.
+ */
+public interface DataTableInvalidationTransport {
+
+    /**
+     * notify all nodes (including current one) that data of user changed to given version.
+     */
+    void publish(String userId, long version);
+
+    void subscribe(Listener listener);
+
+    @FunctionalInterface
+    interface Listener {
+        void onChange(String userId, long version);
+    }
+}
@@ -0,0 +1,17 @@
+package org.bardframework.base.datatable;
+
+import java.util.Map;
+
+/**
+ * header metadata of a data table model class, generated at compile time for classes annotated with {@link DataTableHeaders}
+ * and loaded by {@link DataTableUtils} using {@link java.util.ServiceLoader}, so headers bound without reflection.
+ */
+public interface DataTableMetadata {
+
+    Class<?> getModelClass();
+
+    /**
+     * @return metadata of headers keyed by path
+     */
+    Map<String, DataTableHeaderMetadata> getHeaders();
+}
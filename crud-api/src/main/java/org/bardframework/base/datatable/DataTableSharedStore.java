@@ -0,0 +1,48 @@
+package org.bardframework.base.datatable;
+
+import java.util.Map;
+
+/**
+ * storage shared between cluster nodes, keeps binary encoded structures of each user with a version
+ * that increases on every change.
+ *
+ * @see SharedDataTableCacheStore
+ */
+public interface DataTableSharedStore {
+
+    /**
+     * @return encoded structures of user keyed by table, with current version. never null.
+     */
+    Versioned load(String userId);
+
+    /**
+     * @param structures encoded structures keyed by table, replace existing ones with same table
+     * @return new version of user data
+     */
+    long save(String userId, Map<String, byte[]> structures);
+
+    /**
+     * replace all structures of user.
+     *
+     * @return new version of user data
+     */
+    long replace(String userId, Map<String, byte[]> structures);
+
+    class Versioned {
+        private final long version;
+        private final Map<String, byte[]> structures;
+
+        public Versioned(long version, Map<String, byte[]> structures) {
+            this.version = version;
+            this.structures = structures;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Map<String, byte[]> getStructures() {
+            return structures;
+        }
+    }
+}
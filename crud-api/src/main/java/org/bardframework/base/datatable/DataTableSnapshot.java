@@ -0,0 +1,239 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.commons.utils.AssertionUtils;
+import org.springframework.beans.BeanUtils;
+
+import java.util.*;
+
+/**
+ * immutable state of a user data table (paging, search query and per header filter, sort and visibility).
+ * headers indexed by id once, so merging with defaults of table is a lookup per header; every read gets its own copy (copy on read).
+ */
+public final class DataTableSnapshot {
+
+    private final String table;
+    private final long page;
+    private final long count;
+    private final String query;
+    private final List<HeaderState> headers;
+    private final Map<String, HeaderState> headerMap;
+
+    private DataTableSnapshot(String table, long page, long count, String query, List<HeaderState> headers) {
+        AssertionUtils.hasText(table, "null or empty table not acceptable");
+        this.table = table;
+        this.page = page;
+        this.count = count;
+        this.query = query;
+        this.headers = Collections.unmodifiableList(headers);
+        Map<String, HeaderState> headerMap = new HashMap<>();
+        headers.forEach(header -> headerMap.put(header.getId(), header));
+        this.headerMap = Collections.unmodifiableMap(headerMap);
+    }
+
+    public static DataTableSnapshot of(String table, DataTableFilter<?> filter) {
+        List<HeaderState> headers = new ArrayList<>();
+        if (null != filter.getHeaders()) {
+            filter.getHeaders().forEach(header -> headers.add(new HeaderState(header)));
+        }
+        return new DataTableSnapshot(table, filter.getPage(), filter.getCount(), filter.getQuery(), headers);
+    }
+
+    public static DataTableSnapshot of(DataTableCachedStructure structure) {
+        return of(structure.getTable(), structure);
+    }
+
+    /**
+     * @return new mutable structure, changing it has no effect on this snapshot
+     */
+    public DataTableCachedStructure toStructure() {
+        DataTableCachedStructure structure = new DataTableCachedStructure(table);
+        structure.setPage(page);
+        structure.setCount(count);
+        structure.setQuery(query);
+        structure.setHeaders(this.toHeaderDtos());
+        return structure;
+    }
+
+    public List<HeaderDto> toHeaderDtos() {
+        List<HeaderDto> dtos = new ArrayList<>(headers.size());
+        headers.forEach(header -> dtos.add(header.toHeaderDto()));
+        return dtos;
+    }
+
+    /**
+     * merge paging, query and state of headers of this snapshot into copies of given default headers, given structure not changed.
+     *
+     * @return new mutable structure, owned by caller
+     */
+    public DataTableCachedStructure merge(DataTableFilter<?> defaults) {
+        DataTableCachedStructure structure = new DataTableCachedStructure(table);
+        structure.setPage(page);
+        structure.setCount(count);
+        structure.setQuery(query);
+        if (null != defaults.getHeaders()) {
+            List<HeaderDto> mergedHeaders = new ArrayList<>(defaults.getHeaders().size());
+            for (HeaderDto header : defaults.getHeaders()) {
+                HeaderDto copy = new HeaderDto();
+                BeanUtils.copyProperties(header, copy);
+                HeaderState state = headerMap.get(header.getId());
+                if (null != state) {
+                    state.applyTo(copy);
+                }
+                mergedHeaders.add(copy);
+            }
+            structure.setHeaders(mergedHeaders);
+        }
+        return structure;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public long getPage() {
+        return page;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public List<HeaderState> getHeaders() {
+        return headers;
+    }
+
+    public HeaderState getHeader(String id) {
+        return headerMap.get(id);
+    }
+
+    /**
+     * @return rough estimation of heap held by this snapshot (objects, references and chars of strings)
+     */
+    public long getEstimatedSize() {
+        long size = 64 + estimateSize(table) + estimateSize(query) + 32L * headers.size();
+        for (HeaderState header : headers) {
+            size += header.getEstimatedSize();
+        }
+        return size;
+    }
+
+    private static long estimateSize(String value) {
+        return null == value ? 0 : 40 + 2L * value.length();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DataTableSnapshot that = (DataTableSnapshot) o;
+        return page == that.page && count == that.count && table.equals(that.table) && Objects.equals(query, that.query) && headers.equals(that.headers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, page, count, query, headers);
+    }
+
+    /**
+     * immutable user state of one header
+     */
+    public static final class HeaderState {
+        private final String id;
+        private final String query;
+        private final List<String> selected;
+        private final String min;
+        private final String max;
+        private final Sort sort;
+        private final Boolean visible;
+        private final int sortSequence;
+
+        private HeaderState(HeaderDto header) {
+            this.id = header.getId();
+            this.query = header.getQuery();
+            this.selected = null == header.getSelected() ? null : Collections.unmodifiableList(new ArrayList<>(header.getSelected()));
+            this.min = header.getMin();
+            this.max = header.getMax();
+            this.sort = header.getSort();
+            this.visible = header.getVisible();
+            this.sortSequence = header.getSortSequence();
+        }
+
+        public HeaderDto toHeaderDto() {
+            HeaderDto header = new HeaderDto();
+            header.setId(id);
+            this.applyTo(header);
+            return header;
+        }
+
+        public void applyTo(HeaderDto column) {
+            column.setQuery(query);
+            column.setMin(min);
+            column.setMax(max);
+            column.setSort(sort);
+            column.setVisible(visible);
+            column.setSortSequence(sortSequence);
+            column.setSelected(null == selected ? null : new ArrayList<>(selected));
+        }
+
+        private long getEstimatedSize() {
+            long size = 56 + estimateSize(id) + estimateSize(query) + estimateSize(min) + estimateSize(max);
+            if (null != selected) {
+                size += 40;
+                for (String value : selected) {
+                    size += 8 + estimateSize(value);
+                }
+            }
+            return size;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public List<String> getSelected() {
+            return selected;
+        }
+
+        public String getMin() {
+            return min;
+        }
+
+        public String getMax() {
+            return max;
+        }
+
+        public Sort getSort() {
+            return sort;
+        }
+
+        public Boolean getVisible() {
+            return visible;
+        }
+
+        public int getSortSequence() {
+            return sortSequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            HeaderState that = (HeaderState) o;
+            return sortSequence == that.sortSequence && Objects.equals(id, that.id) && Objects.equals(query, that.query) && Objects.equals(selected, that.selected)
+                    && Objects.equals(min, that.min) && Objects.equals(max, that.max) && sort == that.sort && Objects.equals(visible, that.visible);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, query, selected, min, max, sort, visible, sortSequence);
+        }
+    }
+}
@@ -9,8 +9,7 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -20,114 +19,115 @@ import java.util.concurrent.ConcurrentHashMap;
 public class DataTableUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DataTableUtils.class);
-    //    private final Map<String, Map<String, Path<?>>> TABLE_COLUMN_MAP = new ConcurrentHashMap<>();
     private final Map<Class<?>, DataTableStructure> structureMap = new ConcurrentHashMap<>();
-//    private static final DefaultNamingStrategy NAMING_STRATEGY = new DefaultNamingStrategy();
+    /**
+     * structures that their headers bound to columns, binding done lazily on first use of each structure to keep startup fast
+     */
+    private final Map<Class<?>, DataTableStructure> boundStructureMap = new ConcurrentHashMap<>();
+    private final Map<Class<?>, DataTableMetadata> metadataMap = new ConcurrentHashMap<>();
 
     @Autowired
     private List<DataTableStructure> structures;
+    @Autowired(required = false)
+    private DataTableColumnResolver columnResolver;
 
     @PostConstruct
-    private void init()
-            throws NoSuchFieldException, IllegalAccessException {
-        initTableMap();
-        Field field;
-        Method method;
-        String tableName, columnName, fieldName;
-//        SimpleExpression<?> queryPath;
-        Class<?> valueType, containerClazz;
+    private void init() {
         for (DataTableStructure structure : this.structures) {
             structureMap.put(structure.getClazz(), structure);
-            for (HeaderAbstract header : structure.getHeaders()) {
-                columnName = null;
-                //                queryPath = null;
-                try {
-                    containerClazz = ReflectionUtils.getContainerClassByGetter(structure.getClazz(), header.getPath());
-                } catch (NoSuchMethodException e) {
-                    LOGGER.error("error fetching getters {} from {}.", header.getPath(), structure.getClazz(), e);
-                    throw new IllegalArgumentException("can't find field in path " + header.getPath() + " from class " + structure.getClazz().getSimpleName());
+        }
+        Iterator<DataTableMetadata> providers = ServiceLoader.load(DataTableMetadata.class, this.getClass().getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    break;
                 }
-//                tableName = this.getTableName(containerClazz);
-                field = ReflectionUtils.getField(structure.getClazz(), header.getPath());
-                if (null == field) {
-                    try {
-                        method = ReflectionUtils.getGetterMethod(structure.getClazz(), header.getPath());
-                    } catch (NoSuchMethodException e) {
-                        LOGGER.error("error fetching getters {} from {}.", header.getPath(), structure.getClazz(), e);
-                        throw new IllegalArgumentException("can't find field in path " + header.getPath() + " from class " + structure.getClazz().getSimpleName());
-                    }
-                    fieldName = ReflectionUtils.methodToFieldName(method);
-                } else {
-                    //                    columnName = this.getColumnName(field);
-                    /*
-                    column name in @Transient fields is null
-                     */
-                    if (null != columnName) {
-//                        columnName = NAMING_STRATEGY.getPropertyName(columnName, null);
-//                        queryPath = (SimpleExpression<?>) this.get(tableName, columnName);
-                    }
+                DataTableMetadata metadata = providers.next();
+                metadataMap.put(metadata.getModelClass(), metadata);
+            } catch (ServiceConfigurationError e) {
+                /*
+                  e.g. stale META-INF/services entry of a removed class, headers of it bound by reflection
+                 */
+                LOGGER.warn("invalid data table metadata provider ignored.", e);
+            }
+        }
+        for (DataTableStructure structure : this.structures) {
+            DataTableMetadata metadata = metadataMap.get(structure.getClazz());
+            if (null == metadata) {
+                continue;
+            }
+            for (HeaderAbstract header : structure.getHeaders()) {
+                if (!metadata.getHeaders().containsKey(header.getPath())) {
+                    LOGGER.warn("header '{}' of '{}' not declared in @{}, it is not checked at compile time and bound by reflection.", header.getPath(), structure.getClazz().getSimpleName(), DataTableHeaders.class.getSimpleName());
                 }
-//                header.init(structure.getClazz(), valueType, fieldName, tableName, queryPath);
             }
         }
+        LOGGER.debug("{} data table structure(s) registered, {} of them have compile time generated metadata.", structureMap.size(), structureMap.keySet().stream().filter(metadataMap::containsKey).count());
     }
 
-    private void initTableMap()
-            throws NoSuchFieldException, IllegalAccessException {
-//        Reflections reflections = new Reflections("org.bardframework.sama.entity");
-//        Set<Class<? extends RelationalPathBase>> classes = reflections.getSubTypesOf(RelationalPathBase.class);
-//        for (Class<? extends RelationalPathBase> aClass : classes) {
-//            Field field = aClass.getField(ReflectionUtils.lowerCaseFirstLetter(aClass.getSimpleName().substring(1)));
-//            RelationalPathBase<?> value = (RelationalPathBase) field.get(null);
-//            TABLE_COLUMN_MAP.putIfAbsent(value.getTableName(), new HashMap<>());
-//            for (Path<?> path : value.getColumns()) {
-//                TABLE_COLUMN_MAP.get(value.getTableName()).putIfAbsent(path.getMetadata().getName(), path);
-//            }
-//        }
-    }
-
-//    public Path<?> get(String table, String column) {
-//        if (null == TABLE_COLUMN_MAP) {
-//            try {
-//                initTableMap();
-//            } catch (NoSuchFieldException | IllegalAccessException e) {
-//                throw new IllegalStateException("can't create table column map from query dsl generated entities", e);
-//            }
-//        }
-//        if (!TABLE_COLUMN_MAP.containsKey(table) || null == TABLE_COLUMN_MAP.get(table).get(column)) {
-//            throw new NotExistException("column of table", table, column);
-//        }
-//        return TABLE_COLUMN_MAP.get(table).get(column);
-//    }
-
     public List<HeaderAbstract> getHeaders(Class<?> clazz) {
-        if (!structureMap.containsKey(clazz)) {
+        DataTableStructure structure = structureMap.get(clazz);
+        if (null == structure) {
             LOGGER.error("no '{}' found with key '{}'.", DataTableStructure.class.getSimpleName(), clazz.getSimpleName());
             throw new IllegalArgumentException("no structure found with key: " + clazz.getSimpleName());
         }
-        return structureMap.get(clazz).getHeaders();
+        return boundStructureMap.computeIfAbsent(clazz, key -> this.bind(structure)).getHeaders();
+    }
+
+    private DataTableStructure bind(DataTableStructure structure) {
+        DataTableMetadata metadata = metadataMap.get(structure.getClazz());
+        for (HeaderAbstract header : structure.getHeaders()) {
+            DataTableHeaderMetadata headerMetadata = null == metadata ? null : metadata.getHeaders().get(header.getPath());
+            if (null == headerMetadata) {
+                this.bind(structure.getClazz(), header);
+            } else {
+                String tableName = this.getTableName(headerMetadata.getContainerClazz());
+                header.init(structure.getClazz(), headerMetadata, tableName, this.getColumn(tableName, headerMetadata.getFieldName()));
+            }
+        }
+        return structure;
     }
 
-//    private String getTableName(Class<?> clazz) {
-//        if (clazz.isAnnotationPresent(JsonAutoDetect.class)) {
-//            return null;
-//        }
-//        Table table = clazz.getAnnotation(Table.class);
-//        if (null == table || StringUtils.hasNotText(table.name())) {
-//            throw new NotExistException("table name", clazz);
-//        }
-//        return table.name();
-//    }
-//
-//    private String getColumnName(Field field) {
-//        if (null != field.getAnnotation(Transient.class)) {
-//            return null;
-//        }
-//        javax.persistence.Column column = field.getAnnotation(javax.persistence.Column.class);
-//        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
-//        if ((null == column || StringUtils.hasNotText(column.name())) && (null == joinColumn || StringUtils.hasNotText(joinColumn.name()))) {
-//            throw new IllegalStateException("can't determine column name from field, each field present in headers and has DB_COLUMN query type must annotated with @Column or @JoinColumn with not empty name\n" + field);
-//        }
-//        return null != column && StringUtils.hasText(column.name()) ? column.name() : joinColumn.name();
-//    }
+    /**
+     * bind header using reflection, used for headers that their metadata not generated at compile time.
+     */
+    private void bind(Class<?> clazz, HeaderAbstract header) {
+        Class<?> containerClazz;
+        try {
+            containerClazz = ReflectionUtils.getContainerClassByGetter(clazz, header.getPath());
+        } catch (NoSuchMethodException e) {
+            LOGGER.error("error fetching getters {} from {}.", header.getPath(), clazz, e);
+            throw new IllegalArgumentException("can't find field in path " + header.getPath() + " from class " + clazz.getSimpleName());
+        }
+        String fieldName;
+        Class<?> valueType;
+        Field field = ReflectionUtils.getField(clazz, header.getPath());
+        if (null == field) {
+            Method method;
+            try {
+                method = ReflectionUtils.getGetterMethod(clazz, header.getPath());
+            } catch (NoSuchMethodException e) {
+                LOGGER.error("error fetching getters {} from {}.", header.getPath(), clazz, e);
+                throw new IllegalArgumentException("can't find field in path " + header.getPath() + " from class " + clazz.getSimpleName());
+            }
+            fieldName = ReflectionUtils.methodToFieldName(method);
+            valueType = method.getReturnType();
+        } else {
+            fieldName = field.getName();
+            valueType = field.getType();
+        }
+        String tableName = this.getTableName(containerClazz);
+        header.init(clazz, valueType, fieldName, tableName, this.getColumn(tableName, fieldName));
+    }
+
+    private String getTableName(Class<?> containerClazz) {
+        return null == columnResolver ? null : columnResolver.getTableName(containerClazz);
+    }
+
+    /**
+     * container class of @Transient or dto fields not mapped to table
+     */
+    private Object getColumn(String tableName, String fieldName) {
+        return null == columnResolver || null == tableName ? null : columnResolver.getColumn(tableName, fieldName);
+    }
 }
@@ -0,0 +1,156 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.commons.utils.AssertionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * one file per user in a (shared) directory, read-modify-write done under lock of a sibling lock file so nodes on same file system never lose updates.
+ * new content written to a temp file and atomically moved over user file, so a crash never leaves a partial file;
+ * a file that is corrupt anyway (e.g. changed outside) logged and treated as empty.
+ */
+public class FileDataTableSharedStore implements DataTableSharedStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileDataTableSharedStore.class);
+    private static final String EXTENSION = ".dtc";
+    private static final String LOCK_EXTENSION = ".lock";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final Path directory;
+
+    public FileDataTableSharedStore(Path directory) {
+        AssertionUtils.notNull(directory, "null directory not acceptable");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("can't create directory " + directory, e);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * file replaced atomically by writers, so read needs no lock
+     */
+    @Override
+    public synchronized Versioned load(String userId) {
+        return this.read(userId);
+    }
+
+    @Override
+    public long save(String userId, Map<String, byte[]> structures) {
+        return this.write(userId, structures, false);
+    }
+
+    @Override
+    public long replace(String userId, Map<String, byte[]> structures) {
+        return this.write(userId, structures, true);
+    }
+
+    private synchronized long write(String userId, Map<String, byte[]> structures, boolean replace) {
+        String name = this.getFileName(userId);
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(name + LOCK_EXTENSION), StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+             FileLock ignored = lockChannel.lock()) {
+            Versioned current = this.read(userId);
+            Map<String, byte[]> updated = replace ? new HashMap<>() : current.getStructures();
+            updated.putAll(structures);
+            long version = current.getVersion() + 1;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeLong(version);
+                out.writeInt(updated.size());
+                for (Map.Entry<String, byte[]> entry : updated.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            }
+            Path temp = Files.createTempFile(directory, name + EXTENSION, TEMP_EXTENSION);
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+                Files.move(temp, directory.resolve(name + EXTENSION), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return version;
+        } catch (IOException e) {
+            throw new IllegalStateException("can't save data table structures of user " + userId, e);
+        }
+    }
+
+    /**
+     * @return content of user file, empty if file not exist. content of a corrupt file is dropped and version restarts from
+     * current time, so it stays above versions other nodes have seen.
+     */
+    private Versioned read(String userId) {
+        Path file = directory.resolve(this.getFileName(userId) + EXTENSION);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return new Versioned(0, new HashMap<>());
+        } catch (IOException e) {
+            throw new IllegalStateException("can't load data table structures of user " + userId, e);
+        }
+        try {
+            return this.decode(content);
+        } catch (IOException e) {
+            LOGGER.error("data table structures file '{}' of user '{}' is corrupt, structures of user dropped.", file, userId, e);
+            return new Versioned(System.currentTimeMillis(), new HashMap<>());
+        }
+    }
+
+    private Versioned decode(byte[] content) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        long version = in.readLong();
+        int count = in.readInt();
+        if (count < 0 || count > content.length) {
+            throw new IOException("invalid structures count " + count);
+        }
+        Map<String, byte[]> structures = new HashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            String table = in.readUTF();
+            int length = in.readInt();
+            if (length < 0 || length > in.available()) {
+                throw new IOException("invalid structure length " + length + " of table " + table);
+            }
+            byte[] data = new byte[length];
+            in.readFully(data);
+            structures.put(table, data);
+        }
+        if (in.available() > 0) {
+            throw new IOException(in.available() + " unexpected trailing byte(s)");
+        }
+        return new Versioned(version, structures);
+    }
+
+    /**
+     * user id hex encoded, so any character is safe in file name
+     */
+    private String getFileName(String userId) {
+        AssertionUtils.hasText(userId, "null or empty user id not acceptable");
+        StringBuilder name = new StringBuilder();
+        for (byte b : userId.getBytes(StandardCharsets.UTF_8)) {
+            name.append(String.format("%02x", b));
+        }
+        return name.toString();
+    }
+}
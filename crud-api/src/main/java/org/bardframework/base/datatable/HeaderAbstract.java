@@ -1,5 +1,6 @@
 package org.bardframework.base.datatable;
 
+import org.bardframework.base.UtilityMethods;
 import org.bardframework.commons.jackson.converter.*;
 import org.bardframework.crud.commons.converter.StringToEnumConverter;
 import org.slf4j.Logger;
@@ -31,10 +32,40 @@ public abstract class HeaderAbstract {
     protected Converter<?, ?> inputConverter;
     protected Converter<?, ?> outputConverter;
     protected List<String> messageKeys;
+    protected Class<?> valueType;
 
     public HeaderAbstract() {
     }
 
+    /**
+     * bind header to resolved field of main class, called once per structure by {@link DataTableUtils}.
+     *
+     * @param valueType type of field that header path points to
+     * @param fieldName name of field in its container class
+     * @param tableName table of container class, null if container class not mapped to a table
+     * @param queryPath column of field resolved by {@link DataTableColumnResolver}, null if not resolved
+     */
+    public void init(Class<?> mainClazz, Class<?> valueType, String fieldName, String tableName, Object queryPath) {
+        this.validate(mainClazz);
+        this.determineConverters(valueType);
+        this.bind(mainClazz, valueType, fieldName, tableName, queryPath, UtilityMethods.toMessageKeys(mainClazz.getSimpleName() + "." + path));
+    }
+
+    /**
+     * same as {@link #init(Class, Class, String, String, Object)}, but field, converters and message keys taken from compile time generated metadata.
+     */
+    public void init(Class<?> mainClazz, DataTableHeaderMetadata metadata, String tableName, Object queryPath) {
+        this.validate(mainClazz);
+        this.inputConverter = metadata.newInputConverter();
+        this.outputConverter = metadata.newOutputConverter();
+        this.bind(mainClazz, metadata.getValueType(), metadata.getFieldName(), tableName, queryPath, metadata.getMessageKeys());
+    }
+
+    protected void bind(Class<?> mainClazz, Class<?> valueType, String fieldName, String tableName, Object queryPath, List<String> messageKeys) {
+        this.valueType = valueType;
+        this.messageKeys = messageKeys;
+    }
+
     public void validate(Class<?> mainClazz) {
         /*
           check HeaderAbstract parameters are valid and consistent
@@ -161,6 +192,10 @@ public abstract class HeaderAbstract {
         return messageKeys;
     }
 
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
     public boolean isVisible() {
         return visible;
     }
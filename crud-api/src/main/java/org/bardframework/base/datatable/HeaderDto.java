@@ -11,6 +11,7 @@ import org.springframework.context.MessageSource;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +28,14 @@ public class HeaderDto {
     private Boolean visible;
     private boolean searchable;
     private List<BaseData> values;
+    /**
+     * count of records per value id, see {@link DataTableEntityService#fillFacets}
+     */
+    private Map<String, Long> facets;
+    /**
+     * global bounds of <code>MIN_MAX</code> header, see {@link DataTableEntityService#fillBounds}
+     */
+    private MinMaxBounds bounds;
     @JsonIgnore
     private List<String> messageKeys;
 
@@ -139,6 +148,22 @@ public class HeaderDto {
         this.values = values;
     }
 
+    public Map<String, Long> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Long> facets) {
+        this.facets = facets;
+    }
+
+    public MinMaxBounds getBounds() {
+        return bounds;
+    }
+
+    public void setBounds(MinMaxBounds bounds) {
+        this.bounds = bounds;
+    }
+
     public String getMin() {
         return min;
     }
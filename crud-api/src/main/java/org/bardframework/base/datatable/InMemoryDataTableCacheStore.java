@@ -0,0 +1,216 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.commons.utils.AssertionUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * bounded in memory store of immutable snapshots.
+ * snapshots of each user kept in an immutable map replaced by compare and set, so reads take no lock and concurrent updates never lost.
+ * when count of users exceed <code>maxUsers</code> least recently used users evicted (down to 90% of max),
+ * users that not accessed for <code>idleTimeoutMillis</code> evicted too.
+ */
+public class InMemoryDataTableCacheStore implements DataTableCacheStore {
+
+    public static final int DEFAULT_MAX_USERS = 10_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    private final int maxUsers;
+    private final long idleTimeoutMillis;
+    private final Map<String, UserEntry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private volatile Consumer<String> evictionListener = userId -> {
+    };
+
+    public InMemoryDataTableCacheStore() {
+        this(DEFAULT_MAX_USERS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public InMemoryDataTableCacheStore(int maxUsers, long idleTimeoutMillis) {
+        if (maxUsers < 1 || idleTimeoutMillis < 1) {
+            throw new IllegalArgumentException("max users and idle timeout must be greater than 0");
+        }
+        this.maxUsers = maxUsers;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public DataTableSnapshot get(String userId, String table) {
+        UserEntry entry = this.getEntry(userId);
+        DataTableSnapshot snapshot = null == entry ? null : entry.snapshots.get().get(table);
+        (null == snapshot ? missCount : hitCount).incrementAndGet();
+        return snapshot;
+    }
+
+    @Override
+    public Collection<DataTableSnapshot> getAll(String userId) {
+        UserEntry entry = this.getEntry(userId);
+        if (null == entry) {
+            missCount.incrementAndGet();
+            return Collections.emptyList();
+        }
+        hitCount.incrementAndGet();
+        return entry.snapshots.get().values();
+    }
+
+    @Override
+    public boolean put(String userId, DataTableSnapshot snapshot) {
+        AssertionUtils.notNull(snapshot, "null snapshot not acceptable");
+        while (true) {
+            UserEntry entry = this.getEntry(userId);
+            if (null == entry) {
+                entry = entries.computeIfAbsent(userId, key -> new UserEntry());
+                this.evictIfNeeded();
+            }
+            boolean changed = entry.replace(snapshot);
+            /*
+              retry if entry evicted concurrently, otherwise update is lost
+             */
+            if (entries.get(userId) == entry) {
+                return changed;
+            }
+        }
+    }
+
+    @Override
+    public void putAll(String userId, Collection<DataTableSnapshot> snapshots) {
+        Map<String, DataTableSnapshot> map = new HashMap<>();
+        snapshots.forEach(snapshot -> map.put(snapshot.getTable(), snapshot));
+        UserEntry entry = new UserEntry();
+        entry.snapshots.set(Collections.unmodifiableMap(map));
+        entries.put(userId, entry);
+        this.evictIfNeeded();
+    }
+
+    @Override
+    public void remove(String userId) {
+        entries.remove(userId);
+    }
+
+    /**
+     * @return true if snapshots of user exist in store, statistics and access time of user not changed
+     */
+    public boolean contains(String userId) {
+        return entries.containsKey(userId);
+    }
+
+    @Override
+    public DataTableCacheStatistics getStatistics() {
+        long structureCount = 0;
+        long estimatedBytes = 0;
+        for (UserEntry entry : entries.values()) {
+            for (DataTableSnapshot snapshot : entry.snapshots.get().values()) {
+                structureCount++;
+                estimatedBytes += snapshot.getEstimatedSize();
+            }
+        }
+        return new DataTableCacheStatistics(entries.size(), structureCount, estimatedBytes, hitCount.get(), missCount.get(), evictionCount.get());
+    }
+
+    /**
+     * @return not expired entry of user (touched as recently used), null otherwise
+     */
+    private UserEntry getEntry(String userId) {
+        UserEntry entry = entries.get(userId);
+        if (null == entry) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.lastAccess > idleTimeoutMillis) {
+            if (entries.remove(userId, entry)) {
+                this.evicted(userId);
+            }
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry;
+    }
+
+    /**
+     * when size exceeded, one thread removes idle users and least recently used ones, down to 90% of max users.
+     */
+    private void evictIfNeeded() {
+        if (entries.size() <= maxUsers || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            List<EvictionCandidate> candidates = new ArrayList<>(entries.size());
+            entries.forEach((userId, entry) -> candidates.add(new EvictionCandidate(userId, entry)));
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            int target = Math.max(1, maxUsers - maxUsers / 10);
+            for (EvictionCandidate candidate : candidates) {
+                boolean idle = now - candidate.lastAccess > idleTimeoutMillis;
+                if (!idle && entries.size() <= target) {
+                    break;
+                }
+                if (entries.remove(candidate.userId, candidate.entry)) {
+                    this.evicted(candidate.userId);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evicted(String userId) {
+        evictionCount.incrementAndGet();
+        evictionListener.accept(userId);
+    }
+
+    /**
+     * @param evictionListener called with id of each user evicted by size or idle time (not on {@link #remove(String)})
+     */
+    public void setEvictionListener(Consumer<String> evictionListener) {
+        AssertionUtils.notNull(evictionListener, "null eviction listener not acceptable");
+        this.evictionListener = evictionListener;
+    }
+
+    private static class UserEntry {
+        private final AtomicReference<Map<String, DataTableSnapshot>> snapshots = new AtomicReference<>(Collections.emptyMap());
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        /**
+         * copy on write replace of table snapshot
+         *
+         * @return false if snapshot equals to current one
+         */
+        private boolean replace(DataTableSnapshot snapshot) {
+            while (true) {
+                Map<String, DataTableSnapshot> current = snapshots.get();
+                if (snapshot.equals(current.get(snapshot.getTable()))) {
+                    return false;
+                }
+                Map<String, DataTableSnapshot> updated = new HashMap<>(current);
+                updated.put(snapshot.getTable(), snapshot);
+                if (snapshots.compareAndSet(current, Collections.unmodifiableMap(updated))) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * last access time captured once, so sorting is consistent while users keep accessing entries
+     */
+    private static class EvictionCandidate {
+        private final String userId;
+        private final UserEntry entry;
+        private final long lastAccess;
+
+        private EvictionCandidate(String userId, UserEntry entry) {
+            this.userId = userId;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+}
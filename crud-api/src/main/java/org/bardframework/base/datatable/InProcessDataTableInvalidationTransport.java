@@ -0,0 +1,23 @@
+package org.bardframework.base.datatable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * deliver invalidation messages to subscribers in same JVM, synchronously.
+ * share one instance between several stores to simulate cluster nodes in tests.
+ */
+public class InProcessDataTableInvalidationTransport implements DataTableInvalidationTransport {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String userId, long version) {
+        listeners.forEach(listener -> listener.onChange(userId, version));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
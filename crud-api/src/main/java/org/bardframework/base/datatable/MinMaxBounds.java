@@ -0,0 +1,63 @@
+package org.bardframework.base.datatable;
+
+import java.util.Objects;
+
+/**
+ * lower and upper bound of values of a <code>MIN_MAX</code> header, immutable.
+ */
+public final class MinMaxBounds {
+
+    private final Comparable<?> min;
+    private final Comparable<?> max;
+
+    public MinMaxBounds(Comparable<?> min, Comparable<?> max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return bounds that include given value, <code>this</code> if value is null or already in bounds
+     */
+    @SuppressWarnings("unchecked")
+    public MinMaxBounds include(Comparable<?> value) {
+        if (null == value) {
+            return this;
+        }
+        Comparable<Object> comparable = (Comparable<Object>) value;
+        boolean lower = null == min || comparable.compareTo(min) < 0;
+        boolean upper = null == max || comparable.compareTo(max) > 0;
+        if (!lower && !upper) {
+            return this;
+        }
+        return new MinMaxBounds(lower ? value : min, upper ? value : max);
+    }
+
+    public Comparable<?> getMin() {
+        return min;
+    }
+
+    public Comparable<?> getMax() {
+        return max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MinMaxBounds that = (MinMaxBounds) o;
+        return Objects.equals(min, that.min) && Objects.equals(max, that.max);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(min, max);
+    }
+
+    @Override
+    public String toString() {
+        return "MinMaxBounds{" +
+                "min=" + min +
+                ", max=" + max +
+                '}';
+    }
+}
@@ -0,0 +1,186 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.commons.utils.AssertionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * store shared between cluster nodes, each node keeps a near cache of snapshots and loads user data from {@link DataTableSharedStore} on first access.
+ * local changes are written to shared store by {@link DataTableCacheWriteBehind} (this class is its persister),
+ * every write increases version of user data and is broadcast by {@link DataTableInvalidationTransport};
+ * nodes that hold an older version mark their near cache of user stale and reload it on next access.
+ * a near cache reloaded while local changes may be pending (not persisted yet) lacks them, so it is marked stale again after next persist of user.
+ * <p>
+ * to use in cluster, define this class as {@link DataTableCacheStore} bean.
+ */
+public class SharedDataTableCacheStore implements DataTableCacheStore, DataTableCachePersister {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedDataTableCacheStore.class);
+
+    private final DataTableSharedStore sharedStore;
+    private final DataTableInvalidationTransport transport;
+    private final InMemoryDataTableCacheStore nearCache;
+    /**
+     * version state of users that are in near cache, removed when near cache of user evicted
+     */
+    private final Map<String, UserVersion> versions = new ConcurrentHashMap<>();
+
+    public SharedDataTableCacheStore(DataTableSharedStore sharedStore, DataTableInvalidationTransport transport) {
+        this(sharedStore, transport, new InMemoryDataTableCacheStore());
+    }
+
+    public SharedDataTableCacheStore(DataTableSharedStore sharedStore, DataTableInvalidationTransport transport, InMemoryDataTableCacheStore nearCache) {
+        AssertionUtils.notNull(sharedStore, "null shared store not acceptable");
+        AssertionUtils.notNull(transport, "null invalidation transport not acceptable");
+        AssertionUtils.notNull(nearCache, "null near cache not acceptable");
+        this.sharedStore = sharedStore;
+        this.transport = transport;
+        this.nearCache = nearCache;
+        this.nearCache.setEvictionListener(this::onEvict);
+        this.transport.subscribe(this::onChange);
+    }
+
+    @Override
+    public DataTableSnapshot get(String userId, String table) {
+        this.loadIfAbsent(userId);
+        return nearCache.get(userId, table);
+    }
+
+    @Override
+    public Collection<DataTableSnapshot> getAll(String userId) {
+        this.loadIfAbsent(userId);
+        return nearCache.getAll(userId);
+    }
+
+    /**
+     * only near cache updated, change is written to shared store by write behind via {@link #persist(Map)}.
+     */
+    @Override
+    public boolean put(String userId, DataTableSnapshot snapshot) {
+        this.loadIfAbsent(userId);
+        return nearCache.put(userId, snapshot);
+    }
+
+    /**
+     * replace all data of user, written through shared store immediately.
+     */
+    @Override
+    public void putAll(String userId, Collection<DataTableSnapshot> snapshots) {
+        Map<String, byte[]> encoded = new HashMap<>();
+        snapshots.forEach(snapshot -> encoded.put(snapshot.getTable(), DataTableCachedStructureCodec.encode(snapshot.toStructure())));
+        long version = sharedStore.replace(userId, encoded);
+        synchronized (this) {
+            nearCache.putAll(userId, snapshots);
+            versions.computeIfAbsent(userId, key -> new UserVersion());
+        }
+        this.published(userId, version);
+    }
+
+    /**
+     * remove near cache of user, shared data not changed.
+     */
+    @Override
+    public synchronized void remove(String userId) {
+        nearCache.remove(userId);
+        versions.remove(userId);
+    }
+
+    @Override
+    public DataTableCacheStatistics getStatistics() {
+        return nearCache.getStatistics();
+    }
+
+    @Override
+    public void persist(Map<String, Collection<DataTableCachedStructure>> structures) {
+        for (Map.Entry<String, Collection<DataTableCachedStructure>> entry : structures.entrySet()) {
+            Map<String, byte[]> encoded = new HashMap<>();
+            entry.getValue().forEach(structure -> encoded.put(structure.getTable(), DataTableCachedStructureCodec.encode(structure)));
+            this.published(entry.getKey(), sharedStore.save(entry.getKey(), encoded));
+        }
+    }
+
+    public long getVersion(String userId) {
+        UserVersion userVersion = versions.get(userId);
+        return null == userVersion ? 0 : userVersion.version;
+    }
+
+    /**
+     * record version of a write of this node; if near cache reloaded meanwhile (may lack persisted changes), it is marked stale.
+     */
+    private void published(String userId, long version) {
+        synchronized (this) {
+            UserVersion userVersion = versions.get(userId);
+            if (null != userVersion) {
+                userVersion.version = Math.max(userVersion.version, version);
+                if (userVersion.reloaded) {
+                    userVersion.reloaded = false;
+                    userVersion.stale = true;
+                }
+            }
+        }
+        transport.publish(userId, version);
+    }
+
+    /**
+     * changes of this node have same version as recorded one and ignored, newer versions of other nodes mark near cache stale.
+     * near cache not dropped, so it stays under size and idle bound of near cache (and its eviction cleans version too).
+     */
+    private synchronized void onChange(String userId, long version) {
+        UserVersion userVersion = versions.get(userId);
+        if (null != userVersion && version > userVersion.version) {
+            LOGGER.debug("data table structures of user '{}' changed to version {}, local version {} invalidated.", userId, version, userVersion.version);
+            userVersion.stale = true;
+        }
+    }
+
+    private synchronized void onEvict(String userId) {
+        if (!nearCache.contains(userId)) {
+            versions.remove(userId);
+        }
+    }
+
+    private void loadIfAbsent(String userId) {
+        UserVersion current = versions.get(userId);
+        if (null != current && !current.stale && nearCache.contains(userId)) {
+            return;
+        }
+        DataTableSharedStore.Versioned versioned = sharedStore.load(userId);
+        List<DataTableSnapshot> snapshots = new ArrayList<>(versioned.getStructures().size());
+        versioned.getStructures().values().forEach(data -> snapshots.add(DataTableSnapshot.of(DataTableCachedStructureCodec.decode(data))));
+        synchronized (this) {
+            UserVersion userVersion = versions.get(userId);
+            if (null != userVersion && !userVersion.stale && nearCache.contains(userId)) {
+                /*
+                  loaded concurrently
+                 */
+                return;
+            }
+            nearCache.putAll(userId, snapshots);
+            if (null == userVersion) {
+                userVersion = new UserVersion();
+                versions.put(userId, userVersion);
+            }
+            userVersion.reloaded = userVersion.stale;
+            userVersion.stale = false;
+            userVersion.version = Math.max(userVersion.version, versioned.getVersion());
+        }
+    }
+
+    private static class UserVersion {
+        /**
+         * version of user data that near cache is loaded from (or written to) shared store
+         */
+        private volatile long version;
+        /**
+         * newer version exist, reload on next access
+         */
+        private volatile boolean stale;
+        /**
+         * reloaded after being stale, local changes not persisted at reload time may be missing
+         */
+        private boolean reloaded;
+    }
+}
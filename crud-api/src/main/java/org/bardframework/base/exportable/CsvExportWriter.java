@@ -0,0 +1,67 @@
+package org.bardframework.base.exportable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 csv writer, starts output with UTF-8 BOM so spreadsheet applications detect persian text correctly.
+ */
+public class CsvExportWriter implements ExportWriter {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String LINE_SEPARATOR = "\r\n";
+    private static final char BOM = '\uFEFF';
+
+    private final Writer writer;
+
+    public CsvExportWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeHeaders(List<String> ids, List<String> names) throws IOException {
+        writer.write(BOM);
+        this.writeLine(names);
+    }
+
+    @Override
+    public void writeRow(List<Object> values) throws IOException {
+        this.writeLine(values);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeLine(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            this.writeCell(values.get(i));
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeCell(Object value) throws IOException {
+        if (null == value) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(SEPARATOR) < 0 && text.indexOf(QUOTE) < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write(QUOTE);
+        for (char c : text.toCharArray()) {
+            if (c == QUOTE) {
+                writer.write(QUOTE);
+            }
+            writer.write(c);
+        }
+        writer.write(QUOTE);
+    }
+}
@@ -0,0 +1,39 @@
+package org.bardframework.base.exportable;
+
+import java.io.OutputStream;
+
+/**
+ * supported formats of streaming export, each one knows how to create its own {@link ExportWriter}.
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv") {
+        @Override
+        public ExportWriter newWriter(OutputStream outputStream) {
+            return new CsvExportWriter(outputStream);
+        }
+    },
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public ExportWriter newWriter(OutputStream outputStream) {
+            return new NdjsonExportWriter(outputStream);
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public abstract ExportWriter newWriter(OutputStream outputStream);
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,24 @@
+package org.bardframework.base.exportable;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * row by row writer of exported data, implementations must not hold written rows in memory.
+ */
+public interface ExportWriter extends Flushable {
+
+    /**
+     * must be called once, before writing any row.
+     *
+     * @param ids   identifier of exported headers (header path)
+     * @param names translated name of exported headers, in same order of <code>ids</code>
+     */
+    void writeHeaders(List<String> ids, List<String> names) throws IOException;
+
+    /**
+     * @param values already converted cell values, in same order of headers
+     */
+    void writeRow(List<Object> values) throws IOException;
+}
@@ -0,0 +1,23 @@
+package org.bardframework.base.exportable;
+
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.datatable.HeaderAbstract;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+public interface ExportableEntityRepository<C extends BaseCriteria<I>, I extends Serializable, U> {
+
+    /**
+     * write all records match with given criteria to <code>writer</code>, row by row, without loading whole result.
+     * page and size of criteria are ignored.
+     *
+     * @param criteria
+     * @param headers  exported headers, values converted using output converter of each header
+     * @param writer
+     * @param user
+     * @return count of exported rows
+     */
+    long export(C criteria, List<HeaderAbstract> headers, ExportWriter writer, U user) throws IOException;
+}
@@ -0,0 +1,46 @@
+package org.bardframework.base.exportable;
+
+import org.bardframework.base.crud.BaseCriteria;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+public interface ExportableEntityRestController<C extends BaseCriteria<I>, S extends ExportableEntityService<C, ?, I, U>, I extends Serializable, U> {
+
+    String EXPORT_URL = "export";
+
+    /**
+     * stream all records match with given criteria directly to response.
+     *
+     * @param criteria same criteria used in filter, page and size ignored
+     * @param headers  selected header ids, all visible headers exported if not provided
+     * @param format
+     */
+    @PostMapping(value = EXPORT_URL, consumes = APPLICATION_JSON_VALUE)
+    default void EXPORT(@RequestBody @Valid C criteria, @RequestParam(value = "headers", required = false) List<String> headers, @RequestParam(value = "format", defaultValue = "CSV") ExportFormat format, Locale locale, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + this.getExportFileName() + "." + format.getExtension() + "\"");
+        this.getService().export(criteria, headers, format, response.getOutputStream(), locale, this.getUser());
+    }
+
+    default String getExportFileName() {
+        return "export";
+    }
+
+    S getService();
+
+    U getUser();
+}
@@ -0,0 +1,65 @@
+package org.bardframework.base.exportable;
+
+import org.bardframework.base.UtilityMethods;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.datatable.HeaderAbstract;
+import org.bardframework.commons.utils.CollectionUtils;
+import org.springframework.context.MessageSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public interface ExportableEntityService<C extends BaseCriteria<I>, R extends ExportableEntityRepository<C, I, U>, I extends Serializable, U> {
+
+    /**
+     * @param headerIds selected header ids (paths), all visible headers exported if null or empty
+     * @return count of exported rows
+     */
+    default long export(C criteria, List<String> headerIds, ExportFormat format, OutputStream outputStream, Locale locale, U user) throws IOException {
+        List<HeaderAbstract> headers = this.getExportHeaders(headerIds);
+        List<String> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (HeaderAbstract header : headers) {
+            ids.add(header.getPath());
+            names.add(CollectionUtils.isEmpty(header.getMessageKeys()) ? header.getPath() : UtilityMethods.translate(header.getMessageKeys(), this.getMessageSource(), locale));
+        }
+        ExportWriter writer = format.newWriter(outputStream);
+        writer.writeHeaders(ids, names);
+        /*
+          send header row before executing query, so client receives first byte immediately.
+         */
+        writer.flush();
+        return this.getRepository().export(criteria, headers, writer, user);
+    }
+
+    default List<HeaderAbstract> getExportHeaders(List<String> headerIds) {
+        if (CollectionUtils.isEmpty(headerIds)) {
+            return this.getHeaders().stream().filter(HeaderAbstract::isVisible).collect(Collectors.toList());
+        }
+        Map<String, HeaderAbstract> headerMap = this.getHeaders().stream().collect(Collectors.toMap(HeaderAbstract::getPath, Function.identity()));
+        List<HeaderAbstract> headers = new ArrayList<>();
+        for (String headerId : headerIds) {
+            if (!headerMap.containsKey(headerId)) {
+                throw new IllegalArgumentException("invalid header for export: " + headerId);
+            }
+            headers.add(headerMap.get(headerId));
+        }
+        return headers;
+    }
+
+    /**
+     * @return data table headers of entity
+     */
+    List<HeaderAbstract> getHeaders();
+
+    MessageSource getMessageSource();
+
+    R getRepository();
+}
@@ -0,0 +1,73 @@
+package org.bardframework.base.exportable;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * newline delimited json writer, each row written as one json object keyed by header ids.
+ */
+public class NdjsonExportWriter implements ExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+    private List<String> ids;
+
+    public NdjsonExportWriter(OutputStream outputStream) {
+        try {
+            this.generator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8);
+        } catch (IOException e) {
+            throw new IllegalStateException("can't create json generator", e);
+        }
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void writeHeaders(List<String> ids, List<String> names) {
+        this.ids = ids;
+    }
+
+    @Override
+    public void writeRow(List<Object> values) throws IOException {
+        if (null == ids || ids.size() != values.size()) {
+            throw new IllegalStateException("headers must be written before rows, with same size of row values");
+        }
+        generator.writeStartObject();
+        for (int i = 0; i < values.size(); i++) {
+            generator.writeFieldName(ids.get(i));
+            this.writeValue(values.get(i));
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (null == value) {
+            generator.writeNull();
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
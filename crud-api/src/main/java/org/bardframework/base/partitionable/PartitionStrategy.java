@@ -0,0 +1,15 @@
+package org.bardframework.base.partitionable;
+
+/**
+ * how records of a criteria divided between parallel scans.
+ */
+public enum PartitionStrategy {
+    /**
+     * split [min(id), max(id)] to equal ranges, best for dense sequential identifiers.
+     */
+    ID_RANGE,
+    /**
+     * partition by <code>id mod partitions</code>, even distribution for sparse identifiers.
+     */
+    HASH
+}
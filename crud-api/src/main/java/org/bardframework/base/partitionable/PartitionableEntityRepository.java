@@ -0,0 +1,23 @@
+package org.bardframework.base.partitionable;
+
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.BaseModelAbstract;
+
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+public interface PartitionableEntityRepository<M extends BaseModelAbstract<I>, C extends BaseCriteria<I>, I extends Serializable, U> {
+
+    /**
+     * fetch all data match with given criteria, split into <code>partitions</code> parts fetched concurrently, each one with its own connection.
+     *
+     * @param ordered if true, result merged in order of identifier, otherwise partitions returned as soon as fetched.
+     * @return
+     */
+    Stream<M> getParallel(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, U user);
+
+    /**
+     * @see #getParallel(BaseCriteria, PartitionStrategy, int, boolean, Object)
+     */
+    Stream<I> getIdsParallel(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, U user);
+}
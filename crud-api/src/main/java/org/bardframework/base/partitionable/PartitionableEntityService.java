@@ -0,0 +1,31 @@
+package org.bardframework.base.partitionable;
+
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.BaseModelAbstract;
+
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+public interface PartitionableEntityService<M extends BaseModelAbstract<I>, C extends BaseCriteria<I>, R extends PartitionableEntityRepository<M, C, I, U>, I extends Serializable, U> {
+
+    /**
+     * parallel unordered scan, partitions count equals to available processors.
+     */
+    default Stream<M> getParallel(C criteria, PartitionStrategy strategy, U user) {
+        return this.getParallel(criteria, strategy, Runtime.getRuntime().availableProcessors(), false, user);
+    }
+
+    default Stream<M> getParallel(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, U user) {
+        return this.getRepository().getParallel(criteria, strategy, partitions, ordered, user);
+    }
+
+    default Stream<I> getIdsParallel(C criteria, PartitionStrategy strategy, U user) {
+        return this.getIdsParallel(criteria, strategy, Runtime.getRuntime().availableProcessors(), false, user);
+    }
+
+    default Stream<I> getIdsParallel(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, U user) {
+        return this.getRepository().getIdsParallel(criteria, strategy, partitions, ordered, user);
+    }
+
+    R getRepository();
+}
@@ -0,0 +1,20 @@
+package org.bardframework.base.restrictable;
+
+/**
+ * publish when permissions of a user (or all users) changed, so cached row restrictions recomputed on next query.
+ */
+public class RestrictionsChanged {
+
+    private final Object userKey;
+
+    /**
+     * @param userKey key of user that restrictions cached by (see <code>RestrictableEntityRepositoryQdslSql.getRestrictionKey</code>), null for all users
+     */
+    public RestrictionsChanged(Object userKey) {
+        this.userKey = userKey;
+    }
+
+    public Object getUserKey() {
+        return userKey;
+    }
+}
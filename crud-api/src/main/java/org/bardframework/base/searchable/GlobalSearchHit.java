@@ -0,0 +1,27 @@
+package org.bardframework.base.searchable;
+
+/**
+ * hit of global search, typed by searched entity
+ */
+public class GlobalSearchHit extends SearchHit<Object> {
+
+    private final String type;
+
+    public GlobalSearchHit(String type, Object model, double score) {
+        super(model, score);
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "GlobalSearchHit{" +
+                "type='" + type + '\'' +
+                ", model=" + this.getModel() +
+                ", score=" + this.getScore() +
+                '}';
+    }
+}
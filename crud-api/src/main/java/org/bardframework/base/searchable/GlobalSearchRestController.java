@@ -0,0 +1,18 @@
+package org.bardframework.base.searchable;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+public interface GlobalSearchRestController<U> {
+
+    String GLOBAL_SEARCH_URL = "search";
+
+    @GetMapping(value = GLOBAL_SEARCH_URL)
+    default GlobalSearchResult GLOBAL_SEARCH(@RequestParam(value = "query") String query, @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return this.getGlobalSearchService().search(query, limit, this.getUser());
+    }
+
+    GlobalSearchService getGlobalSearchService();
+
+    U getUser();
+}
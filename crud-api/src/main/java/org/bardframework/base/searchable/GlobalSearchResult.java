@@ -0,0 +1,25 @@
+package org.bardframework.base.searchable;
+
+import java.util.List;
+
+/**
+ * merged hits of all entities, most relevant first, and types of entities that not answered in time (or failed) so their hits are missing.
+ */
+public class GlobalSearchResult {
+
+    private final List<GlobalSearchHit> hits;
+    private final List<String> incompleteTypes;
+
+    public GlobalSearchResult(List<GlobalSearchHit> hits, List<String> incompleteTypes) {
+        this.hits = hits;
+        this.incompleteTypes = incompleteTypes;
+    }
+
+    public List<GlobalSearchHit> getHits() {
+        return hits;
+    }
+
+    public List<String> getIncompleteTypes() {
+        return incompleteTypes;
+    }
+}
@@ -0,0 +1,117 @@
+package org.bardframework.base.searchable;
+
+import org.bardframework.commons.utils.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * search all searchable repositories in parallel and merge their ranked hits.
+ * repositories searched on a bounded pool, each one must answer in <code>timeBudgetMillis</code> (measured from start of search),
+ * otherwise it is cancelled and reported as incomplete, so a slow entity never stalls the whole result.
+ * size of pool and its queue read from <code>bard.search.global.parallelism</code> and <code>bard.search.global.queue-capacity</code>
+ * properties when pool created, time budget from <code>bard.search.global.time-budget-millis</code>.
+ */
+@Component
+public class GlobalSearchService {
+
+    public static final int DEFAULT_PARALLELISM = 8;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GlobalSearchService.class);
+
+    @Autowired(required = false)
+    private List<SearchableEntityRepository<?, ?, ?, ?>> repositories = Collections.emptyList();
+    @Value("${bard.search.global.parallelism:" + DEFAULT_PARALLELISM + "}")
+    private int parallelism = DEFAULT_PARALLELISM;
+    @Value("${bard.search.global.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}")
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    @Value("${bard.search.global.time-budget-millis:" + DEFAULT_TIME_BUDGET_MILLIS + "}")
+    private volatile long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    private ExecutorService executor;
+
+    @PostConstruct
+    private void start() {
+        if (parallelism < 1 || queueCapacity < 1) {
+            throw new IllegalStateException("parallelism and queue capacity of global search must be greater than 0");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        /*
+          searches rejected by full queue reported as incomplete, instead of running on caller thread
+         */
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "global-search-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    private void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param limit maximum count of merged hits, also maximum count of hits of each entity
+     */
+    public GlobalSearchResult search(String query, int limit, Object user) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        if (StringUtils.hasNotText(query)) {
+            return new GlobalSearchResult(new ArrayList<>(), new ArrayList<>());
+        }
+        long deadline = System.currentTimeMillis() + timeBudgetMillis;
+        Map<String, Future<List<SearchHit<?>>>> futures = new LinkedHashMap<>();
+        List<String> incompleteTypes = new ArrayList<>();
+        for (SearchableEntityRepository<?, ?, ?, ?> repository : repositories) {
+            String type = repository.getSearchType();
+            try {
+                futures.put(type, executor.submit(() -> this.search(repository, query, limit, user)));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("global search of '{}' rejected, search pool is full.", type);
+                incompleteTypes.add(type);
+            }
+        }
+        List<GlobalSearchHit> hits = new ArrayList<>();
+        for (Map.Entry<String, Future<List<SearchHit<?>>>> entry : futures.entrySet()) {
+            try {
+                for (SearchHit<?> hit : entry.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    hits.add(new GlobalSearchHit(entry.getKey(), hit.getModel(), hit.getScore()));
+                }
+            } catch (TimeoutException e) {
+                LOGGER.debug("global search of '{}' not completed in {} millis, cancelled.", entry.getKey(), timeBudgetMillis);
+                entry.getValue().cancel(true);
+                incompleteTypes.add(entry.getKey());
+            } catch (ExecutionException e) {
+                LOGGER.error("global search of '{}' failed.", entry.getKey(), e.getCause());
+                incompleteTypes.add(entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(future -> future.cancel(true));
+                throw new IllegalStateException("global search interrupted", e);
+            }
+        }
+        hits.sort(Comparator.comparingDouble(GlobalSearchHit::getScore).reversed());
+        return new GlobalSearchResult(hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits, incompleteTypes);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<SearchHit<?>> search(SearchableEntityRepository repository, String query, int limit, Object user) {
+        return repository.searchRanked(repository.newSearchCriteria(query), limit, user);
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+}
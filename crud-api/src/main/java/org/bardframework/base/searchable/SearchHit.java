@@ -0,0 +1,31 @@
+package org.bardframework.base.searchable;
+
+/**
+ * a model matched by ranked search and its relevance, higher scores are more relevant.
+ */
+public class SearchHit<M> {
+
+    private final M model;
+    private final double score;
+
+    public SearchHit(M model, double score) {
+        this.model = model;
+        this.score = score;
+    }
+
+    public M getModel() {
+        return model;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" +
+                "model=" + model +
+                ", score=" + score +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package org.bardframework.base.searchable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * normal form of texts for searching: lower case, arabic letters replaced by persian ones, arabic and persian digits replaced
+ * by latin ones, diacritics and zero width non-joiners removed.
+ * each character mapped or removed independently, so if a text contains a query, normal form of text contains normal form of query too.
+ */
+public final class SearchTextNormalizer {
+
+    private SearchTextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (null == text) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = SearchTextNormalizer.normalize(text.charAt(i));
+            if (c != 0) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return distinct tokens (runs of letters and digits) of normal form of text, in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String normalized = SearchTextNormalizer.normalize(text);
+        if (null != normalized) {
+            int start = -1;
+            for (int i = 0; i <= normalized.length(); i++) {
+                boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+                if (tokenChar && start < 0) {
+                    start = i;
+                } else if (!tokenChar && start >= 0) {
+                    tokens.add(normalized.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * @return normal form of character, 0 if character must be removed
+     */
+    public static char normalize(char c) {
+        switch (c) {
+            case '\u064A':
+            case '\u0649':
+                return '\u06CC';
+            case '\u0643':
+                return '\u06A9';
+            case '\u0629':
+                return '\u0647';
+            case '\u0623':
+            case '\u0625':
+            case '\u0671':
+                return '\u0627';
+            case '\u0624':
+                return '\u0648';
+            case '\u200C':
+            case '\u200D':
+            case '\u0640':
+                return 0;
+            default:
+                break;
+        }
+        if (c >= '\u064B' && c <= '\u065F' || c == '\u0670') {
+            return 0;
+        }
+        if (c >= '\u0660' && c <= '\u0669') {
+            return (char) ('0' + c - '\u0660');
+        }
+        if (c >= '\u06F0' && c <= '\u06F9') {
+            return (char) ('0' + c - '\u06F0');
+        }
+        return c;
+    }
+}
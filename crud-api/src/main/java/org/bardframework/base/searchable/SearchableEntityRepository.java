@@ -8,4 +8,20 @@ import java.util.List;
 public interface SearchableEntityRepository<M extends BaseModelAbstract<I>, C extends SearchableCriteria, I extends Serializable, U> {
 
     List<M> search(C criteria, U user);
+
+    /**
+     * @param limit maximum count of hits
+     * @return most relevant matches of query of criteria, most relevant first
+     */
+    List<SearchHit<M>> searchRanked(C criteria, int limit, U user);
+
+    /**
+     * @return criteria that only searches given query, used by global search
+     */
+    C newSearchCriteria(String query);
+
+    /**
+     * @return type of entities of this repository in global search results
+     */
+    String getSearchType();
 }
@@ -4,6 +4,7 @@ import org.bardframework.base.crud.BaseModelAbstract;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.Serializable;
 import java.util.List;
@@ -13,12 +14,18 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 public interface SearchableEntityRestController<M extends BaseModelAbstract<I>, C extends SearchableCriteria, S extends SearchableEntityService<M, C, ?, I, U>, I extends Serializable, U> {
 
     String SEARCH_URL = "search";
+    String SEARCH_RANKED_URL = "search/ranked";
 
     @PostMapping(value = SEARCH_URL, consumes = APPLICATION_JSON_VALUE)
     default List<M> SEARCH(@RequestBody @Validated C criteria) {
         return this.getService().search(criteria, this.getUser());
     }
 
+    @PostMapping(value = SEARCH_RANKED_URL, consumes = APPLICATION_JSON_VALUE)
+    default List<SearchHit<M>> SEARCH_RANKED(@RequestBody @Validated C criteria, @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return this.getService().searchRanked(criteria, limit, this.getUser());
+    }
+
     S getService();
 
     U getUser();
@@ -11,5 +11,9 @@ public interface SearchableEntityService<M extends BaseModelAbstract<I>, C exten
         return this.getRepository().search(criteria, user);
     }
 
+    default List<SearchHit<M>> searchRanked(C criteria, int limit, U user) {
+        return this.getRepository().searchRanked(criteria, limit, user);
+    }
+
     R getRepository();
 }
\ No newline at end of file
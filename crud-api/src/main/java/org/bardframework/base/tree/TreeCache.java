@@ -0,0 +1,343 @@
+package org.bardframework.base.tree;
+
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * immutable snapshots of tree of an entity in a scope (rows that a group of users can read). loaded once, then changed
+ * and removed nodes (reported by repository) reloaded by identifier and patched into a new snapshot on next read: changed node and its ancestors copied, other nodes shared
+ * with previous snapshot, so readers of previous snapshot never see a change.
+ * whole tree reloaded only when a patch can't be applied (e.g. removed node has children, or parent of node not in tree).
+ * <p>
+ * changes are reported only by repositories of this jvm. when several instances of application share a database,
+ * changes made by other instances seen after <code>ttlMillis</code>, when tree reloaded; applications that need them sooner
+ * call {@link #invalidate()} on their own messages.
+ */
+public class TreeCache<M extends BaseModelAbstract<I> & TreeEntityModel<M>, I extends Serializable> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TreeCache.class);
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final int DEFAULT_MAX_SCOPES = 1_000;
+
+    private static final Object NO_SCOPE = new Object();
+    /*
+      caches of each model class by scope, least recently used scope dropped
+     */
+    private static final Map<Class<?>, Map<Object, TreeCache<?, ?>>> CACHES = new ConcurrentHashMap<>();
+
+    private final Supplier<M> emptyModel;
+    private final long ttlMillis;
+    private final Object pendingLock = new Object();
+    private final Set<I> changed = new HashSet<>();
+    private final Set<I> removed = new HashSet<>();
+    private volatile boolean dirty;
+    private volatile TreeSnapshot<M> snapshot;
+    private volatile long loadedAt;
+    private volatile boolean loading;
+    /*
+      state of latest snapshot, only accessed by thread that holds lock of this cache
+     */
+    private final Map<I, M> nodes = new HashMap<>();
+    private final Map<I, I> parents = new HashMap<>();
+    private M root;
+    /**
+     * started from a random number, so versions of other instances (or a restarted one) not collide with versions of this one
+     */
+    private long version = ThreadLocalRandom.current().nextLong();
+
+    public TreeCache(Supplier<M> emptyModel) {
+        this(emptyModel, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param ttlMillis whole tree reloaded when older than it
+     */
+    public TreeCache(Supplier<M> emptyModel, long ttlMillis) {
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("ttl must be greater than 0");
+        }
+        this.emptyModel = emptyModel;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @param modelClazz class of tree model
+     * @param scope      key of rows that user can read (null if tree is same for all users), cache created on first call for each class and scope
+     */
+    @SuppressWarnings("unchecked")
+    public static <M extends BaseModelAbstract<I> & TreeEntityModel<M>, I extends Serializable> TreeCache<M, I> get(Class<?> modelClazz, Object scope, Supplier<M> emptyModel) {
+        Map<Object, TreeCache<?, ?>> caches = CACHES.computeIfAbsent(modelClazz, key -> Collections.synchronizedMap(new LinkedHashMap<Object, TreeCache<?, ?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, TreeCache<?, ?>> eldest) {
+                return size() > DEFAULT_MAX_SCOPES;
+            }
+        }));
+        return (TreeCache<M, I>) caches.computeIfAbsent(null == scope ? NO_SCOPE : scope, key -> new TreeCache<>(emptyModel));
+    }
+
+    /**
+     * report saved or updated nodes to trees of all scopes, they reloaded on next read
+     */
+    public static void changed(Class<?> modelClazz, Collection<?> ids) {
+        TreeCache.getCaches(modelClazz).forEach(cache -> cache.report(ids, false));
+    }
+
+    /**
+     * report deleted nodes to trees of all scopes, they removed on next read
+     */
+    public static void removed(Class<?> modelClazz, Collection<?> ids) {
+        TreeCache.getCaches(modelClazz).forEach(cache -> cache.report(ids, true));
+    }
+
+    /**
+     * drop trees of model class in all scopes, e.g. when a move changed columns of a whole subtree
+     */
+    public static void invalidate(Class<?> modelClazz) {
+        TreeCache.getCaches(modelClazz).forEach(TreeCache::invalidate);
+    }
+
+    private static List<TreeCache<?, ?>> getCaches(Class<?> modelClazz) {
+        Map<Object, TreeCache<?, ?>> caches = CACHES.get(modelClazz);
+        if (null == caches) {
+            return Collections.emptyList();
+        }
+        synchronized (caches) {
+            return new ArrayList<>(caches.values());
+        }
+    }
+
+    /**
+     * @param loader     loads all nodes of tree
+     * @param nodeLoader loads nodes of given identifiers, not returned nodes considered removed
+     */
+    public TreeSnapshot<M> getSnapshot(Supplier<List<M>> loader, Function<List<I>, List<M>> nodeLoader) {
+        TreeSnapshot<M> current = snapshot;
+        if (null != current && !dirty && !this.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            if (null == snapshot || this.isExpired()) {
+                /*
+                  changes reported while loading patched on next read
+                 */
+                loading = true;
+                try {
+                    this.drainPending();
+                    this.reload(loader.get());
+                } finally {
+                    loading = false;
+                }
+            } else if (dirty) {
+                this.patch(loader, nodeLoader);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * drop tree, reloaded on next read
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    private boolean isExpired() {
+        return System.currentTimeMillis() - loadedAt > ttlMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void report(Collection<?> ids, boolean remove) {
+        if (null == snapshot && !loading) {
+            return;
+        }
+        synchronized (pendingLock) {
+            (remove ? removed : changed).addAll((Collection<I>) ids);
+            dirty = true;
+        }
+    }
+
+    private void drainPending() {
+        synchronized (pendingLock) {
+            changed.clear();
+            removed.clear();
+            dirty = false;
+        }
+    }
+
+    private void patch(Supplier<List<M>> loader, Function<List<I>, List<M>> nodeLoader) {
+        Set<I> changedIds;
+        Set<I> removedIds;
+        synchronized (pendingLock) {
+            changedIds = new HashSet<>(changed);
+            removedIds = new HashSet<>(removed);
+            changed.clear();
+            removed.clear();
+            dirty = false;
+        }
+        changedIds.removeAll(removedIds);
+        boolean patched = true;
+        for (I id : removedIds) {
+            patched = patched && this.remove(id);
+        }
+        if (patched && !changedIds.isEmpty()) {
+            Map<I, M> loaded = new LinkedHashMap<>();
+            nodeLoader.apply(new ArrayList<>(changedIds)).forEach(model -> loaded.put(model.getId(), model));
+            for (I id : changedIds) {
+                if (!loaded.containsKey(id)) {
+                    patched = patched && this.remove(id);
+                }
+            }
+            /*
+              parents patched before their children (a saved parent and its children may be in same batch)
+             */
+            while (patched && !loaded.isEmpty()) {
+                int size = loaded.size();
+                Iterator<M> iterator = loaded.values().iterator();
+                while (iterator.hasNext()) {
+                    M model = iterator.next();
+                    I parentId = this.getParentId(model);
+                    if (null == parentId || nodes.containsKey(parentId) || !loaded.containsKey(parentId)) {
+                        patched = this.upsert(model);
+                        iterator.remove();
+                        if (!patched) {
+                            break;
+                        }
+                    }
+                }
+                patched = patched && loaded.size() < size;
+            }
+        }
+        if (patched) {
+            this.publish();
+        } else {
+            LOGGER.debug("tree changes can't be patched, whole tree reloaded.");
+            this.reload(loader.get());
+        }
+    }
+
+    private void reload(List<M> models) {
+        loadedAt = System.currentTimeMillis();
+        nodes.clear();
+        parents.clear();
+        for (M model : models) {
+            nodes.put(model.getId(), this.copy(model, new ArrayList<>()));
+        }
+        root = this.copy(emptyModel.get(), new ArrayList<>());
+        for (M model : models) {
+            I parentId = this.getParentId(model);
+            M node = nodes.get(model.getId());
+            if (null != parentId && nodes.containsKey(parentId)) {
+                nodes.get(parentId).getChildren().add(node);
+                parents.put(model.getId(), parentId);
+            } else {
+                root.getChildren().add(node);
+                parents.put(model.getId(), null);
+            }
+        }
+        this.publish();
+    }
+
+    /**
+     * @return false if node can't be patched
+     */
+    private boolean upsert(M model) {
+        I id = model.getId();
+        I parentId = this.getParentId(model);
+        if (null != parentId && !nodes.containsKey(parentId)) {
+            return false;
+        }
+        for (I ancestor = parentId; null != ancestor; ancestor = parents.get(ancestor)) {
+            if (ancestor.equals(id)) {
+                return false;
+            }
+        }
+        M old = nodes.get(id);
+        M node = this.copy(model, null == old ? new ArrayList<>() : old.getChildren());
+        if (null != old && !Objects.equals(parents.get(id), parentId)) {
+            this.setChild(parents.get(id), id, null);
+        }
+        nodes.put(id, node);
+        parents.put(id, parentId);
+        this.setChild(parentId, id, node);
+        return true;
+    }
+
+    /**
+     * @return false if node can't be patched (has children)
+     */
+    private boolean remove(I id) {
+        M node = nodes.get(id);
+        if (null == node) {
+            return true;
+        }
+        if (null != node.getChildren() && !node.getChildren().isEmpty()) {
+            return false;
+        }
+        this.setChild(parents.get(id), id, null);
+        nodes.remove(id);
+        parents.remove(id);
+        return true;
+    }
+
+    /**
+     * replace (or add, or remove if <code>child</code> is null) child of a node in a copy of it, and recursively in copies of its ancestors
+     */
+    private void setChild(I parentId, I childId, M child) {
+        M parent = null == parentId ? root : nodes.get(parentId);
+        List<M> children = new ArrayList<>(parent.getChildren());
+        int index = -1;
+        for (int i = 0; i < children.size(); i++) {
+            if (Objects.equals(childId, children.get(i).getId())) {
+                index = i;
+                break;
+            }
+        }
+        if (null == child) {
+            if (index >= 0) {
+                children.remove(index);
+            }
+        } else if (index >= 0) {
+            children.set(index, child);
+        } else {
+            children.add(child);
+        }
+        M parentCopy = this.copy(parent, children);
+        if (null == parentId) {
+            root = parentCopy;
+        } else {
+            nodes.put(parentId, parentCopy);
+            this.setChild(parents.get(parentId), parentId, parentCopy);
+        }
+    }
+
+    private void publish() {
+        version++;
+        /*
+          same as TreeEntityService.toTree, single root returned itself
+         */
+        snapshot = new TreeSnapshot<>(version, root.getChildren().size() == 1 ? root.getChildren().get(0) : root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private M copy(M model, List<M> children) {
+        M copy = BeanUtils.instantiateClass((Class<M>) model.getClass());
+        BeanUtils.copyProperties(model, copy);
+        copy.setParent(null);
+        copy.setChildren(children);
+        return copy;
+    }
+
+    private I getParentId(M model) {
+        return null == model.getParent() ? null : model.getParent().getId();
+    }
+}
@@ -13,4 +13,18 @@ public interface TreeEntityCriteria<I extends Serializable> {
     Boolean getRoot();
 
     List<I> getParentIds();
+
+    /**
+     * @return depth of nodes (roots are 0), null for no filter; requires depth column in repository
+     */
+    default Integer getDepth() {
+        return null;
+    }
+
+    /**
+     * @return identifier of a node, only that node and its descendants matched; null for no filter
+     */
+    default I getSubtreeRootId() {
+        return null;
+    }
 }
\ No newline at end of file
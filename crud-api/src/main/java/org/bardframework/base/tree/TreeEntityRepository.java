@@ -11,4 +11,20 @@ import java.util.List;
 public interface TreeEntityRepository<M extends BaseModelAbstract<I> & TreeEntityModel<M>, I extends Serializable, U> {
 
     List<M> getWithChildren(I id, U user);
+
+    /**
+     * @param maxDepth maximum distance of returned nodes from node of given id (0 returns only the node), negative for no limit
+     * @return node of given id and its descendants
+     */
+    List<M> getWithChildren(I id, int maxDepth, U user);
+
+    /**
+     * @return ancestors of node of given id, root first
+     */
+    List<M> getAncestors(I id, U user);
+
+    /**
+     * @return true if node of <code>ancestorId</code> is an ancestor of node of <code>id</code>
+     */
+    boolean isDescendant(I id, I ancestorId, U user);
 }
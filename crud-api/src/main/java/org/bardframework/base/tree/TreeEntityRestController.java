@@ -2,8 +2,13 @@ package org.bardframework.base.tree;
 
 import org.bardframework.base.crud.BaseCriteria;
 import org.bardframework.base.crud.BaseModelAbstract;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.Serializable;
 
@@ -13,14 +18,25 @@ import java.io.Serializable;
 public interface TreeEntityRestController<M extends BaseModelAbstract<I> & TreeEntityModel<M>, C extends BaseCriteria<I> & TreeEntityCriteria<I>, S extends TreeEntityService<M, C, ?, I, U>, I extends Serializable, U> {
     String TREE_URL = "tree";
 
+    /**
+     * when tree is cached, its version sent as <code>ETag</code> and not modified tree not sent again
+     */
     @GetMapping(value = TREE_URL)
-    default M getTree() {
-        return this.getService().getTree(this.getUser());
+    default ResponseEntity<M> getTree(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!this.getService().isTreeCacheEnabled()) {
+            return ResponseEntity.ok(this.getService().getTree(this.getUser()));
+        }
+        TreeSnapshot<M> snapshot = this.getService().getTreeSnapshot(this.getUser());
+        String eTag = "\"" + snapshot.getVersion() + "\"";
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(snapshot.getTree());
     }
 
     @GetMapping(value = "{rootId}/" + TREE_URL)
-    default M getTree(@PathVariable I rootId) {
-        return this.getService().getTree(rootId, this.getUser());
+    default M getTree(@PathVariable I rootId, @RequestParam(value = "maxDepth", defaultValue = "-1") int maxDepth) {
+        return this.getService().getTree(rootId, maxDepth, this.getUser());
     }
 
     S getService();
@@ -26,13 +26,51 @@ public interface TreeEntityService<M extends BaseModelAbstract<I> & TreeEntityMo
     Logger getLogger();
 
     default M getTree(U user) {
+        if (this.isTreeCacheEnabled()) {
+            return this.getTreeSnapshot(user).getTree();
+        }
         return this.toTree(this.getRepository().get(this.getEmptyCriteria(), user));
     }
 
+    /**
+     * cache of whole tree, disabled by default. trees cached per scope (see {@link #getTreeScope}).
+     */
+    default boolean isTreeCacheEnabled() {
+        return false;
+    }
+
+    /**
+     * @return key of rows of tree that user can read, one tree cached for each scope. by default tree cached per user
+     * (user must implement <code>equals</code> and <code>hashCode</code>);
+     * services that their users read same rows (e.g. repository without restriction) return null to share one tree,
+     * restricted repositories may return key of restrictions of user.
+     */
+    default Object getTreeScope(U user) {
+        return user;
+    }
+
+    /**
+     * @return cached tree and its version, must not be modified
+     */
+    default TreeSnapshot<M> getTreeSnapshot(U user) {
+        if (!this.isTreeCacheEnabled()) {
+            throw new IllegalStateException("tree cache is not enabled");
+        }
+        TreeCache<M, I> cache = TreeCache.get(this.getEmptyModel().getClass(), this.getTreeScope(user), this::getEmptyModel);
+        return cache.getSnapshot(() -> this.getRepository().get(this.getEmptyCriteria(), user), ids -> this.getRepository().get(ids, user));
+    }
+
     default M getTree(I rootId, U user) {
         return this.toTree(this.getRepository().getWithChildren(rootId, user));
     }
 
+    default M getTree(I rootId, int maxDepth, U user) {
+        return this.toTree(this.getRepository().getWithChildren(rootId, maxDepth, user));
+    }
+
+    /**
+     * nodes that their parent is not in list (e.g. root of a subtree) are roots of tree
+     */
     default M toTree(List<M> list) {
         Map<I, M> map = list.stream().collect(Collectors.toMap(M::getId, Function.identity()));
         List<M> roots = new ArrayList<>();
@@ -40,7 +78,8 @@ public interface TreeEntityService<M extends BaseModelAbstract<I> & TreeEntityMo
             if (child.getParent() != null) {
                 M parent = map.get(child.getParent().getId());
                 if (null == parent) {
-                    this.getLogger().warn("can't find parent {}", child.getParent());
+                    this.getLogger().debug("parent {} not loaded, {} is a root", child.getParent(), child);
+                    roots.add(child);
                 } else {
                     parent.addChild(child);
                 }
@@ -0,0 +1,24 @@
+package org.bardframework.base.tree;
+
+/**
+ * tree of an entity at a version, version changes on each change of tree (usable as <code>ETag</code>).
+ * nodes of snapshot are shared between callers and must not be modified.
+ */
+public final class TreeSnapshot<M> {
+
+    private final long version;
+    private final M tree;
+
+    public TreeSnapshot(long version, M tree) {
+        this.version = version;
+        this.tree = tree;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public M getTree() {
+        return tree;
+    }
+}
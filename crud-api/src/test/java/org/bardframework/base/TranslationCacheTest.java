@@ -0,0 +1,80 @@
+package org.bardframework.base;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TranslationCacheTest {
+
+    private final CountingMessageSource messageSource = new CountingMessageSource();
+
+    public TranslationCacheTest() {
+        messageSource.addMessage("person.name", Locale.ENGLISH, "Name");
+        messageSource.addMessage("person.name", Locale.FRENCH, "Nom");
+        messageSource.addMessage("name", Locale.ENGLISH, "Name of");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TranslationCache.clear();
+    }
+
+    @Test
+    public void testTranslationCachedPerLocale() {
+        assertThat(UtilityMethods.translate("person.name", messageSource, Locale.ENGLISH)).isEqualTo("Name");
+        assertThat(UtilityMethods.translate("person.name", messageSource, Locale.ENGLISH)).isEqualTo("Name");
+        assertThat(messageSource.lookups).hasValue(1);
+        assertThat(UtilityMethods.translate("person.name", messageSource, Locale.FRENCH)).isEqualTo("Nom");
+        assertThat(messageSource.lookups).hasValue(2);
+    }
+
+    @Test
+    public void testMissingKeyCached() {
+        assertThat(UtilityMethods.translate("missing", messageSource, Locale.ENGLISH)).isEqualTo("missing_en");
+        int lookups = messageSource.lookups.get();
+        assertThat(UtilityMethods.translate("missing", messageSource, Locale.ENGLISH)).isEqualTo("missing_en");
+        assertThat(messageSource.lookups).hasValue(lookups);
+    }
+
+    @Test
+    public void testKeyChainFirstTranslatedKey() {
+        assertThat(UtilityMethods.translate(Arrays.asList("person.title", "name"), messageSource, Locale.ENGLISH)).isEqualTo("Name of");
+        assertThat(UtilityMethods.translate(Arrays.asList("person.title", "other"), messageSource, Locale.ENGLISH)).isEqualTo("person.title_en");
+    }
+
+    @Test
+    public void testKeyChainChangedByCallerNotAffectCache() {
+        List<String> keys = new ArrayList<>(Arrays.asList("person.title", "name"));
+        assertThat(UtilityMethods.translate(keys, messageSource, Locale.ENGLISH)).isEqualTo("Name of");
+        keys.set(1, "person.name");
+        assertThat(UtilityMethods.translate(keys, messageSource, Locale.ENGLISH)).isEqualTo("Name");
+        assertThat(UtilityMethods.translate(Arrays.asList("person.title", "name"), messageSource, Locale.ENGLISH)).isEqualTo("Name of");
+    }
+
+    @Test
+    public void testBundlesReloadedClearsCache() {
+        UtilityMethods.translate("person.name", messageSource, Locale.ENGLISH);
+        messageSource.addMessage("person.name", Locale.ENGLISH, "Full name");
+        assertThat(UtilityMethods.translate("person.name", messageSource, Locale.ENGLISH)).isEqualTo("Name");
+        new TranslationCacheInvalidator().onBundlesReloaded(new MessageBundlesReloaded(messageSource));
+        assertThat(UtilityMethods.translate("person.name", messageSource, Locale.ENGLISH)).isEqualTo("Full name");
+    }
+
+    private static class CountingMessageSource extends StaticMessageSource {
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        protected String resolveCodeWithoutArguments(String code, Locale locale) {
+            lookups.incrementAndGet();
+            return super.resolveCodeWithoutArguments(code, locale);
+        }
+    }
+}
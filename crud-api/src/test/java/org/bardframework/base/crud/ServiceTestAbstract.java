@@ -177,6 +177,44 @@ public abstract class ServiceTestAbstract<M extends BaseModelAbstract<I>, C exte
     public void testSaveSavedDto() {
         assertThatExceptionOfType(Exception.class).isThrownBy(() -> service.save(this.getDataProvider().getDto(this.getUser()), this.getUser()));
     }
+
+    @Test
+    public void testSaveBulk() {
+        List<D> dtos = this.getDataProvider().getUnsavedDtos(RandomUtils.nextInt(2, 10), this.getUser());
+        BulkResult<M> result = service.saveBulk(dtos, 0, this.getUser());
+        assertThat(result.getItems()).hasSize(dtos.size()).extracting("status").containsOnly(BulkItemStatus.SUCCEED);
+    }
+
+    /**
+     * in chunked mode, only invalid item must fail.
+     */
+    @Test
+    public void testSaveBulkInvalidMember() {
+        List<D> dtos = new ArrayList<>(this.getDataProvider().getUnsavedDtos(RandomUtils.nextInt(2, 10), this.getUser()));
+        int invalidIndex = RandomUtils.nextInt(0, dtos.size());
+        dtos.add(invalidIndex, this.getDataProvider().getUnsavedInvalidDto(this.getUser()));
+        BulkResult<M> result = service.saveBulk(dtos, 2, this.getUser());
+        assertThat(result.getItems()).hasSize(dtos.size());
+        assertThat(result.getFailedCount()).isOne();
+        assertThat(result.getItems().get(invalidIndex).getStatus()).isEqualTo(BulkItemStatus.FAILED);
+    }
+
+    /**
+     * in atomic mode, nothing must be saved when an item is invalid.
+     */
+    @Test
+    public void testSaveBulkAtomicInvalidMember() {
+        List<D> dtos = new ArrayList<>(this.getDataProvider().getUnsavedDtos(RandomUtils.nextInt(2, 10), this.getUser()));
+        int invalidIndex = RandomUtils.nextInt(0, dtos.size());
+        dtos.add(invalidIndex, this.getDataProvider().getUnsavedInvalidDto(this.getUser()));
+        long countBefore = service.getCount(service.getEmptyCriteria(), this.getUser());
+        BulkResult<M> result = service.saveBulk(dtos, 0, this.getUser());
+        assertThat(result.getItems()).hasSize(dtos.size()).extracting("status").doesNotContain(BulkItemStatus.SUCCEED);
+        assertThat(result.getItems()).filteredOn(item -> item.getStatus() == BulkItemStatus.FAILED).hasSize(1);
+        assertThat(result.getItems().get(invalidIndex).getStatus()).isEqualTo(BulkItemStatus.FAILED);
+        assertThat(service.getCount(service.getEmptyCriteria(), this.getUser())).isEqualTo(countBefore);
+    }
+
     /*------------------------------- Update ------------------------------*/
 
     @Test
@@ -0,0 +1,145 @@
+package org.bardframework.base.datatable;
+
+import org.bardframework.base.datatable.event.DataTableCacheStructureUpdated;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataTableCacheWriteBehindTest {
+
+    private final List<Map<String, Collection<DataTableCachedStructure>>> persisted = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> published = Collections.synchronizedList(new ArrayList<>());
+    private DataTableCacheWriteBehind writeBehind;
+
+    @BeforeEach
+    public void setUp() {
+        writeBehind = new DataTableCacheWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "eventPublisher", (ApplicationEventPublisher) event -> published.add(((DataTableCacheStructureUpdated) event).getUserId()));
+        this.setPersister(structures -> persisted.add(this.copy(structures)));
+    }
+
+    @Test
+    public void testCoalesceLatestStructurePerTable() {
+        DataTableCachedStructure latest = this.structure("person", 3);
+        writeBehind.enqueue("user", this.structure("person", 1));
+        writeBehind.enqueue("user", this.structure("person", 2));
+        writeBehind.enqueue("user", latest);
+        writeBehind.enqueue("user", this.structure("city", 1));
+        writeBehind.enqueue("other", this.structure("person", 1));
+        assertThat(writeBehind.getPendingCount()).isEqualTo(3);
+
+        writeBehind.flush();
+
+        assertThat(persisted).hasSize(1);
+        assertThat(persisted.get(0).get("user")).hasSize(2).contains(latest);
+        assertThat(persisted.get(0).get("other")).hasSize(1);
+        assertThat(published).containsExactlyInAnyOrder("user", "other");
+        assertThat(writeBehind.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testFlushWithoutChanges() {
+        writeBehind.flush();
+        assertThat(persisted).isEmpty();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    public void testStructureQueuedWhilePersistingIsKept() {
+        DataTableCachedStructure newer = this.structure("person", 2);
+        this.setPersister(structures -> {
+            persisted.add(this.copy(structures));
+            if (persisted.size() == 1) {
+                writeBehind.enqueue("user", newer);
+            }
+        });
+        writeBehind.enqueue("user", this.structure("person", 1));
+
+        writeBehind.flush();
+        assertThat(writeBehind.getPendingCount()).isOne();
+
+        writeBehind.flush();
+        assertThat(persisted).hasSize(2);
+        assertThat(persisted.get(1).get("user")).containsExactly(newer);
+        assertThat(writeBehind.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testFailedPersistRetriedOnNextFlush() {
+        DataTableCachedStructure structure = this.structure("person", 1);
+        this.setPersister(structures -> {
+            persisted.add(this.copy(structures));
+            if (persisted.size() == 1) {
+                throw new IllegalStateException("storage unavailable");
+            }
+        });
+        writeBehind.enqueue("user", structure);
+
+        writeBehind.flush();
+        assertThat(published).isEmpty();
+        assertThat(writeBehind.getPendingCount()).isOne();
+
+        writeBehind.flush();
+        assertThat(persisted.get(1).get("user")).containsExactly(structure);
+        assertThat(published).containsExactly("user");
+    }
+
+    @Test
+    public void testConcurrentEnqueueNeverLost() throws InterruptedException {
+        Map<String, DataTableCachedStructure> lastPersisted = new HashMap<>();
+        this.setPersister(structures -> structures.forEach((userId, values) -> values.forEach(value -> lastPersisted.put(userId + "/" + value.getTable(), value))));
+        int users = 8;
+        int updates = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(users + 1);
+        CountDownLatch done = new CountDownLatch(users);
+        Map<String, DataTableCachedStructure> lastQueued = new HashMap<>();
+        for (int i = 0; i < users; i++) {
+            String userId = "user" + i;
+            DataTableCachedStructure last = this.structure("person", updates);
+            lastQueued.put(userId + "/person", last);
+            executor.execute(() -> {
+                for (int page = 1; page < updates; page++) {
+                    writeBehind.enqueue(userId, this.structure("person", page));
+                }
+                writeBehind.enqueue(userId, last);
+                done.countDown();
+            });
+        }
+        executor.execute(() -> {
+            while (done.getCount() > 0) {
+                writeBehind.flush();
+            }
+        });
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        writeBehind.flush();
+        assertThat(writeBehind.getPendingCount()).isZero();
+        assertThat(lastPersisted).isEqualTo(lastQueued);
+    }
+
+    private void setPersister(DataTableCachePersister persister) {
+        ReflectionTestUtils.setField(writeBehind, "persister", persister);
+    }
+
+    private DataTableCachedStructure structure(String table, long page) {
+        DataTableCachedStructure structure = new DataTableCachedStructure(table);
+        structure.setPage(page);
+        return structure;
+    }
+
+    private Map<String, Collection<DataTableCachedStructure>> copy(Map<String, Collection<DataTableCachedStructure>> structures) {
+        Map<String, Collection<DataTableCachedStructure>> copy = new HashMap<>();
+        structures.forEach((userId, values) -> copy.put(userId, new ArrayList<>(values)));
+        return copy;
+    }
+}
@@ -0,0 +1,64 @@
+package org.bardframework.base.datatable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class DataTableCachedStructureCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        HeaderDto filtered = new HeaderDto();
+        filtered.setId("name");
+        filtered.setQuery("ali علی");
+        filtered.setMin("1");
+        filtered.setMax("100");
+        filtered.setSort(Sort.DESC);
+        filtered.setVisible(false);
+        filtered.setSortSequence(2);
+        filtered.setSelected(Arrays.asList("a", "b"));
+        HeaderDto empty = new HeaderDto();
+        empty.setId("code");
+        empty.setSelected(Collections.emptyList());
+        DataTableCachedStructure structure = new DataTableCachedStructure("person");
+        structure.setPage(3);
+        structure.setCount(25);
+        structure.setQuery("search");
+        structure.setHeaders(Arrays.asList(filtered, empty));
+
+        DataTableCachedStructure decoded = DataTableCachedStructureCodec.decode(DataTableCachedStructureCodec.encode(structure));
+
+        assertThat(decoded.getTable()).isEqualTo("person");
+        assertThat(decoded.getPage()).isEqualTo(3);
+        assertThat(decoded.getCount()).isEqualTo(25);
+        assertThat(decoded.getQuery()).isEqualTo("search");
+        assertThat(decoded.getHeaders()).hasSize(2);
+        assertThat(decoded.getHeaders().get(0)).isEqualToComparingOnlyGivenFields(filtered, "id", "query", "min", "max", "sort", "visible", "sortSequence", "selected");
+        assertThat(decoded.getHeaders().get(1)).isEqualToComparingOnlyGivenFields(empty, "id", "query", "min", "max", "sort", "visible", "sortSequence", "selected");
+    }
+
+    @Test
+    public void testRoundTripNullValues() {
+        DataTableCachedStructure decoded = DataTableCachedStructureCodec.decode(DataTableCachedStructureCodec.encode(new DataTableCachedStructure()));
+        assertThat(decoded.getTable()).isNull();
+        assertThat(decoded.getQuery()).isNull();
+        assertThat(decoded.getHeaders()).isNull();
+    }
+
+    @Test
+    public void testDecodeUnsupportedVersion() {
+        byte[] data = DataTableCachedStructureCodec.encode(new DataTableCachedStructure("person"));
+        data[0] = 99;
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> DataTableCachedStructureCodec.decode(data));
+    }
+
+    @Test
+    public void testDecodeTruncated() {
+        byte[] data = DataTableCachedStructureCodec.encode(new DataTableCachedStructure("person"));
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> DataTableCachedStructureCodec.decode(Arrays.copyOf(data, data.length - 4)));
+    }
+}
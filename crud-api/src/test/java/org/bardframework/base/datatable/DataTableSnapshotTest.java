@@ -0,0 +1,104 @@
+package org.bardframework.base.datatable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataTableSnapshotTest {
+
+    @Test
+    public void testMergeReturnsOwnCopy() {
+        DataTableCachedStructure defaults = new DataTableCachedStructure("person");
+        defaults.setHeaders(Arrays.asList(this.header("name", null), this.header("age", null)));
+        DataTableCachedStructure userState = new DataTableCachedStructure("person");
+        userState.setPage(2);
+        userState.setHeaders(Collections.singletonList(this.header("name", "ali")));
+        DataTableSnapshot snapshot = DataTableSnapshot.of("person", userState);
+
+        DataTableCachedStructure first = snapshot.merge(defaults);
+        DataTableCachedStructure second = snapshot.merge(defaults);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getPage()).isEqualTo(2);
+        assertThat(first.getHeaders()).extracting("query").containsExactly("ali", null);
+        first.setPage(5);
+        first.getHeaders().get(0).setQuery("changed");
+        first.getHeaders().get(1).setBounds(new MinMaxBounds(1, 10));
+        assertThat(second.getPage()).isEqualTo(2);
+        assertThat(second.getHeaders().get(0).getQuery()).isEqualTo("ali");
+        assertThat(second.getHeaders().get(1).getBounds()).isNull();
+        assertThat(defaults.getHeaders().get(0).getQuery()).isNull();
+        assertThat(defaults.getHeaders().get(1).getBounds()).isNull();
+        assertThat(snapshot.getHeader("name").getQuery()).isEqualTo("ali");
+    }
+
+    @Test
+    public void testSnapshotNotChangedByFilter() {
+        DataTableCachedStructure filter = new DataTableCachedStructure("person");
+        filter.setHeaders(new ArrayList<>(Collections.singletonList(this.header("name", "ali"))));
+        DataTableSnapshot snapshot = DataTableSnapshot.of("person", filter);
+        filter.getHeaders().get(0).setQuery("changed");
+        filter.getHeaders().add(this.header("age", null));
+        assertThat(snapshot.getHeaders()).hasSize(1);
+        assertThat(snapshot.getHeader("name").getQuery()).isEqualTo("ali");
+    }
+
+    @Test
+    public void testPutUnchangedSnapshot() {
+        InMemoryDataTableCacheStore store = new InMemoryDataTableCacheStore();
+        assertThat(store.put("user", this.snapshot("person", 1))).isTrue();
+        assertThat(store.put("user", this.snapshot("person", 1))).isFalse();
+        assertThat(store.put("user", this.snapshot("person", 2))).isTrue();
+    }
+
+    /**
+     * concurrent updates of different tables of same user must all survive compare and set.
+     */
+    @Test
+    public void testConcurrentPutNeverLost() throws InterruptedException {
+        InMemoryDataTableCacheStore store = new InMemoryDataTableCacheStore();
+        int threads = 8;
+        int updates = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            String table = "table" + i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long page = 1; page <= updates; page++) {
+                    store.put("user", this.snapshot(table, page));
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        Collection<DataTableSnapshot> snapshots = store.getAll("user");
+        assertThat(snapshots).hasSize(threads);
+        assertThat(snapshots).extracting("page").containsOnly((long) updates);
+    }
+
+    private DataTableSnapshot snapshot(String table, long page) {
+        DataTableCachedStructure structure = new DataTableCachedStructure(table);
+        structure.setPage(page);
+        return DataTableSnapshot.of(structure);
+    }
+
+    private HeaderDto header(String id, String query) {
+        HeaderDto header = new HeaderDto();
+        header.setId(id);
+        header.setQuery(query);
+        return header;
+    }
+}
@@ -0,0 +1,93 @@
+package org.bardframework.base.datatable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileDataTableSharedStoreTest {
+
+    private Path directory;
+    private FileDataTableSharedStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("data-table-shared-store");
+        store = new FileDataTableSharedStore(directory);
+    }
+
+    @Test
+    public void testLoadNotExisting() {
+        DataTableSharedStore.Versioned versioned = store.load("user");
+        assertThat(versioned.getVersion()).isZero();
+        assertThat(versioned.getStructures()).isEmpty();
+    }
+
+    @Test
+    public void testSaveMergesAndIncreasesVersion() {
+        assertThat(store.save("user", Collections.singletonMap("person", new byte[]{1, 2}))).isEqualTo(1);
+        assertThat(store.save("user", Collections.singletonMap("city", new byte[]{3}))).isEqualTo(2);
+        DataTableSharedStore.Versioned versioned = store.load("user");
+        assertThat(versioned.getVersion()).isEqualTo(2);
+        assertThat(versioned.getStructures()).containsOnlyKeys("person", "city");
+        assertThat(versioned.getStructures().get("person")).isEqualTo(new byte[]{1, 2});
+    }
+
+    @Test
+    public void testReplace() {
+        store.save("user", Collections.singletonMap("person", new byte[]{1}));
+        Map<String, byte[]> structures = new HashMap<>();
+        structures.put("city", new byte[]{2});
+        assertThat(store.replace("user", structures)).isEqualTo(2);
+        assertThat(store.load("user").getStructures()).containsOnlyKeys("city");
+    }
+
+    @Test
+    public void testNoTempFileLeft() throws IOException {
+        store.save("user", Collections.singletonMap("person", new byte[]{1}));
+        store.save("user", Collections.singletonMap("person", new byte[]{2}));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString())).noneMatch(name -> name.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    public void testTruncatedFileRecovered() throws IOException {
+        store.save("user", Collections.singletonMap("person", new byte[]{1, 2, 3}));
+        Path file = this.getUserFile();
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 2));
+
+        DataTableSharedStore.Versioned versioned = store.load("user");
+        assertThat(versioned.getStructures()).isEmpty();
+        assertThat(versioned.getVersion()).isGreaterThan(1);
+
+        long version = store.save("user", Collections.singletonMap("city", new byte[]{4}));
+        assertThat(version).isGreaterThan(1);
+        assertThat(store.load("user").getStructures()).containsOnlyKeys("city");
+    }
+
+    @Test
+    public void testEmptyFileRecovered() throws IOException {
+        store.save("user", Collections.singletonMap("person", new byte[]{1}));
+        Files.write(this.getUserFile(), new byte[0]);
+        assertThat(store.load("user").getStructures()).isEmpty();
+        store.save("user", Collections.singletonMap("person", new byte[]{2}));
+        assertThat(store.load("user").getStructures().get("person")).isEqualTo(new byte[]{2});
+    }
+
+    private Path getUserFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".dtc")).findFirst().orElseThrow(IllegalStateException::new);
+        }
+    }
+}
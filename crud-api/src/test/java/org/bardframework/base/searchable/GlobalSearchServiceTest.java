@@ -0,0 +1,148 @@
+package org.bardframework.base.searchable;
+
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class GlobalSearchServiceTest {
+
+    private GlobalSearchService service;
+
+    @AfterEach
+    public void stop() {
+        if (null != service && null != ReflectionTestUtils.getField(service, "executor")) {
+            ReflectionTestUtils.invokeMethod(service, "stop");
+        }
+    }
+
+    @Test
+    public void testHitsMergedMostRelevantFirst() {
+        this.start(8, 256, 1000, new Repository("person", 0, 3100, 2100), new Repository("city", 0, 3050, 1100));
+        GlobalSearchResult result = service.search("ali", 3, null);
+        assertThat(result.getIncompleteTypes()).isEmpty();
+        assertThat(result.getHits()).extracting("score").containsExactly(3100.0, 3050.0, 2100.0);
+        assertThat(result.getHits()).extracting("type").containsExactly("person", "city", "person");
+    }
+
+    @Test
+    public void testSlowRepositoryCancelledOnTimeBudget() {
+        Repository slow = new Repository("city", 10_000, 3050);
+        this.start(8, 256, 100, new Repository("person", 0, 3100), slow);
+        long start = System.currentTimeMillis();
+        GlobalSearchResult result = service.search("ali", 10, null);
+        assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+        assertThat(result.getIncompleteTypes()).containsExactly("city");
+        assertThat(result.getHits()).extracting("type").containsExactly("person");
+    }
+
+    @Test
+    public void testFailedRepositoryReportedIncomplete() {
+        Repository failing = new Repository("city", 0);
+        failing.fail = true;
+        this.start(8, 256, 1000, new Repository("person", 0, 3100), failing);
+        GlobalSearchResult result = service.search("ali", 10, null);
+        assertThat(result.getIncompleteTypes()).containsExactly("city");
+        assertThat(result.getHits()).hasSize(1);
+    }
+
+    @Test
+    public void testRejectedWhenPoolFull() {
+        /*
+          one running, one queued, third rejected
+         */
+        this.start(1, 1, 100, new Repository("person", 10_000), new Repository("city", 10_000), new Repository("country", 0, 3100));
+        GlobalSearchResult result = service.search("ali", 10, null);
+        assertThat(result.getIncompleteTypes()).containsExactlyInAnyOrder("person", "city", "country");
+        assertThat(result.getHits()).isEmpty();
+    }
+
+    @Test
+    public void testEmptyQueryAndInvalidLimit() {
+        Repository repository = new Repository("person", 0, 3100);
+        this.start(8, 256, 1000, repository);
+        assertThat(service.search(" ", 10, null).getHits()).isEmpty();
+        assertThat(repository.searches).isZero();
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> service.search("ali", 0, null));
+    }
+
+    @Test
+    public void testInvalidPoolConfig() {
+        service = new GlobalSearchService();
+        ReflectionTestUtils.setField(service, "parallelism", 0);
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> ReflectionTestUtils.invokeMethod(service, "start"));
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 0);
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> ReflectionTestUtils.invokeMethod(service, "start"));
+    }
+
+    private void start(int parallelism, int queueCapacity, long timeBudgetMillis, Repository... repositories) {
+        service = new GlobalSearchService();
+        ReflectionTestUtils.setField(service, "repositories", Arrays.asList(repositories));
+        ReflectionTestUtils.setField(service, "parallelism", parallelism);
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        service.setTimeBudgetMillis(timeBudgetMillis);
+        ReflectionTestUtils.invokeMethod(service, "start");
+    }
+
+    private static class Model extends BaseModelAbstract<Long> {
+    }
+
+    /**
+     * answers ranked search with a hit per given score after <code>delayMillis</code>
+     */
+    private static class Repository implements SearchableEntityRepository<Model, SearchableCriteria, Long, Object> {
+        private final String type;
+        private final long delayMillis;
+        private final double[] scores;
+        private volatile boolean fail;
+        private volatile int searches;
+
+        private Repository(String type, long delayMillis, double... scores) {
+            this.type = type;
+            this.delayMillis = delayMillis;
+            this.scores = scores;
+        }
+
+        @Override
+        public List<Model> search(SearchableCriteria criteria, Object user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<SearchHit<Model>> searchRanked(SearchableCriteria criteria, int limit, Object user) {
+            this.searches++;
+            if (this.fail) {
+                throw new IllegalStateException("search failed");
+            }
+            try {
+                Thread.sleep(this.delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            List<SearchHit<Model>> hits = new ArrayList<>();
+            for (double score : this.scores) {
+                hits.add(new SearchHit<>(new Model(), score));
+            }
+            return hits;
+        }
+
+        @Override
+        public SearchableCriteria newSearchCriteria(String query) {
+            return () -> query;
+        }
+
+        @Override
+        public String getSearchType() {
+            return this.type;
+        }
+    }
+}
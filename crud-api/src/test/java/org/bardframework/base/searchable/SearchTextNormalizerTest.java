@@ -0,0 +1,49 @@
+package org.bardframework.base.searchable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchTextNormalizerTest {
+
+    @Test
+    public void testArabicLettersReplacedByPersian() {
+        /*
+          arabic yeh and kaf
+         */
+        assertThat(SearchTextNormalizer.normalize("علي كريم")).isEqualTo("علی کریم");
+        assertThat(SearchTextNormalizer.normalize("أحمد")).isEqualTo("احمد");
+    }
+
+    @Test
+    public void testDigitsReplacedByLatin() {
+        assertThat(SearchTextNormalizer.normalize("۱۲۳-٤٥٦")).isEqualTo("123-456");
+    }
+
+    @Test
+    public void testJoinersAndDiacriticsRemoved() {
+        assertThat(SearchTextNormalizer.normalize("می\u200Cروم")).isEqualTo("میروم");
+        assertThat(SearchTextNormalizer.normalize("مُحَمَّد")).isEqualTo("محمد");
+    }
+
+    @Test
+    public void testLowerCase() {
+        assertThat(SearchTextNormalizer.normalize("Ali REZA")).isEqualTo("ali reza");
+        assertThat(SearchTextNormalizer.normalize(null)).isNull();
+    }
+
+    @Test
+    public void testContainedQueryStaysContained() {
+        String text = "محمّد علي";
+        String query = "علي";
+        assertThat(text).contains(query);
+        assertThat(SearchTextNormalizer.normalize(text)).contains(SearchTextNormalizer.normalize(query));
+    }
+
+    @Test
+    public void testTokenize() {
+        assertThat(SearchTextNormalizer.tokenize("Ali, reza-ALI  ۱۲ sara.")).containsExactly("ali", "reza", "12", "sara");
+        assertThat(SearchTextNormalizer.tokenize(" ,.- ")).isEmpty();
+        assertThat(SearchTextNormalizer.tokenize(null)).isEmpty();
+    }
+}
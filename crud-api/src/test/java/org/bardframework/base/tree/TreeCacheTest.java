@@ -0,0 +1,231 @@
+package org.bardframework.base.tree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TreeCacheTest {
+
+    /**
+     * rows of table: identifier to parent and name
+     */
+    private final Map<Long, Long> parents = new LinkedHashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+    private int loads;
+    private int nodeLoads;
+    private TreeCache<Node, Long> cache;
+
+    @BeforeEach
+    public void setUp() {
+        /*
+          1 -> (2 -> 4), 3
+         */
+        this.put(1L, null, "root");
+        this.put(2L, 1L, "a");
+        this.put(3L, 1L, "b");
+        this.put(4L, 2L, "c");
+        /*
+          new scope, so each test has its own cache
+         */
+        cache = TreeCache.get(Node.class, new Object(), Node::new);
+    }
+
+    @Test
+    public void testLoadedOnce() {
+        TreeSnapshot<Node> snapshot = this.snapshot();
+        assertThat(this.snapshot()).isSameAs(snapshot);
+        assertThat(loads).isEqualTo(1);
+        assertThat(snapshot.getTree().getId()).isEqualTo(1L);
+        assertThat(this.childIds(snapshot.getTree())).containsExactly(2L, 3L);
+        assertThat(this.childIds(this.find(snapshot, 2L))).containsExactly(4L);
+    }
+
+    @Test
+    public void testChangePatchedIntoNewSnapshot() {
+        TreeSnapshot<Node> before = this.snapshot();
+        this.put(4L, 2L, "changed");
+        TreeCache.changed(Node.class, Collections.singletonList(4L));
+        TreeSnapshot<Node> after = this.snapshot();
+        assertThat(loads).isEqualTo(1);
+        assertThat(nodeLoads).isEqualTo(1);
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(this.find(after, 4L).getName()).isEqualTo("changed");
+        /*
+          readers of previous snapshot never see a change, not changed branch shared
+         */
+        assertThat(this.find(before, 4L).getName()).isEqualTo("c");
+        assertThat(this.find(after, 3L)).isSameAs(this.find(before, 3L));
+        assertThat(this.find(after, 2L)).isNotSameAs(this.find(before, 2L));
+    }
+
+    @Test
+    public void testSavedNodesPatchedParentFirst() {
+        this.snapshot();
+        this.put(6L, 5L, "e");
+        this.put(5L, 3L, "d");
+        TreeCache.changed(Node.class, Arrays.asList(6L, 5L));
+        TreeSnapshot<Node> snapshot = this.snapshot();
+        assertThat(loads).isEqualTo(1);
+        assertThat(this.childIds(this.find(snapshot, 3L))).containsExactly(5L);
+        assertThat(this.childIds(this.find(snapshot, 5L))).containsExactly(6L);
+    }
+
+    @Test
+    public void testMovePatched() {
+        this.snapshot();
+        this.put(4L, 3L, "c");
+        TreeCache.changed(Node.class, Collections.singletonList(4L));
+        TreeSnapshot<Node> snapshot = this.snapshot();
+        assertThat(loads).isEqualTo(1);
+        assertThat(this.find(snapshot, 2L).getChildren()).isEmpty();
+        assertThat(this.childIds(this.find(snapshot, 3L))).containsExactly(4L);
+    }
+
+    @Test
+    public void testMoveUnderOwnDescendantReloaded() {
+        this.snapshot();
+        this.put(2L, 4L, "a");
+        TreeCache.changed(Node.class, Collections.singletonList(2L));
+        this.snapshot();
+        assertThat(loads).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemovedLeafPatched() {
+        TreeSnapshot<Node> before = this.snapshot();
+        this.delete(4L);
+        TreeCache.removed(Node.class, Collections.singletonList(4L));
+        TreeSnapshot<Node> after = this.snapshot();
+        assertThat(loads).isEqualTo(1);
+        assertThat(this.find(after, 4L)).isNull();
+        assertThat(this.find(after, 2L).getChildren()).isEmpty();
+        assertThat(this.find(before, 4L)).isNotNull();
+    }
+
+    @Test
+    public void testChangedButNotLoadedNodeRemoved() {
+        this.snapshot();
+        this.delete(3L);
+        TreeCache.changed(Node.class, Collections.singletonList(3L));
+        assertThat(this.find(this.snapshot(), 3L)).isNull();
+        assertThat(loads).isEqualTo(1);
+    }
+
+    @Test
+    public void testRemovedNodeWithChildrenReloaded() {
+        TreeSnapshot<Node> before = this.snapshot();
+        this.delete(2L);
+        this.delete(4L);
+        TreeCache.removed(Node.class, Collections.singletonList(2L));
+        TreeSnapshot<Node> after = this.snapshot();
+        assertThat(loads).isEqualTo(2);
+        assertThat(after.getVersion()).isNotEqualTo(before.getVersion());
+        assertThat(this.childIds(after.getTree())).containsExactly(3L);
+    }
+
+    @Test
+    public void testInvalidateReloads() {
+        TreeSnapshot<Node> before = this.snapshot();
+        TreeCache.invalidate(Node.class);
+        TreeSnapshot<Node> after = this.snapshot();
+        assertThat(loads).isEqualTo(2);
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+    }
+
+    @Test
+    public void testExpiredTreeReloaded() throws InterruptedException {
+        cache = new TreeCache<>(Node::new, 10);
+        this.snapshot();
+        Thread.sleep(50);
+        this.snapshot();
+        assertThat(loads).isEqualTo(2);
+    }
+
+    @Test
+    public void testCachedPerScope() {
+        Object scope = new Object();
+        TreeCache<Node, Long> scoped = TreeCache.get(Node.class, scope, Node::new);
+        assertThat(TreeCache.<Node, Long>get(Node.class, scope, Node::new)).isSameAs(scoped);
+        assertThat(TreeCache.<Node, Long>get(Node.class, new Object(), Node::new)).isNotSameAs(scoped);
+        assertThat(TreeCache.<Node, Long>get(Node.class, null, Node::new)).isSameAs(TreeCache.<Node, Long>get(Node.class, null, Node::new));
+        /*
+          changes reported to trees of all scopes
+         */
+        TreeSnapshot<Node> before = scoped.getSnapshot(this::load, this::load);
+        TreeSnapshot<Node> other = this.snapshot();
+        this.put(3L, 1L, "changed");
+        TreeCache.changed(Node.class, Collections.singletonList(3L));
+        assertThat(this.find(scoped.getSnapshot(this::load, this::load), 3L).getName()).isEqualTo("changed");
+        assertThat(this.find(this.snapshot(), 3L).getName()).isEqualTo("changed");
+        assertThat(this.find(before, 3L).getName()).isEqualTo("b");
+        assertThat(this.find(other, 3L).getName()).isEqualTo("b");
+    }
+
+    private TreeSnapshot<Node> snapshot() {
+        return cache.getSnapshot(this::load, this::load);
+    }
+
+    private List<Node> load() {
+        loads++;
+        return parents.keySet().stream().map(this::toNode).collect(Collectors.toList());
+    }
+
+    private List<Node> load(List<Long> ids) {
+        nodeLoads++;
+        return ids.stream().filter(parents::containsKey).map(this::toNode).collect(Collectors.toList());
+    }
+
+    private Node toNode(Long id) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(names.get(id));
+        if (null != parents.get(id)) {
+            Node parent = new Node();
+            parent.setId(parents.get(id));
+            node.setParent(parent);
+        }
+        return node;
+    }
+
+    private void put(Long id, Long parentId, String name) {
+        parents.put(id, parentId);
+        names.put(id, name);
+    }
+
+    private void delete(Long id) {
+        parents.remove(id);
+        names.remove(id);
+    }
+
+    private Node find(TreeSnapshot<Node> snapshot, Long id) {
+        Deque<Node> stack = new ArrayDeque<>(Collections.singletonList(snapshot.getTree()));
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (id.equals(node.getId())) {
+                return node;
+            }
+            stack.addAll(node.getChildren());
+        }
+        return null;
+    }
+
+    private List<Long> childIds(Node node) {
+        return node.getChildren().stream().map(Node::getId).collect(Collectors.toList());
+    }
+
+    public static class Node extends TreeEntityModelAbstract<Node, Long> {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package org.bardframework.base.datatable.processor;
+
+import org.bardframework.base.UtilityMethods;
+import org.bardframework.base.datatable.DataTableHeaders;
+import org.bardframework.base.datatable.DataTableMetadata;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * generate {@link DataTableMetadata} of classes annotated with {@link DataTableHeaders} and register them as service provider.
+ * each header path resolved through getters (or fields) of model class, unknown paths reported as compile error.
+ */
+@SupportedAnnotationTypes("org.bardframework.base.datatable.DataTableHeaders")
+public class DataTableMetadataProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "_DataTableMetadata";
+    private static final String CONVERTER_PACKAGE = "org.bardframework.commons.jackson.converter.";
+    private static final String SERVICE_FILE = "META-INF/services/" + DataTableMetadata.class.getName();
+
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(DataTableHeaders.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@" + DataTableHeaders.class.getSimpleName() + " only applicable on classes", element);
+                continue;
+            }
+            TypeElement model = (TypeElement) element;
+            List<HeaderModel> headers = new ArrayList<>();
+            boolean valid = true;
+            for (String path : model.getAnnotation(DataTableHeaders.class).value()) {
+                HeaderModel header = this.resolve(model, path);
+                if (null == header) {
+                    valid = false;
+                } else {
+                    headers.add(header);
+                }
+            }
+            if (valid) {
+                this.write(model, headers);
+            }
+        }
+        if (roundEnv.processingOver() && !generated.isEmpty()) {
+            this.writeServiceFile();
+        }
+        return true;
+    }
+
+    /**
+     * @return resolved header, null if path is invalid (error reported)
+     */
+    private HeaderModel resolve(TypeElement model, String path) {
+        DeclaredType container = (DeclaredType) model.asType();
+        TypeMirror type = container;
+        String fieldName = null;
+        for (String part : path.split("\\.")) {
+            if (type.getKind() != TypeKind.DECLARED) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "invalid header path '" + path + "', '" + fieldName + "' is not an object", model);
+                return null;
+            }
+            container = (DeclaredType) type;
+            type = this.getPropertyType(container, part);
+            if (null == type) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "invalid header path '" + path + "', no getter or field '" + part + "' in " + container, model);
+                return null;
+            }
+            fieldName = part;
+        }
+        TypeMirror valueType = processingEnv.getTypeUtils().erasure(type);
+        String containerClass = processingEnv.getTypeUtils().erasure(container).toString();
+        return new HeaderModel(path, fieldName, containerClass, valueType, UtilityMethods.toMessageKeys(model.getSimpleName() + "." + path));
+    }
+
+    /**
+     * @return type of property as member of container (type variables resolved), null if no public getter or field exist
+     */
+    private TypeMirror getPropertyType(DeclaredType container, String name) {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        List<? extends Element> members = processingEnv.getElementUtils().getAllMembers((TypeElement) container.asElement());
+        for (Element member : members) {
+            if (member.getKind() == ElementKind.METHOD && member.getModifiers().contains(Modifier.PUBLIC) && ((ExecutableElement) member).getParameters().isEmpty()) {
+                String methodName = member.getSimpleName().toString();
+                if (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized)) {
+                    return ((ExecutableType) processingEnv.getTypeUtils().asMemberOf(container, member)).getReturnType();
+                }
+            }
+        }
+        for (Element member : members) {
+            if (member.getKind() == ElementKind.FIELD && member.getSimpleName().contentEquals(name)) {
+                return processingEnv.getTypeUtils().asMemberOf(container, member);
+            }
+        }
+        return null;
+    }
+
+    private void write(TypeElement model, List<HeaderModel> headers) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(model).getQualifiedName().toString();
+        String simpleName = model.getQualifiedName().toString().substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('.', '_') + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, model);
+            try (Writer writer = file.openWriter()) {
+                if (!packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n * generated by " + DataTableMetadataProcessor.class.getName() + " from header paths of {@link " + model.getQualifiedName() + "}\n */\n");
+                writer.write("public final class " + simpleName + " implements org.bardframework.base.datatable.DataTableMetadata {\n\n");
+                writer.write("    private final java.util.Map<String, org.bardframework.base.datatable.DataTableHeaderMetadata> headers = new java.util.HashMap<>();\n\n");
+                writer.write("    public " + simpleName + "() {\n");
+                for (HeaderModel header : headers) {
+                    writer.write("        headers.put(\"" + header.path + "\", new org.bardframework.base.datatable.DataTableHeaderMetadata(\"" + header.path + "\", \"" + header.fieldName + "\", "
+                            + header.containerClass + ".class, " + header.valueType + ".class, " + this.getInputConverter(header.valueType) + ", " + this.getOutputConverter(header.valueType) + ", "
+                            + "java.util.Arrays.asList(" + header.messageKeys.stream().map(key -> "\"" + key + "\"").collect(Collectors.joining(", ")) + ")));\n");
+                }
+                writer.write("    }\n\n");
+                writer.write("    @Override\n    public Class<?> getModelClass() {\n        return " + model.getQualifiedName() + ".class;\n    }\n\n");
+                writer.write("    @Override\n    public java.util.Map<String, org.bardframework.base.datatable.DataTableHeaderMetadata> getHeaders() {\n        return java.util.Collections.unmodifiableMap(headers);\n    }\n}\n");
+            }
+            generated.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "can't write data table metadata: " + e.getMessage(), model);
+        }
+    }
+
+    /**
+     * same bindings as {@link org.bardframework.base.datatable.HeaderAbstract#determineConverters(Class)}
+     */
+    private String getInputConverter(TypeMirror valueType) {
+        if (this.isEnum(valueType)) {
+            return "() -> new org.bardframework.crud.commons.converter.StringToEnumConverter<>(" + valueType + ".class)";
+        }
+        switch (this.getBoxedName(valueType)) {
+            case "java.time.LocalDate":
+                return this.newConverter("JalaliDateStringToLocalDateConverter");
+            case "java.time.LocalDateTime":
+                return this.newConverter("JalaliDateTimeStringToLocalDateTimeConverter");
+            case "java.lang.Boolean":
+                return this.newConverter("StringToBooleanConverter");
+            case "java.lang.Long":
+                return this.newConverter("StringToLongConverter");
+            case "java.lang.Integer":
+                return this.newConverter("StringToIntegerConverter");
+            case "java.lang.Short":
+                return this.newConverter("StringToShortConverter");
+            case "java.lang.Byte":
+                return this.newConverter("StringToByteConverter");
+            default:
+                return "null";
+        }
+    }
+
+    private String getOutputConverter(TypeMirror valueType) {
+        switch (this.getBoxedName(valueType)) {
+            case "java.time.LocalDate":
+                return this.newConverter("LocalDateToStringConverter");
+            case "java.time.LocalDateTime":
+                return this.newConverter("LocalDateTimeToStringConverter");
+            default:
+                return "null";
+        }
+    }
+
+    private String newConverter(String simpleName) {
+        return "() -> new " + CONVERTER_PACKAGE + simpleName + "()";
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    }
+
+    private String getBoxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * generated classes from previous rounds and compilations merged, so incremental builds keep registrations of not changed classes
+     */
+    private void writeServiceFile() {
+        Set<String> providers = new TreeSet<>(generated);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Scanner scanner = new Scanner(existing.openInputStream(), "UTF-8")) {
+                while (scanner.hasNextLine()) {
+                    String line = scanner.nextLine().trim();
+                    if (!line.isEmpty()) {
+                        providers.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            /*
+              first compilation, no service file exists
+             */
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String provider : providers) {
+                    writer.write(provider + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "can't write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static class HeaderModel {
+        private final String path;
+        private final String fieldName;
+        private final String containerClass;
+        private final TypeMirror valueType;
+        private final List<String> messageKeys;
+
+        private HeaderModel(String path, String fieldName, String containerClass, TypeMirror valueType, List<String> messageKeys) {
+            this.path = path;
+            this.fieldName = fieldName;
+            this.containerClass = containerClass;
+            this.valueType = valueType;
+            this.messageKeys = messageKeys;
+        }
+    }
+}
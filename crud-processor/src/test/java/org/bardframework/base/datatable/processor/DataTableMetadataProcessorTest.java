@@ -0,0 +1,72 @@
+package org.bardframework.base.datatable.processor;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataTableMetadataProcessorTest {
+
+    private static final String SERVICE_FILE = "META-INF/services/org.bardframework.base.datatable.DataTableMetadata";
+
+    @Test
+    public void testGenerateMetadata() throws IOException {
+        Path output = Files.createTempDirectory("data-table-metadata");
+        List<String> errors = this.compile(output, "sample.Person", "package sample;\n\n"
+                + "@org.bardframework.base.datatable.DataTableHeaders({\"name\", \"address.city\"})\n"
+                + "public class Person {\n"
+                + "    public String getName() {\n        return null;\n    }\n"
+                + "    public Address getAddress() {\n        return null;\n    }\n"
+                + "    public static class Address {\n        public String city;\n    }\n"
+                + "}\n");
+        assertThat(errors).isEmpty();
+        assertThat(output.resolve("sample/Person_DataTableMetadata.class")).exists();
+        assertThat(new String(Files.readAllBytes(output.resolve(SERVICE_FILE)), StandardCharsets.UTF_8)).contains("sample.Person_DataTableMetadata");
+    }
+
+    @Test
+    public void testInvalidPathFailsBuild() throws IOException {
+        Path output = Files.createTempDirectory("data-table-metadata");
+        List<String> errors = this.compile(output, "sample.Person", "package sample;\n\n"
+                + "@org.bardframework.base.datatable.DataTableHeaders({\"nmae\"})\n"
+                + "public class Person {\n"
+                + "    public String getName() {\n        return null;\n    }\n"
+                + "}\n");
+        assertThat(errors).anyMatch(error -> error.contains("invalid header path 'nmae'"));
+        assertThat(output.resolve("sample/Person_DataTableMetadata.class")).doesNotExist();
+    }
+
+    /**
+     * compile given source with processor, classes and generated sources written to <code>output</code>
+     *
+     * @return error messages
+     */
+    private List<String> compile(Path output, String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", output.toString(), "-s", output.toString());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new DataTableMetadataProcessor()));
+        task.call();
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+}
@@ -12,25 +12,32 @@ import org.bardframework.commons.utils.AssertionUtils;
 import org.bardframework.commons.utils.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Created by vahid on 1/17/17.
  */
 public abstract class BaseRepositoryQdslSqlAbstract<M extends BaseModelAbstract<I>, C extends BaseCriteriaAbstract<I>, I extends Serializable, U> implements BaseRepository<M, C, I, U> {
 
+    private static final Map<Class<?>, List<RepositoryListenerQdslSql>> LISTENERS = new ConcurrentHashMap<>();
+
     protected final Logger LOGGER = LoggerFactory.getLogger(getClass());
     protected final Class<M> modelClazz;
     protected final Class<C> criteriaClazz;
 
     @Autowired
     private SQLQueryFactory queryFactory;
+    @Autowired(required = false)
+    private PlatformTransactionManager transactionManager;
 
     public BaseRepositoryQdslSqlAbstract() {
         ParameterizedType parameterizedType = null;
@@ -121,21 +128,44 @@ public abstract class BaseRepositoryQdslSqlAbstract<M extends BaseModelAbstract<
             LOGGER.warn("expect insert '{}' row, but '{}' row(s) inserted.", models.size(), affectedRowsCount);
 //            throw new IllegalStateException("expect affect '" + models.size() + "' row, but " + affectedRowsCount + " row(s) inserted.");
         }
+        this.notifySaved(models, false, null);
         return models;
     }
 
     @Transactional
     @Override
     public M update(M model, U user) {
+        List<Object> states = this.notifyBeforeChange(Collections.singletonList(model.getId()));
         SQLUpdateClause updateClause = this.getQueryFactory().update(getEntity()).where(this.getIdentifierPath().eq(model.getId()));
         updateClause = this.fillClause(updateClause, model, user);
         long affectedRowsCount = updateClause.execute();
         if (1 != affectedRowsCount) {
             throw new IllegalStateException("expect affect one row, but " + affectedRowsCount + " row(s) updated.");
         }
+        this.notifySaved(Collections.singletonList(model), true, states);
         return model;
     }
 
+    @Transactional
+    @Override
+    public List<M> update(List<M> models, U user) {
+        if (CollectionUtils.isEmpty(models)) {
+            return models;
+        }
+        List<Object> states = this.notifyBeforeChange(models.stream().map(M::getId).collect(Collectors.toList()));
+        SQLUpdateClause updateClause = this.getQueryFactory().update(getEntity());
+        for (M model : models) {
+            this.fillClause(updateClause, model, user);
+            updateClause.where(this.getIdentifierPath().eq(model.getId())).addBatch();
+        }
+        long affectedRowsCount = updateClause.execute();
+        if (models.size() != affectedRowsCount) {
+            throw new IllegalStateException("expect update '" + models.size() + "' row, but " + affectedRowsCount + " row(s) updated.");
+        }
+        this.notifySaved(models, true, states);
+        return models;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public M get(I identifier, U user) {
@@ -164,6 +194,13 @@ public abstract class BaseRepositoryQdslSqlAbstract<M extends BaseModelAbstract<
     }
 
     public SQLQuery<?> prepareQuery(C criteria, U user) {
+        return this.prepareQuery(criteria, user, true);
+    }
+
+    /**
+     * @param filters apply filters of capabilities (e.g. data table filter of criteria), false when caller applies them partially (e.g. facets)
+     */
+    public SQLQuery<?> prepareQuery(C criteria, U user, boolean filters) {
         SQLQuery<?> query = this.getQueryFactory().query();
         query.from(this.getEntity());
         query = this.setJoins(query, user);
@@ -179,6 +216,9 @@ public abstract class BaseRepositoryQdslSqlAbstract<M extends BaseModelAbstract<
                 ((ReadExtendedRepositoryQdslSql) this).process(criteria, query, user);
             }
         }
+        for (RepositoryListenerQdslSql listener : this.getListeners()) {
+            listener.onQuery(this, criteria, query, user, filters);
+        }
         this.setOrders(query, criteria, user);
         return query;
     }
@@ -235,18 +275,25 @@ public abstract class BaseRepositoryQdslSqlAbstract<M extends BaseModelAbstract<
     @Override
     public long delete(C criteria, U user) {
         AssertionUtils.notNull(criteria, "Criteria object should not be null.");
-        return this.getQueryFactory().delete(this.getEntity())
-                .where(this.getIdentifierPath().in(this.getIds(criteria, user)))
+        List<I> ids = this.getIds(criteria, user);
+        List<Object> states = this.notifyBeforeChange(ids);
+        long affectedRowsCount = this.getQueryFactory().delete(this.getEntity())
+                .where(this.getIdentifierPath().in(ids))
                 .execute();
+        this.notifyDeleted(ids, states);
+        return affectedRowsCount;
     }
 
     @Transactional
     @Override
     public long directDelete(List<I> ids, U user) {
         AssertionUtils.notEmpty(ids, "ids should not be empty.");
-        return this.getQueryFactory().delete(this.getEntity())
+        List<Object> states = this.notifyBeforeChange(ids);
+        long affectedRowsCount = this.getQueryFactory().delete(this.getEntity())
                 .where(this.getIdentifierPath().in(ids))
                 .execute();
+        this.notifyDeleted(ids, states);
+        return affectedRowsCount;
     }
 
     @Transactional(readOnly = true)
@@ -281,6 +328,64 @@ public abstract class BaseRepositoryQdslSqlAbstract<M extends BaseModelAbstract<
         return queryFactory;
     }
 
+    /**
+     * used by capabilities that query out of caller transaction (e.g. background index build, partitions)
+     */
+    public PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    /**
+     * @return listeners registered on interfaces of repository (see {@link RepositoryListener}), created once per repository class
+     */
+    protected List<RepositoryListenerQdslSql> getListeners() {
+        return LISTENERS.computeIfAbsent(this.getClass(), clazz -> {
+            Set<Class<? extends RepositoryListenerQdslSql>> listenerClasses = new LinkedHashSet<>();
+            for (Class<?> type = clazz; null != type; type = type.getSuperclass()) {
+                collectListenerClasses(type.getInterfaces(), listenerClasses);
+            }
+            return listenerClasses.stream().map(BeanUtils::instantiateClass).collect(Collectors.toList());
+        });
+    }
+
+    private static void collectListenerClasses(Class<?>[] interfaces, Set<Class<? extends RepositoryListenerQdslSql>> listenerClasses) {
+        for (Class<?> clazz : interfaces) {
+            RepositoryListener listener = clazz.getAnnotation(RepositoryListener.class);
+            if (null != listener) {
+                listenerClasses.add(listener.value());
+            }
+            collectListenerClasses(clazz.getInterfaces(), listenerClasses);
+        }
+    }
+
+    /**
+     * @return state of each listener, in order of listeners
+     */
+    private List<Object> notifyBeforeChange(List<I> ids) {
+        List<Object> states = new ArrayList<>();
+        for (RepositoryListenerQdslSql listener : this.getListeners()) {
+            states.add(listener.beforeChange(this, ids));
+        }
+        return states;
+    }
+
+    /**
+     * @param states returned by {@link #notifyBeforeChange(List)}, null on insert
+     */
+    private void notifySaved(List<M> models, boolean update, List<Object> states) {
+        List<RepositoryListenerQdslSql> listeners = this.getListeners();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).afterSave(this, models, update, null == states ? null : states.get(i));
+        }
+    }
+
+    private void notifyDeleted(List<I> ids, List<Object> states) {
+        List<RepositoryListenerQdslSql> listeners = this.getListeners();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).afterDelete(this, ids, states.get(i));
+        }
+    }
+
     protected <T extends Serializable> T safeFetchId(BaseModelAbstract<T> model) {
         return null == model ? null : model.getId();
     }
@@ -0,0 +1,15 @@
+package org.bardframework.base.crud;
+
+import java.lang.annotation.*;
+
+/**
+ * registers listener of a capability interface of repositories, see {@link RepositoryListenerQdslSql}.
+ * listener class must have a public no-arg constructor.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RepositoryListener {
+
+    Class<? extends RepositoryListenerQdslSql> value();
+}
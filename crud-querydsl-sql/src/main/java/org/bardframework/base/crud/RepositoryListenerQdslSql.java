@@ -0,0 +1,46 @@
+package org.bardframework.base.crud;
+
+import com.querydsl.sql.SQLQuery;
+
+import java.util.List;
+
+/**
+ * hooks of a repository capability into reads and writes of {@link BaseRepositoryQdslSqlAbstract}, registered on capability
+ * interface by {@link RepositoryListener}. like {@link ReadExtendedRepositoryQdslSql}, listeners found from interfaces of repository,
+ * created once per repository class and shared by its instances, so they must be stateless.
+ *
+ * @param <R> capability interface that listener registered on
+ */
+public interface RepositoryListenerQdslSql<R, M, C, I, U> {
+
+    /**
+     * called for each query built by <code>prepareQuery</code>, after criteria applied and before orders
+     *
+     * @param filters false when caller applies filters of criteria itself (e.g. facets), conditions that secure rows must be applied anyway
+     */
+    default void onQuery(R repository, C criteria, SQLQuery<?> query, U user, boolean filters) {
+    }
+
+    /**
+     * called before rows of given identifiers updated or deleted, in same transaction
+     *
+     * @return state of rows needed after change (e.g. previous parents of tree nodes), passed as is to {@link #afterSave} or {@link #afterDelete}
+     */
+    default Object beforeChange(R repository, List<I> ids) {
+        return null;
+    }
+
+    /**
+     * called after models inserted or updated, in same transaction
+     *
+     * @param state returned by {@link #beforeChange}, null on insert
+     */
+    default void afterSave(R repository, List<M> models, boolean update, Object state) {
+    }
+
+    /**
+     * called after rows of given identifiers deleted, in same transaction
+     */
+    default void afterDelete(R repository, List<I> ids, Object state) {
+    }
+}
@@ -1,6 +1,6 @@
 package org.bardframework.base.datatable;
 
-import com.querydsl.sql.mssql.SQLServerQuery;
+import com.querydsl.core.types.Predicate;
 
 import java.util.Collection;
 
@@ -9,5 +9,8 @@ import java.util.Collection;
  */
 public interface DataLimitation<E extends Enum<E> & DataLimitation<E>> {
 
-    <R> SQLServerQuery<R> setRestrictions(SQLServerQuery<R> query, Collection<E> enumz);
+    /**
+     * @return dialect neutral predicate that restricts rows to given values
+     */
+    Predicate getRestriction(Collection<E> enumz);
 }
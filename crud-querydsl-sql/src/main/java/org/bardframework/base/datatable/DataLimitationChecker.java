@@ -1,10 +1,10 @@
 package org.bardframework.base.datatable;
 
-import com.querydsl.sql.mssql.SQLServerQuery;
-import org.bardframework.commons.utils.StringUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.sql.SQLQuery;
+import org.bardframework.commons.utils.AssertionUtils;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Created by Vahid Zafari on 6/3/2016.
@@ -12,16 +12,41 @@ import java.util.List;
 public class DataLimitationChecker<T extends Enum<T> & DataLimitation<T>> {
 
     private final Class<T> clazz;
+    /**
+     * constants keyed by name and by class simple name + '.' + name (id of enum base data), built once
+     */
+    private final Map<String, T> constants;
 
     public DataLimitationChecker(Class<T> clazz) {
+        AssertionUtils.notNull(clazz, "null class not acceptable");
         this.clazz = clazz;
+        Map<String, T> map = new HashMap<>();
+        for (T constant : clazz.getEnumConstants()) {
+            map.put(constant.name(), constant);
+            map.put(clazz.getSimpleName() + "." + constant.name(), constant);
+        }
+        this.constants = Collections.unmodifiableMap(map);
+    }
+
+    public T toEnum(String id) {
+        T constant = constants.get(id);
+        if (null == constant) {
+            throw new IllegalArgumentException("invalid value '" + id + "' for " + clazz.getSimpleName());
+        }
+        return constant;
     }
 
-    public <R> SQLServerQuery<R> setRestriction(SQLServerQuery<R> query, List<String> selected) {
-        List<T> enumz = new ArrayList<>();
+    public Predicate getRestriction(List<String> selected) {
+        AssertionUtils.notEmpty(selected, "null or empty selected values not acceptable");
+        List<T> enumz = new ArrayList<>(selected.size());
         for (String enumId : selected) {
-            enumz.add(Enum.valueOf(clazz, enumId.replace(clazz.getSimpleName() + ".", StringUtils.EMPTY)));
+            enumz.add(this.toEnum(enumId));
         }
-        return enumz.get(0).setRestrictions(query, enumz);
+        return enumz.get(0).getRestriction(enumz);
+    }
+
+    public <R> SQLQuery<R> setRestriction(SQLQuery<R> query, List<String> selected) {
+        query.where(this.getRestriction(selected));
+        return query;
     }
 }
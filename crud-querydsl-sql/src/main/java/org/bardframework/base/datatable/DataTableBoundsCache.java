@@ -0,0 +1,182 @@
+package org.bardframework.base.datatable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * bounds of <code>MIN_MAX</code> headers of a table. bounds computed by aggregate query once, then widened by saved values;
+ * updates and deletes that replace a value on a bound may shrink bounds, so they mark cache stale and bounds recomputed in background
+ * (also every <code>refreshIntervalMillis</code>), meanwhile readers get current (possibly wider) bounds.
+ */
+public class DataTableBoundsCache {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataTableBoundsCache.class);
+    private static final Map<Object, DataTableBoundsCache> CACHES = new ConcurrentHashMap<>();
+    private static final ExecutorService REFRESHER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "data-table-bounds-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Supplier<Map<String, MinMaxBounds>> loader;
+    private final long refreshIntervalMillis;
+    private final Object lock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Map<String, MinMaxBounds> bounds;
+    private volatile long computedAt;
+    private volatile boolean stale;
+    /**
+     * values saved while a refresh is running, applied on refreshed bounds so they are not lost
+     */
+    private List<Map<String, Comparable<?>>> includedDuringRefresh;
+
+    public DataTableBoundsCache(Supplier<Map<String, MinMaxBounds>> loader, long refreshIntervalMillis) {
+        if (refreshIntervalMillis < 1) {
+            throw new IllegalArgumentException("refresh interval must be greater than 0");
+        }
+        this.loader = loader;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    /**
+     * @param key key of table (e.g. repository class), cache created on first call for each key
+     */
+    public static DataTableBoundsCache get(Object key, Supplier<Map<String, MinMaxBounds>> loader) {
+        return CACHES.computeIfAbsent(key, k -> new DataTableBoundsCache(loader, DEFAULT_REFRESH_INTERVAL_MILLIS));
+    }
+
+    /**
+     * only first call computes bounds synchronously, later calls never wait for aggregate query.
+     */
+    public Map<String, MinMaxBounds> getBounds() {
+        Map<String, MinMaxBounds> current = bounds;
+        if (null == current) {
+            synchronized (lock) {
+                if (null == bounds) {
+                    this.refresh();
+                }
+                return bounds;
+            }
+        }
+        if (stale || System.currentTimeMillis() - computedAt > refreshIntervalMillis) {
+            this.refreshAsync();
+        }
+        return current;
+    }
+
+    public boolean isLoaded() {
+        return null != bounds;
+    }
+
+    /**
+     * widen bounds by saved values
+     *
+     * @param values values of headers keyed by header id
+     */
+    public void include(Map<String, Comparable<?>> values) {
+        synchronized (lock) {
+            if (null == bounds) {
+                return;
+            }
+            if (null != includedDuringRefresh) {
+                includedDuringRefresh.add(values);
+            }
+            bounds = this.include(bounds, values);
+        }
+    }
+
+    /**
+     * bounds may be narrower than current ones, recompute on next read
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    /**
+     * mark stale only if removed or replaced values reach a current bound, values strictly inside bounds can't shrink them.
+     *
+     * @param removed bounds of removed or replaced values keyed by header id
+     * @return true if cache marked stale
+     */
+    public boolean markStaleIfOnBounds(Map<String, MinMaxBounds> removed) {
+        Map<String, MinMaxBounds> current = bounds;
+        if (null == current) {
+            return false;
+        }
+        for (Map.Entry<String, MinMaxBounds> entry : removed.entrySet()) {
+            MinMaxBounds bound = current.get(entry.getKey());
+            if (null != bound && (this.reaches(entry.getValue().getMin(), bound.getMin(), true) || this.reaches(entry.getValue().getMax(), bound.getMax(), false))) {
+                this.markStale();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void refreshAsync() {
+        if (refreshing.compareAndSet(false, true)) {
+            REFRESHER.execute(() -> {
+                try {
+                    this.refresh();
+                } catch (RuntimeException e) {
+                    LOGGER.error("refreshing data table bounds failed, current bounds kept.", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    private void refresh() {
+        synchronized (lock) {
+            stale = false;
+            includedDuringRefresh = new ArrayList<>();
+        }
+        Map<String, MinMaxBounds> refreshed;
+        try {
+            refreshed = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                includedDuringRefresh = null;
+                stale = true;
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            for (Map<String, Comparable<?>> values : includedDuringRefresh) {
+                refreshed = this.include(refreshed, values);
+            }
+            includedDuringRefresh = null;
+            bounds = Collections.unmodifiableMap(refreshed);
+            computedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @return true if value is on (or beyond) bound
+     */
+    @SuppressWarnings("unchecked")
+    private boolean reaches(Comparable<?> value, Comparable<?> bound, boolean lower) {
+        if (null == value || null == bound) {
+            return false;
+        }
+        int compare = ((Comparable<Object>) value).compareTo(bound);
+        return lower ? compare <= 0 : compare >= 0;
+    }
+
+    private Map<String, MinMaxBounds> include(Map<String, MinMaxBounds> current, Map<String, Comparable<?>> values) {
+        Map<String, MinMaxBounds> updated = new HashMap<>(current);
+        values.forEach((header, value) -> updated.merge(header, new MinMaxBounds(value, value), (old, ignored) -> old.include(value)));
+        return Collections.unmodifiableMap(updated);
+    }
+}
@@ -0,0 +1,334 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.Wildcard;
+import com.querydsl.sql.*;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.bardframework.base.crud.RepositoryListener;
+import org.bardframework.base.crud.RepositoryListenerQdslSql;
+import org.bardframework.base.utils.TransactionUtils;
+import org.bardframework.commons.utils.AssertionUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * repositories that filter and sort by data table headers, filter of criteria applied in <code>prepareQuery</code>.
+ */
+@RepositoryListener(DataTableEntityRepositoryQdslSql.DataTableListener.class)
+public interface DataTableEntityRepositoryQdslSql<C extends BaseCriteria<I> & DataTableCriteria, I extends Serializable, U> extends DataTableEntityRepository<C, I, U> {
+
+    /**
+     * @return bound headers of data table structure, usually <code>DataTableUtils.getHeaders(modelClazz)</code>
+     */
+    List<HeaderAbstract> getDataTableHeaders();
+
+    <T extends SimpleExpression<I>> T getIdentifierPath();
+
+    SQLQuery<?> prepareQuery(C criteria, U user, boolean filters);
+
+    SQLQueryFactory getQueryFactory();
+
+    /**
+     * provided by base repository
+     */
+    PlatformTransactionManager getTransactionManager();
+
+    /**
+     * @return table of repository, resolved from identifier path
+     */
+    default RelationalPath<?> getDataTableEntity() {
+        return (RelationalPath<?>) ((Path<?>) this.getIdentifierPath()).getRoot();
+    }
+
+    /**
+     * engine compiled once per repository class
+     */
+    default DataTableFilterEngine getDataTableFilterEngine() {
+        return DataTableFilterEngine.get(this.getClass(), this::getDataTableHeaders, this.getIdentifierPath());
+    }
+
+    default <T> SQLQuery<T> applyDataTableFilter(C criteria, SQLQuery<T> query, U user) {
+        DataTableFilter<?> filter = criteria.getDataTableFilter();
+        if (null == filter) {
+            return query;
+        }
+        return this.getDataTableFilterEngine().apply(query, filter);
+    }
+
+    /**
+     * headers that filtered by user need their own query (their selection excluded), other headers share same filter
+     * and counted together in one <code>GROUPING SETS</code> query when database supports it.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    default Map<String, Map<String, Long>> getFacets(C criteria, Collection<String> headers, U user) {
+        AssertionUtils.notNull(criteria, "null criteria not acceptable");
+        AssertionUtils.notEmpty(headers, "null or empty headers not acceptable");
+        DataTableFilterEngine engine = this.getDataTableFilterEngine();
+        DataTableFilter<?> filter = criteria.getDataTableFilter();
+        Map<String, Map<String, Long>> facets = new HashMap<>();
+        List<String> notFiltered = new ArrayList<>();
+        for (String header : headers) {
+            HeaderAbstract definition = engine.getHeader(header);
+            if (null == definition || !(definition.getFilterType() == FilteringType.SINGLE_SELECT || definition.getFilterType() == FilteringType.MULTI_SELECT)) {
+                throw new IllegalArgumentException("header '" + header + "' is not a select header bound to query path, can't compute facets.");
+            }
+            if (null != filter && engine.isFiltered(filter, header)) {
+                facets.putAll(this.getFacets(criteria, filter, header, Collections.singletonList(header), user));
+            } else {
+                notFiltered.add(header);
+            }
+        }
+        if (notFiltered.size() > 1 && this.isGroupingSetsSupported()) {
+            facets.putAll(this.getFacets(criteria, filter, null, notFiltered, user));
+        } else {
+            for (String header : notFiltered) {
+                facets.putAll(this.getFacets(criteria, filter, null, Collections.singletonList(header), user));
+            }
+        }
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        headers.forEach(header -> result.put(header, facets.get(header)));
+        return result;
+    }
+
+    /**
+     * @param excludedHeader header that its selection not applied
+     */
+    default Map<String, Map<String, Long>> getFacets(C criteria, DataTableFilter<?> filter, String excludedHeader, List<String> headers, U user) {
+        DataTableFilterEngine engine = this.getDataTableFilterEngine();
+        SQLQuery<?> query = this.prepareQuery(criteria, user, false);
+        query.getMetadata().clearOrderBy();
+        Predicate predicate = null == filter ? null : engine.getPredicate(filter, excludedHeader);
+        if (null != predicate) {
+            query.where(predicate);
+        }
+        Expression<?>[] paths = new Expression<?>[headers.size()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = engine.getQueryPath(headers.get(i));
+        }
+        SQLQuery<Tuple> facetQuery;
+        if (paths.length == 1) {
+            facetQuery = query.select(paths[0], Wildcard.count).groupBy(paths[0]);
+        } else {
+            Expression<?>[] select = new Expression<?>[paths.length * 2 + 1];
+            StringJoiner groupingSets = new StringJoiner(", ", "grouping sets (", ")");
+            for (int i = 0; i < paths.length; i++) {
+                select[i] = paths[i];
+                select[paths.length + i] = Expressions.numberTemplate(Integer.class, "grouping({0})", paths[i]);
+                groupingSets.add("({" + i + "})");
+            }
+            select[select.length - 1] = Wildcard.count;
+            facetQuery = query.select(select).groupBy(Expressions.template(Object.class, groupingSets.toString(), (Object[]) paths));
+        }
+        SQLBindings bindings = facetQuery.getSQL();
+        return this.getFacetCache().get(bindings.getSQL() + bindings.getBindings(), () -> {
+            Map<String, Map<String, Long>> facets = new HashMap<>();
+            headers.forEach(header -> facets.put(header, new LinkedHashMap<>()));
+            for (Tuple tuple : facetQuery.fetch()) {
+                Long count = tuple.get(tuple.size() - 1, Long.class);
+                for (int i = 0; i < paths.length; i++) {
+                    /*
+                      in grouping sets query, each row belongs to the only path that grouping() of it is 0
+                     */
+                    if (paths.length == 1 || tuple.get(paths.length + i, Number.class).intValue() == 0) {
+                        facets.get(headers.get(i)).put(this.toFacetKey(tuple.get(i, Object.class)), count);
+                        break;
+                    }
+                }
+            }
+            return facets;
+        });
+    }
+
+    default String toFacetKey(Object value) {
+        if (null == value) {
+            return null;
+        }
+        return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+    }
+
+    default boolean isGroupingSetsSupported() {
+        SQLTemplates templates = this.getQueryFactory().getConfiguration().getTemplates();
+        return templates instanceof PostgreSQLTemplates || templates instanceof OracleTemplates || templates instanceof SQLServer2008Templates || templates instanceof DB2Templates;
+    }
+
+    default DataTableFacetCache getFacetCache() {
+        return DataTableFacetCache.DEFAULT;
+    }
+
+    @Override
+    default Map<String, MinMaxBounds> getBounds(U user) {
+        return this.getDataTableBoundsCache().getBounds();
+    }
+
+    /**
+     * cache created once per repository class
+     */
+    default DataTableBoundsCache getDataTableBoundsCache() {
+        return DataTableBoundsCache.get(this.getClass(), () -> {
+            /*
+              bounds recomputed on background thread, out of caller transaction
+             */
+            TransactionTemplate transactionTemplate = new TransactionTemplate(this.getTransactionManager());
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            return transactionTemplate.execute(status -> this.computeBounds(null));
+        });
+    }
+
+    /**
+     * min and max of all <code>MIN_MAX</code> headers that are columns of entity, in one aggregate query.
+     *
+     * @param predicate rows that bounds computed on, null for all rows
+     */
+    default Map<String, MinMaxBounds> computeBounds(Predicate predicate) {
+        List<HeaderAbstract> headers = this.getBoundedHeaders();
+        Map<String, MinMaxBounds> bounds = new HashMap<>();
+        if (headers.isEmpty()) {
+            return bounds;
+        }
+        DataTableFilterEngine engine = this.getDataTableFilterEngine();
+        Expression<?>[] select = new Expression<?>[headers.size() * 2];
+        for (int i = 0; i < headers.size(); i++) {
+            Expression<?> path = engine.getQueryPath(headers.get(i).getPath());
+            select[i * 2] = Expressions.simpleOperation(path.getType(), Ops.AggOps.MIN_AGG, path);
+            select[i * 2 + 1] = Expressions.simpleOperation(path.getType(), Ops.AggOps.MAX_AGG, path);
+        }
+        Tuple tuple = this.getQueryFactory().query().from(this.getDataTableEntity()).where(predicate).select(select).fetchOne();
+        for (int i = 0; i < headers.size(); i++) {
+            bounds.put(headers.get(i).getPath(), new MinMaxBounds((Comparable<?>) tuple.get(i * 2, Object.class), (Comparable<?>) tuple.get(i * 2 + 1, Object.class)));
+        }
+        return bounds;
+    }
+
+    /**
+     * @return <code>MIN_MAX</code> headers that their query path is a column of entity (headers on joined tables have no global bounds)
+     */
+    default List<HeaderAbstract> getBoundedHeaders() {
+        DataTableFilterEngine engine = this.getDataTableFilterEngine();
+        List<HeaderAbstract> headers = new ArrayList<>();
+        for (HeaderAbstract header : engine.getHeaders()) {
+            Expression<?> path = engine.getQueryPath(header.getPath());
+            if (header.getFilterType() == FilteringType.MIN_MAX && path instanceof Path && this.getDataTableEntity().equals(((Path<?>) path).getRoot())) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * materialized formulas of headers recomputed for saved rows, so inserted rows get their values.
+     * changes of records that a formula reads from other tables are not seen, see {@link FormulaQueryRegistry}.
+     */
+    default void refreshMaterializedFormulas(Collection<I> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (HeaderAbstract header : this.getDataTableHeaders()) {
+            FormulaQueryRegistry.Formula<?> formula = header instanceof HeaderQdsl ? ((HeaderQdsl) header).getFormula() : null;
+            if (null != formula && formula.isMaterialized()) {
+                formula.refresh(this.getQueryFactory(), this.getDataTableEntity(), Expressions.predicate(Ops.IN, this.getIdentifierPath(), Expressions.constant(ids)));
+            }
+        }
+    }
+
+    /**
+     * called by {@link DataTableListener} before rows updated or deleted
+     *
+     * @return bounds of current values of given rows, null if bounds not cached yet (nothing to keep in sync)
+     */
+    default Map<String, MinMaxBounds> getReplacedBounds(List<I> ids) {
+        if (ids.isEmpty() || !this.getDataTableBoundsCache().isLoaded()) {
+            return null;
+        }
+        return this.computeBounds(Expressions.predicate(Ops.IN, this.getIdentifierPath(), Expressions.constant(ids)));
+    }
+
+    /**
+     * called by {@link DataTableListener} after models saved or updated (<code>models</code> not null) or deleted, bounds changed after commit.
+     * bounds recomputed only if a replaced or removed value was on a bound, otherwise periodic refresh is enough.
+     *
+     * @param replaced bounds of values before update or delete (see {@link #getReplacedBounds(List)}), null on insert
+     */
+    default void onDataTableWrite(Collection<?> models, Map<String, MinMaxBounds> replaced) {
+        DataTableBoundsCache cache = this.getDataTableBoundsCache();
+        if (!cache.isLoaded()) {
+            return;
+        }
+        List<Map<String, Comparable<?>>> values = new ArrayList<>();
+        if (null != models) {
+            List<HeaderAbstract> headers = this.getBoundedHeaders();
+            for (Object model : models) {
+                BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(model);
+                Map<String, Comparable<?>> modelValues = new HashMap<>();
+                for (HeaderAbstract header : headers) {
+                    Object value;
+                    try {
+                        value = wrapper.getPropertyValue(header.getPath());
+                    } catch (BeansException e) {
+                        /*
+                          null value in nested path, or not readable property (cache refreshed periodically anyway)
+                         */
+                        continue;
+                    }
+                    if (value instanceof Comparable) {
+                        modelValues.put(header.getPath(), (Comparable<?>) value);
+                    }
+                }
+                values.add(modelValues);
+            }
+        }
+        Runnable apply = () -> {
+            if (null != replaced) {
+                cache.markStaleIfOnBounds(replaced);
+            }
+            values.forEach(cache::include);
+        };
+        TransactionUtils.afterCommit(apply);
+    }
+
+    /**
+     * applies filter of criteria to queries and keeps materialized formulas and bounds of headers in sync with writes
+     */
+    class DataTableListener<C extends BaseCriteria<I> & DataTableCriteria, I extends Serializable, U> implements RepositoryListenerQdslSql<DataTableEntityRepositoryQdslSql<C, I, U>, BaseModelAbstract<I>, C, I, U> {
+
+        @Override
+        public void onQuery(DataTableEntityRepositoryQdslSql<C, I, U> repository, C criteria, SQLQuery<?> query, U user, boolean filters) {
+            if (filters) {
+                repository.applyDataTableFilter(criteria, query, user);
+            }
+        }
+
+        @Override
+        public Object beforeChange(DataTableEntityRepositoryQdslSql<C, I, U> repository, List<I> ids) {
+            return repository.getReplacedBounds(ids);
+        }
+
+        @Override
+        public void afterSave(DataTableEntityRepositoryQdslSql<C, I, U> repository, List<BaseModelAbstract<I>> models, boolean update, Object state) {
+            repository.refreshMaterializedFormulas(models.stream().map(BaseModelAbstract::getId).collect(Collectors.toList()));
+            repository.onDataTableWrite(models, (Map<String, MinMaxBounds>) state);
+        }
+
+        @Override
+        public void afterDelete(DataTableEntityRepositoryQdslSql<C, I, U> repository, List<I> ids, Object state) {
+            repository.onDataTableWrite(null, (Map<String, MinMaxBounds>) state);
+        }
+    }
+}
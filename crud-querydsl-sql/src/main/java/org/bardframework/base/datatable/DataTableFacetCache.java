@@ -0,0 +1,78 @@
+package org.bardframework.base.datatable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * short lived cache of facet counts keyed by generated sql and its bindings, so same query of different users
+ * (or same user opening table again) computed once in <code>ttlMillis</code>. count of entries bounded by <code>maxEntries</code>.
+ */
+public class DataTableFacetCache {
+
+    public static final DataTableFacetCache DEFAULT = new DataTableFacetCache(TimeUnit.SECONDS.toMillis(30), 1_000);
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public DataTableFacetCache(long ttlMillis, int maxEntries) {
+        if (ttlMillis < 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("ttl can't be negative and max entries must be greater than 0");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return counts keyed by header id then by value, read only since same maps handed to all callers
+     */
+    public Map<String, Map<String, Long>> get(String key, Supplier<Map<String, Map<String, Long>>> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (null != entry && entry.expireAt > now) {
+            return entry.counts;
+        }
+        Map<String, Map<String, Long>> counts = this.toReadOnly(loader.get());
+        if (ttlMillis > 0) {
+            if (entries.size() >= maxEntries) {
+                this.evict(now);
+            }
+            entries.put(key, new Entry(counts, now + ttlMillis));
+        }
+        return counts;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * remove expired entries, if still full remove all; entries are short lived, so losing them is cheap
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expireAt <= now);
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    private Map<String, Map<String, Long>> toReadOnly(Map<String, Map<String, Long>> counts) {
+        Map<String, Map<String, Long>> readOnly = new LinkedHashMap<>();
+        counts.forEach((header, values) -> readOnly.put(header, null == values ? null : Collections.unmodifiableMap(values)));
+        return Collections.unmodifiableMap(readOnly);
+    }
+
+    private static class Entry {
+        private final Map<String, Map<String, Long>> counts;
+        private final long expireAt;
+
+        private Entry(Map<String, Map<String, Long>> counts, long expireAt) {
+            this.counts = counts;
+            this.expireAt = expireAt;
+        }
+    }
+}
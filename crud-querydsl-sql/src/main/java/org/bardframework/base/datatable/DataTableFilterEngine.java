@@ -0,0 +1,251 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.sql.SQLQuery;
+import org.bardframework.commons.utils.AssertionUtils;
+import org.bardframework.commons.utils.CollectionUtils;
+import org.bardframework.commons.utils.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.converter.Converter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * headers of a structure compiled once to predicate and order builders (chosen by {@link FilteringType}),
+ * then each {@link DataTableFilter} applied to query with no reflection or header lookup.
+ * identifier always added as last order, so paging over equal sort values is stable.
+ * <p>
+ * headers that not bound to a query path (e.g. formula or transient fields) are ignored.
+ */
+public final class DataTableFilterEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataTableFilterEngine.class);
+    private static final Map<Object, DataTableFilterEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private final Map<String, CompiledHeader> headers;
+    private final List<CompiledHeader> searchHeaders;
+    private final List<OrderSpecifier<?>> defaultOrders;
+    private final Expression<?> identifierPath;
+
+    private DataTableFilterEngine(List<HeaderAbstract> headers, Expression<?> identifierPath) {
+        Map<String, CompiledHeader> compiled = new LinkedHashMap<>();
+        List<CompiledHeader> search = new ArrayList<>();
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (HeaderAbstract header : headers) {
+            if (!(header instanceof HeaderQdsl) || null == ((HeaderQdsl) header).getQueryPath()) {
+                continue;
+            }
+            CompiledHeader compiledHeader = new CompiledHeader(header, ((HeaderQdsl) header).getQueryPath());
+            compiled.put(header.getPath(), compiledHeader);
+            if (header.isSearchable() || header.getFilterType() == FilteringType.SEARCH) {
+                search.add(compiledHeader);
+            }
+            if (header.isSortable() && null != header.getSort()) {
+                orders.add(compiledHeader.toOrder(header.getSort()));
+            }
+        }
+        this.headers = Collections.unmodifiableMap(compiled);
+        this.searchHeaders = Collections.unmodifiableList(search);
+        this.defaultOrders = Collections.unmodifiableList(orders);
+        this.identifierPath = identifierPath;
+    }
+
+    public static DataTableFilterEngine compile(List<HeaderAbstract> headers, Expression<?> identifierPath) {
+        AssertionUtils.notNull(headers, "null headers not acceptable");
+        AssertionUtils.notNull(identifierPath, "null identifier path not acceptable");
+        return new DataTableFilterEngine(headers, identifierPath);
+    }
+
+    /**
+     * @param key key of structure (e.g. model or repository class), engine compiled on first call for each key
+     */
+    public static DataTableFilterEngine get(Object key, Supplier<List<HeaderAbstract>> headers, Expression<?> identifierPath) {
+        return ENGINES.computeIfAbsent(key, k -> DataTableFilterEngine.compile(headers.get(), identifierPath));
+    }
+
+    public <T> SQLQuery<T> apply(SQLQuery<T> query, DataTableFilter<?> filter) {
+        Predicate predicate = this.getPredicate(filter, null);
+        if (null != predicate) {
+            query.where(predicate);
+        }
+        List<OrderSpecifier<?>> orders = this.getOrders(filter);
+        query.orderBy(orders.toArray(new OrderSpecifier<?>[0]));
+        return query;
+    }
+
+    /**
+     * @param excludedHeader id of header that its own filter not applied (e.g. when computing its facets), null to apply all
+     * @return conjunction of header filters and global query, null if filter has no constraint
+     */
+    public Predicate getPredicate(DataTableFilter<?> filter, String excludedHeader) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (StringUtils.hasText(filter.getQuery()) && !searchHeaders.isEmpty()) {
+            BooleanBuilder search = new BooleanBuilder();
+            for (CompiledHeader header : searchHeaders) {
+                search.or(header.getSearchExpression().containsIgnoreCase(filter.getQuery()));
+            }
+            builder.and(search.getValue());
+        }
+        if (null != filter.getHeaders()) {
+            for (HeaderDto dto : filter.getHeaders()) {
+                if (null == dto.getId() || dto.getId().equals(excludedHeader)) {
+                    continue;
+                }
+                CompiledHeader header = headers.get(dto.getId());
+                if (null == header) {
+                    LOGGER.debug("header '{}' not exist or not bound to query path, filter ignored.", dto.getId());
+                    continue;
+                }
+                builder.and(header.predicateBuilder.build(dto));
+            }
+        }
+        return builder.getValue();
+    }
+
+    /**
+     * @return sorts of filter by their sequence (default sorts of headers if filter has no sort) followed by identifier
+     */
+    public List<OrderSpecifier<?>> getOrders(DataTableFilter<?> filter) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        if (null != filter.getHeaders()) {
+            filter.getHeaders().stream()
+                    .filter(dto -> null != dto.getSort() && null != dto.getId())
+                    .sorted(Comparator.comparingInt(HeaderDto::getSortSequence))
+                    .forEach(dto -> {
+                        CompiledHeader header = headers.get(dto.getId());
+                        if (null != header && header.header.isSortable()) {
+                            orders.add(header.toOrder(dto.getSort()));
+                        }
+                    });
+        }
+        if (orders.isEmpty()) {
+            orders.addAll(defaultOrders);
+        }
+        if (orders.stream().noneMatch(order -> order.getTarget().equals(identifierPath))) {
+            orders.add(new OrderSpecifier(Order.ASC, identifierPath));
+        }
+        return orders;
+    }
+
+    /**
+     * @return true if filter has a constraint on given header
+     */
+    public boolean isFiltered(DataTableFilter<?> filter, String header) {
+        CompiledHeader compiled = headers.get(header);
+        if (null == compiled || null == filter.getHeaders()) {
+            return false;
+        }
+        return filter.getHeaders().stream().anyMatch(dto -> header.equals(dto.getId()) && null != compiled.predicateBuilder.build(dto));
+    }
+
+    /**
+     * @return header bound to query path, null if not exist
+     */
+    public HeaderAbstract getHeader(String header) {
+        CompiledHeader compiled = headers.get(header);
+        return null == compiled ? null : compiled.header;
+    }
+
+    public Collection<HeaderAbstract> getHeaders() {
+        List<HeaderAbstract> list = new ArrayList<>(headers.size());
+        headers.values().forEach(header -> list.add(header.header));
+        return list;
+    }
+
+    /**
+     * @return query path of header, null if header not exist or not bound to query path
+     */
+    public Expression<?> getQueryPath(String header) {
+        CompiledHeader compiled = headers.get(header);
+        return null == compiled ? null : compiled.path;
+    }
+
+    @FunctionalInterface
+    private interface PredicateBuilder {
+        /**
+         * @return predicate of header filter, null if header has no filter
+         */
+        Predicate build(HeaderDto dto);
+    }
+
+    private static class CompiledHeader {
+        private final HeaderAbstract header;
+        private final Expression<?> path;
+        private final Converter<String, ?> converter;
+        private final PredicateBuilder predicateBuilder;
+        private final StringExpression searchExpression;
+
+        private CompiledHeader(HeaderAbstract header, Expression<?> path) {
+            this.header = header;
+            this.path = path;
+            this.converter = (Converter<String, ?>) header.getInputConverter();
+            this.searchExpression = path instanceof StringExpression ? (StringExpression) path : Expressions.stringOperation(Ops.STRING_CAST, path);
+            this.predicateBuilder = this.compile(header.getFilterType());
+        }
+
+        private PredicateBuilder compile(FilteringType filteringType) {
+            DataLimitationChecker<?> checker = header instanceof HeaderQdsl ? ((HeaderQdsl) header).getChecker() : null;
+            if (null != checker && (filteringType == FilteringType.SINGLE_SELECT || filteringType == FilteringType.MULTI_SELECT)) {
+                return dto -> CollectionUtils.isEmpty(dto.getSelected()) ? null : checker.getRestriction(dto.getSelected());
+            }
+            switch (filteringType) {
+                case SEARCH:
+                    return dto -> StringUtils.hasText(dto.getQuery()) ? this.getSearchExpression().containsIgnoreCase(dto.getQuery()) : null;
+                case SINGLE_SELECT:
+                    return dto -> CollectionUtils.isEmpty(dto.getSelected()) ? null : Expressions.predicate(Ops.EQ, path, Expressions.constant(this.convert(dto.getSelected().get(0))));
+                case MULTI_SELECT:
+                case TREE_SELECT:
+                    return dto -> {
+                        if (CollectionUtils.isEmpty(dto.getSelected())) {
+                            return null;
+                        }
+                        List<Object> values = new ArrayList<>(dto.getSelected().size());
+                        dto.getSelected().forEach(value -> values.add(this.convert(value)));
+                        return Expressions.predicate(Ops.IN, path, Expressions.constant(values));
+                    };
+                case MIN_MAX:
+                    return dto -> {
+                        BooleanBuilder builder = new BooleanBuilder();
+                        if (StringUtils.hasText(dto.getMin())) {
+                            builder.and(Expressions.predicate(Ops.GOE, path, Expressions.constant(this.convert(dto.getMin()))));
+                        }
+                        if (StringUtils.hasText(dto.getMax())) {
+                            builder.and(Expressions.predicate(Ops.LOE, path, Expressions.constant(this.convert(dto.getMax()))));
+                        }
+                        return builder.getValue();
+                    };
+                default:
+                    return dto -> null;
+            }
+        }
+
+        private Object convert(String value) {
+            if (null == converter) {
+                return value;
+            }
+            try {
+                Object converted = converter.convert(value);
+                if (null == converted) {
+                    throw new IllegalArgumentException("null converted value");
+                }
+                return converted;
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid value '" + value + "' for header '" + header.getPath() + "'", e);
+            }
+        }
+
+        private StringExpression getSearchExpression() {
+            return searchExpression;
+        }
+
+        private OrderSpecifier<?> toOrder(Sort sort) {
+            return new OrderSpecifier(sort == Sort.DESC ? Order.DESC : Order.ASC, path);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.SubQueryExpressionImpl;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.sql.RelationalPath;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.dml.SQLUpdateClause;
+import org.bardframework.commons.utils.AssertionUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * formulas of <code>FORMULA</code> headers, keyed by table and property; populated by application (e.g. in configuration classes)
+ * before data table structures are bound.
+ * <p>
+ * each formula is a factory of (usually correlated) sub query, factory called once and its result kept as immutable expression,
+ * so same compiled expression is shared by all queries and threads.
+ * expensive formulas can be materialized into a computed column, then header uses column and can be filtered and sorted freely.
+ * data table repositories refresh column of rows they save; when records that formula reads (e.g. rows of other tables) change,
+ * application must call {@link Formula#refresh(SQLQueryFactory, RelationalPath, Predicate)} for affected rows.
+ */
+public final class FormulaQueryRegistry {
+
+    private static final Map<String, Map<String, Formula<?>>> FORMULAS = new ConcurrentHashMap<>();
+
+    private FormulaQueryRegistry() {
+    }
+
+    public static <T> Formula<T> register(String table, String property, Class<T> type, Supplier<? extends SubQueryExpression<T>> factory) {
+        AssertionUtils.hasText(table, "null or empty table not acceptable");
+        AssertionUtils.hasText(property, "null or empty property not acceptable");
+        AssertionUtils.notNull(type, "null type not acceptable");
+        AssertionUtils.notNull(factory, "null factory not acceptable");
+        Formula<T> formula = new Formula<>(type, factory, null, null);
+        FORMULAS.computeIfAbsent(table, key -> new ConcurrentHashMap<>()).put(property, formula);
+        return formula;
+    }
+
+    /**
+     * use <code>column</code> instead of sub query of registered formula, compiled sub query (if any) kept for refresh of column.
+     */
+    public static <T> Formula<T> materialize(String table, String property, Path<T> column) {
+        AssertionUtils.notNull(column, "null column not acceptable");
+        Formula<T> formula = (Formula<T>) get(table, property);
+        if (null == formula) {
+            throw new IllegalArgumentException("no formula registered for '" + table + "." + property + "'");
+        }
+        Formula<T> materialized = new Formula<>(formula.type, formula.factory, column, formula.expression);
+        FORMULAS.get(table).put(property, materialized);
+        return materialized;
+    }
+
+    /**
+     * @return formula of property, null if not registered
+     */
+    public static Formula<?> get(String table, String property) {
+        Map<String, Formula<?>> formulas = FORMULAS.get(table);
+        return null == formulas ? null : formulas.get(property);
+    }
+
+    public static void remove(String table, String property) {
+        Map<String, Formula<?>> formulas = FORMULAS.get(table);
+        if (null != formulas) {
+            formulas.remove(property);
+        }
+    }
+
+    public static final class Formula<T> {
+        private final Class<T> type;
+        private final Supplier<? extends SubQueryExpression<T>> factory;
+        private final Path<T> column;
+        private volatile SimpleExpression<T> expression;
+
+        private Formula(Class<T> type, Supplier<? extends SubQueryExpression<T>> factory, Path<T> column, SimpleExpression<T> expression) {
+            this.type = type;
+            this.factory = factory;
+            this.column = column;
+            this.expression = expression;
+        }
+
+        /**
+         * @return compiled sub query of formula, created on first call.
+         * metadata of sub query copied, so later changes of query returned by factory has no effect.
+         */
+        public SimpleExpression<T> getExpression() {
+            SimpleExpression<T> compiled = expression;
+            if (null == compiled) {
+                SubQueryExpression<T> subQuery = factory.get();
+                compiled = Expressions.simpleTemplate(type, "{0}", new SubQueryExpressionImpl<>(type, subQuery.getMetadata().clone()));
+                expression = compiled;
+            }
+            return compiled;
+        }
+
+        /**
+         * @return materialized column if exist, compiled sub query otherwise
+         */
+        public SimpleExpression<T> getQueryPath() {
+            if (null == column) {
+                return this.getExpression();
+            }
+            return column instanceof SimpleExpression ? (SimpleExpression<T>) column : Expressions.simpleTemplate(type, "{0}", column);
+        }
+
+        public boolean isMaterialized() {
+            return null != column;
+        }
+
+        /**
+         * recompute materialized column of matched rows (all rows if <code>where</code> is null), e.g. after save of related records.
+         *
+         * @return count of updated rows
+         */
+        public long refresh(SQLQueryFactory queryFactory, RelationalPath<?> entity, Predicate where) {
+            if (null == column) {
+                throw new IllegalStateException("formula not materialized");
+            }
+            SQLUpdateClause update = queryFactory.update(entity).set(column, this.getExpression());
+            if (null != where) {
+                update.where(where);
+            }
+            return update.execute();
+        }
+
+        public Class<T> getType() {
+            return type;
+        }
+
+        public Path<T> getColumn() {
+            return column;
+        }
+    }
+}
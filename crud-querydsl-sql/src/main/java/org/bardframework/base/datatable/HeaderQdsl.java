@@ -3,7 +3,8 @@ package org.bardframework.base.datatable;
 import com.querydsl.core.types.dsl.ComparableExpression;
 import com.querydsl.core.types.dsl.SimpleExpression;
 import com.querydsl.core.types.dsl.StringPath;
-import org.bardframework.base.UtilityMethods;
+
+import java.util.List;
 
 import static org.bardframework.base.datatable.FilteringType.NONE;
 import static org.bardframework.base.datatable.FilteringType.*;
@@ -15,9 +16,11 @@ import static org.bardframework.base.datatable.QueryType.*;
 public class HeaderQdsl extends HeaderAbstract {
 
     private SimpleExpression<?> queryPath;
-    private DataLimitationChecker checker;
+    private DataLimitationChecker<?> checker;
+    private FormulaQueryRegistry.Formula<?> formula;
 
     public void setQueryPath(Class<?> mainClazz, Class<?> valueType, String fieldName, String tableName, SimpleExpression<?> queryPath) {
+        this.formula = null;
         if (this.queryType == QueryType.NONE) {
             if (this.filterType != NONE) {
                 LOGGER.error("invalid HeaderAbstract definition on '{}'@'{}', when query type is {}, filtering type must be {}", path, mainClazz.getSimpleName(), QueryType.NONE, NONE);
@@ -27,9 +30,24 @@ public class HeaderQdsl extends HeaderAbstract {
         } else if (this.queryType == DB_COLUMN || this.queryType == HIERARCHY) {
             this.queryPath = queryPath;
         } else if (this.queryType == FORMULA) {
-            if (null == FormulaQueryResolver.getQuery(tableName, fieldName)) {
-                LOGGER.error("'{}' in '{}' annotated with @HeaderAbstract with '{}' query type, but queryResolver not set.", path, mainClazz, FORMULA);
-                throw new IllegalArgumentException("filed that annotated with @HeaderAbstract with  'FORMULA' query type must set queryResolver.");
+            FormulaQueryRegistry.Formula<?> formula = FormulaQueryRegistry.get(tableName, fieldName);
+            if (null == formula) {
+                LOGGER.error("'{}' in '{}' annotated with @HeaderAbstract with '{}' query type, but no formula registered.", path, mainClazz, FORMULA);
+                throw new IllegalArgumentException("filed that annotated with @HeaderAbstract with  'FORMULA' query type must register formula in FormulaQueryRegistry.");
+            }
+            /*
+              selected values of enums that define their own restriction, filtered by restriction of enum instead of formula value
+             */
+            if (valueType.isEnum() && DataLimitation.class.isAssignableFrom(valueType)) {
+                this.checker = new DataLimitationChecker(valueType);
+            }
+            this.formula = formula;
+            this.queryPath = formula.getQueryPath();
+            /*
+              materialized formula is a plain column, no restriction on filtering and sorting
+             */
+            if (formula.isMaterialized()) {
+                return;
             }
             if (!(this.filterType == MULTI_SELECT || this.filterType == SINGLE_SELECT)) {
                 LOGGER.error("when choose query type as '{}', only '{}' and '{}' are valid for filtering type.", FORMULA, MULTI_SELECT, SINGLE_SELECT);
@@ -39,16 +57,20 @@ public class HeaderQdsl extends HeaderAbstract {
                 LOGGER.error("'{}' in '{}' annotated with @HeaderAbstract with '{}' type, can't be searchable, sortable", path, mainClazz, FORMULA);
                 throw new IllegalArgumentException("filed annotated with @HeaderAbstract with 'ENUM' type, can't be searchable or sortable");
             }
-            this.checker = new DataLimitationChecker(valueType);
-            this.queryPath = null;
         }
     }
 
     public void init(Class<?> mainClazz, Class<?> valueType, String fieldName, String tableName, SimpleExpression<?> queryPath) {
-        this.validate(mainClazz);
-        this.determineConverters(valueType);
-        this.setQueryPath(mainClazz, valueType, fieldName, tableName, queryPath);
-        this.messageKeys = UtilityMethods.toMessageKeys(mainClazz.getSimpleName() + "." + path);
+        super.init(mainClazz, valueType, fieldName, tableName, (Object) queryPath);
+    }
+
+    @Override
+    protected void bind(Class<?> mainClazz, Class<?> valueType, String fieldName, String tableName, Object queryPath, List<String> messageKeys) {
+        if (null != queryPath && !(queryPath instanceof SimpleExpression)) {
+            throw new IllegalArgumentException("query path of '" + path + "'@'" + mainClazz.getSimpleName() + "' is not a simple expression: " + queryPath);
+        }
+        super.bind(mainClazz, valueType, fieldName, tableName, queryPath, messageKeys);
+        this.setQueryPath(mainClazz, valueType, fieldName, tableName, (SimpleExpression<?>) queryPath);
     }
 
     public <T extends Comparable> ComparableExpression<T> getMinMaxPath() {
@@ -63,7 +85,14 @@ public class HeaderQdsl extends HeaderAbstract {
         return (StringPath) queryPath;
     }
 
-    public DataLimitationChecker getChecker() {
+    public DataLimitationChecker<?> getChecker() {
         return checker;
     }
+
+    /**
+     * @return formula of <code>FORMULA</code> header, null for other query types
+     */
+    public FormulaQueryRegistry.Formula<?> getFormula() {
+        return formula;
+    }
 }
@@ -0,0 +1,76 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPath;
+import org.bardframework.commons.utils.AssertionUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * resolve columns from query dsl generated entities.
+ * column index of each table built on first lookup of that table, from {@link RelationalPath#getColumns()};
+ * columns can be found by property name of generated path or by column name (case insensitive).
+ */
+public class RelationalPathColumnResolver implements DataTableColumnResolver {
+
+    private final Map<Class<?>, RelationalPath<?>> classMap = new ConcurrentHashMap<>();
+    private final Map<String, RelationalPath<?>> tableMap = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Path<?>>> columnIndex = new ConcurrentHashMap<>();
+
+    public RelationalPathColumnResolver() {
+    }
+
+    /**
+     * register entities that their bean type is generated model class (e.g. <code>RelationalPathBase&lt;User&gt;</code>)
+     */
+    public RelationalPathColumnResolver(Collection<? extends RelationalPath<?>> entities) {
+        entities.forEach(entity -> this.register(entity.getType(), entity));
+    }
+
+    /**
+     * @param clazz model class that its fields mapped to columns of entity
+     */
+    public RelationalPathColumnResolver register(Class<?> clazz, RelationalPath<?> entity) {
+        AssertionUtils.notNull(clazz, "null class not acceptable");
+        AssertionUtils.notNull(entity, "null entity not acceptable");
+        classMap.put(clazz, entity);
+        tableMap.putIfAbsent(entity.getTableName(), entity);
+        return this;
+    }
+
+    @Override
+    public String getTableName(Class<?> clazz) {
+        RelationalPath<?> entity = classMap.get(clazz);
+        return null == entity ? null : entity.getTableName();
+    }
+
+    @Override
+    public Path<?> getColumn(String tableName, String fieldName) {
+        Map<String, Path<?>> columns = columnIndex.get(tableName);
+        if (null == columns) {
+            RelationalPath<?> entity = tableMap.get(tableName);
+            if (null == entity) {
+                return null;
+            }
+            columns = columnIndex.computeIfAbsent(tableName, key -> this.index(entity));
+        }
+        Path<?> column = columns.get(fieldName);
+        return null == column ? columns.get(fieldName.toLowerCase()) : column;
+    }
+
+    private Map<String, Path<?>> index(RelationalPath<?> entity) {
+        Map<String, Path<?>> columns = new HashMap<>();
+        for (Path<?> column : entity.getColumns()) {
+            columns.put(column.getMetadata().getName(), column);
+            ColumnMetadata metadata = entity.getMetadata(column);
+            if (null != metadata) {
+                columns.putIfAbsent(metadata.getName().toLowerCase(), column);
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,75 @@
+package org.bardframework.base.exportable;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.sql.SQLQuery;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.datatable.HeaderAbstract;
+import org.bardframework.base.datatable.HeaderQdsl;
+import org.bardframework.base.utils.FetchSizeListener;
+import org.bardframework.commons.utils.AssertionUtils;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public interface ExportableEntityRepositoryQdslSql<C extends BaseCriteria<I>, I extends Serializable, U> extends ExportableEntityRepository<C, I, U> {
+
+    SQLQuery<?> prepareQuery(C criteria, U user);
+
+    /**
+     * only headers bound to a query path can be exported, values selected directly from columns (no model instantiation)
+     * and written to <code>writer</code> while iterating result set.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    default long export(C criteria, List<HeaderAbstract> headers, ExportWriter writer, U user) throws IOException {
+        AssertionUtils.notNull(criteria, "null criteria not acceptable");
+        AssertionUtils.notEmpty(headers, "null or empty headers not acceptable");
+        Expression<?>[] paths = new Expression<?>[headers.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            HeaderAbstract header = headers.get(i);
+            if (!(header instanceof HeaderQdsl) || null == ((HeaderQdsl) header).getQueryPath()) {
+                throw new IllegalArgumentException("header '" + header.getPath() + "' not bound to query path, can't export it.");
+            }
+            paths[i] = ((HeaderQdsl) header).getQueryPath();
+        }
+        SQLQuery<Tuple> query = this.prepareQuery(criteria, user).select(paths);
+        query.addListener(new FetchSizeListener(this.getExportFetchSize()));
+        List<Object> row = new ArrayList<>(paths.length);
+        long count = 0;
+        try (CloseableIterator<Tuple> iterator = query.iterate()) {
+            while (iterator.hasNext()) {
+                Tuple tuple = iterator.next();
+                row.clear();
+                for (int i = 0; i < paths.length; i++) {
+                    row.add(this.toExportValue(headers.get(i), tuple.get(i, Object.class)));
+                }
+                writer.writeRow(row);
+                if (++count % this.getExportFetchSize() == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    default Object toExportValue(HeaderAbstract header, Object value) {
+        if (null == value || null == header.getOutputConverter()) {
+            return value;
+        }
+        return ((Converter<Object, Object>) header.getOutputConverter()).convert(value);
+    }
+
+    /**
+     * @return count of rows fetched from database in each round trip, also used as flush interval of output.
+     */
+    default int getExportFetchSize() {
+        return 500;
+    }
+}
@@ -0,0 +1,118 @@
+package org.bardframework.base.partitionable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bounded hand-off of rows from partition workers to consumer of stream, so a partition is never held in memory as a whole:
+ * workers block when consumer is slower than database.
+ */
+class PartitionBuffer<T> implements Iterator<T> {
+
+    static final int DEFAULT_CAPACITY = 1000;
+
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final Runnable onFailure;
+    private volatile boolean closed;
+    private int producers;
+    private Object next;
+
+    /**
+     * @param producers count of workers that write to this buffer, iteration ends when all of them finished
+     * @param onFailure called on consumer thread when a worker failed (e.g. to cancel other workers)
+     */
+    PartitionBuffer(int capacity, int producers, Runnable onFailure) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.producers = producers;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * @return false if consumer closed buffer, so worker should stop
+     */
+    boolean put(T row) throws InterruptedException {
+        return this.offer(row);
+    }
+
+    /**
+     * called by each worker once, after its last row
+     */
+    void finish() throws InterruptedException {
+        this.offer(END);
+    }
+
+    /**
+     * called by a worker instead of {@link #finish()} when it failed
+     */
+    void fail(Throwable cause) throws InterruptedException {
+        this.offer(new Failure(cause));
+    }
+
+    /**
+     * called when consumer closed stream, blocked workers released
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    /**
+     * never blocks a worker after close, even if its interruption was swallowed (e.g. by jdbc driver)
+     */
+    private boolean offer(Object item) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (null == next && producers > 0) {
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onFailure.run();
+                throw new IllegalStateException("interrupted while waiting for partition", e);
+            }
+            if (item == END) {
+                producers--;
+            } else if (item instanceof Failure) {
+                producers = 0;
+                onFailure.run();
+                throw new IllegalStateException("fetching partition failed", ((Failure) item).cause);
+            } else {
+                next = item;
+            }
+        }
+        return null != next;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T row = (T) next;
+        next = null;
+        return row;
+    }
+
+    private static class Failure {
+        private final Throwable cause;
+
+        private Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.bardframework.base.partitionable;
+
+import com.google.common.collect.Iterators;
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.QBean;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.sql.SQLQuery;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.bardframework.commons.utils.AssertionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * parallel scan of numeric identifier entities.
+ * each partition iterated in a separate read only transaction on {@link #getPartitionExecutor()}, so use a bounded executor
+ * that its size not exceed connection pool size.
+ */
+public interface PartitionableEntityRepositoryQdslSql<M extends BaseModelAbstract<I>, C extends BaseCriteria<I>, I extends Number & Comparable<I>, U> extends PartitionableEntityRepository<M, C, I, U> {
+
+    SQLQuery<?> prepareQuery(C criteria, U user);
+
+    QBean<M> getQBean();
+
+    <T extends SimpleExpression<I>> T getIdentifierPath();
+
+    Executor getPartitionExecutor();
+
+    PlatformTransactionManager getTransactionManager();
+
+    @Override
+    default Stream<M> getParallel(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, U user) {
+        return this.scan(criteria, strategy, partitions, ordered, this.getQBean(), M::getId, user);
+    }
+
+    @Override
+    default Stream<I> getIdsParallel(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, U user) {
+        return this.scan(criteria, strategy, partitions, ordered, this.getIdentifierPath(), Function.identity(), user);
+    }
+
+    /**
+     * each partition iterated (not fetched as a whole) by its worker into a bounded buffer, consumer reads from buffers.
+     * closing the stream cancels workers that are still running.
+     * ordered scan of {@link PartitionStrategy#HASH} merges heads of all partitions, so executor must run all of them at once.
+     */
+    default <T> Stream<T> scan(C criteria, PartitionStrategy strategy, int partitions, boolean ordered, Expression<T> projection, Function<T, I> idExtractor, U user) {
+        AssertionUtils.notNull(criteria, "Given criteria cannot be null");
+        AssertionUtils.notNull(strategy, "null partition strategy not acceptable");
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be greater than 0");
+        }
+        if (ordered && strategy == PartitionStrategy.HASH && this.getPartitionExecutor() instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) this.getPartitionExecutor();
+            int threads = pool.getQueue().remainingCapacity() == 0 ? pool.getMaximumPoolSize() : pool.getCorePoolSize();
+            if (threads < partitions) {
+                throw new IllegalArgumentException("ordered hash scan needs a thread per partition, but executor has " + threads + " thread(s) for " + partitions + " partitions");
+            }
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.getTransactionManager());
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<Predicate> predicates = transactionTemplate.execute(status -> this.getPartitionPredicates(criteria, strategy, partitions, user));
+        if (predicates.isEmpty()) {
+            return Stream.empty();
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        List<PartitionBuffer<T>> buffers = new ArrayList<>();
+        Runnable cancel = () -> {
+            buffers.forEach(PartitionBuffer::close);
+            futures.forEach(future -> future.cancel(true));
+        };
+        PartitionBuffer<T> sharedBuffer = ordered ? null : new PartitionBuffer<>(PartitionBuffer.DEFAULT_CAPACITY, predicates.size(), cancel);
+        for (Predicate predicate : predicates) {
+            PartitionBuffer<T> buffer = ordered ? new PartitionBuffer<>(PartitionBuffer.DEFAULT_CAPACITY, 1, cancel) : sharedBuffer;
+            buffers.add(buffer);
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                try {
+                    transactionTemplate.execute(status -> {
+                        SQLQuery<?> query = this.prepareQuery(criteria, user).where(predicate);
+                        if (ordered) {
+                            query.getMetadata().clearOrderBy();
+                            query.orderBy(this.getIdentifierPath().asc());
+                        }
+                        try (CloseableIterator<T> rows = query.select(projection).iterate()) {
+                            while (rows.hasNext()) {
+                                if (!buffer.put(rows.next())) {
+                                    break;
+                                }
+                            }
+                        } catch (InterruptedException e) {
+                            /*
+                              cancelled, consumer not waiting for rest of rows
+                             */
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    });
+                    if (!Thread.currentThread().isInterrupted()) {
+                        buffer.finish();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    buffer.fail(e);
+                }
+                return null;
+            });
+            futures.add(task);
+            this.getPartitionExecutor().execute(task);
+        }
+        Iterator<T> iterator;
+        if (!ordered) {
+            iterator = sharedBuffer;
+        } else if (strategy == PartitionStrategy.ID_RANGE) {
+            iterator = Iterators.concat(buffers.iterator());
+        } else {
+            iterator = Iterators.mergeSorted(buffers, Comparator.comparing(idExtractor));
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL), false).onClose(cancel);
+    }
+
+    /**
+     * @return one predicate per partition, empty list if no data match with criteria
+     */
+    default List<Predicate> getPartitionPredicates(C criteria, PartitionStrategy strategy, int partitions, U user) {
+        NumberExpression<I> idPath = Expressions.asNumber(this.getIdentifierPath());
+        List<Predicate> predicates = new ArrayList<>();
+        if (strategy == PartitionStrategy.HASH) {
+            for (long i = 0; i < partitions; i++) {
+                predicates.add(Expressions.numberOperation(Long.class, Ops.MOD, idPath.abs(), Expressions.constant((long) partitions)).eq(i));
+            }
+            return predicates;
+        }
+        Tuple bounds = this.prepareQuery(criteria, user).select(idPath.min(), idPath.max()).fetchFirst();
+        if (null == bounds || null == bounds.get(0, Number.class)) {
+            return predicates;
+        }
+        return PartitionableEntityRepositoryQdslSql.getRangePredicates(idPath, bounds.get(0, Number.class).longValue(), bounds.get(1, Number.class).longValue(), partitions);
+    }
+
+    /**
+     * @return exactly <code>partitions</code> ranges of same size that cover <code>min</code> to <code>max</code>, last one open ended.
+     * ranges after <code>max</code> (more partitions than identifiers) match nothing.
+     */
+    static List<Predicate> getRangePredicates(NumberExpression<?> idPath, long min, long max, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be greater than 0");
+        }
+        /*
+          max - min may overflow long, range computed on big integers
+         */
+        BigInteger count = BigInteger.valueOf(partitions);
+        BigInteger lower = BigInteger.valueOf(min);
+        BigInteger span = BigInteger.valueOf(max).subtract(lower).add(BigInteger.ONE);
+        BigInteger step = span.add(count).subtract(BigInteger.ONE).divide(count);
+        BigInteger upperBound = BigInteger.valueOf(max);
+        List<Predicate> predicates = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            BigInteger start = lower.add(step.multiply(BigInteger.valueOf(i)));
+            BigInteger end = start.add(step);
+            if (start.compareTo(upperBound) > 0) {
+                predicates.add(Expressions.FALSE.isTrue());
+            } else if (i == partitions - 1 || end.compareTo(upperBound) > 0) {
+                predicates.add(idPath.goe(start.longValue()));
+            } else {
+                predicates.add(idPath.goe(start.longValue()).and(idPath.lt(end.longValue())));
+            }
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,55 @@
+package org.bardframework.base.restrictable;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.sql.SQLQuery;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.RepositoryListener;
+import org.bardframework.base.crud.RepositoryListenerQdslSql;
+
+import java.io.Serializable;
+
+/**
+ * row level restriction of repository queries, applied in <code>prepareQuery</code> of every read.
+ * restriction of each user compiled once to a predicate (may need queries, e.g. to read permissions) and cached,
+ * instead of computing it in <code>setCriteria</code> per request.
+ * predicate must be built only from query dsl expressions (no dialect specific query type), so it runs on any database.
+ */
+@RepositoryListener(RestrictableEntityRepositoryQdslSql.RestrictionListener.class)
+public interface RestrictableEntityRepositoryQdslSql<C extends BaseCriteria<I>, I extends Serializable, U> {
+
+    /**
+     * @return restriction of user, null if user can see all rows
+     */
+    Predicate compileRestriction(U user);
+
+    /**
+     * @return key that restrictions of user cached by, users with same permissions can share same key
+     */
+    Object getRestrictionKey(U user);
+
+    /**
+     * cache created once per repository class
+     */
+    default RestrictionCache getRestrictionCache() {
+        return RestrictionCache.get(this.getClass());
+    }
+
+    default <T> SQLQuery<T> applyRestriction(SQLQuery<T> query, U user) {
+        Predicate restriction = this.getRestrictionCache().getPredicate(this.getRestrictionKey(user), () -> this.compileRestriction(user));
+        if (null != restriction) {
+            query.where(restriction);
+        }
+        return query;
+    }
+
+    /**
+     * restriction applied to every query, even when caller applies filters of criteria itself
+     */
+    class RestrictionListener<C extends BaseCriteria<I>, I extends Serializable, U> implements RepositoryListenerQdslSql<RestrictableEntityRepositoryQdslSql<C, I, U>, Object, C, I, U> {
+
+        @Override
+        public void onQuery(RestrictableEntityRepositoryQdslSql<C, I, U> repository, C criteria, SQLQuery<?> query, U user, boolean filters) {
+            repository.applyRestriction(query, user);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.bardframework.base.restrictable;
+
+import com.querydsl.core.types.Predicate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * compiled row restriction predicates of users for one repository. predicates are immutable and shared by all queries of user,
+ * entries expire after <code>ttlMillis</code> as a safety net, but permission changes must be reported by
+ * {@link #invalidateUser(Object)} (or {@link RestrictionsChanged} event). least recently used users evicted when cache is full.
+ */
+public class RestrictionCache {
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    public static final int DEFAULT_MAX_USERS = 10_000;
+
+    private static final Map<Object, RestrictionCache> CACHES = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final Map<Object, Entry> entries;
+    /**
+     * incremented on each invalidation, predicates compiled before it not cached
+     */
+    private long generation;
+
+    public RestrictionCache(long ttlMillis, int maxUsers) {
+        if (ttlMillis < 1 || maxUsers < 1) {
+            throw new IllegalArgumentException("ttl and max users must be greater than 0");
+        }
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * @param key key of repository (e.g. repository class), cache created on first call for each key
+     */
+    public static RestrictionCache get(Object key) {
+        return CACHES.computeIfAbsent(key, k -> new RestrictionCache(DEFAULT_TTL_MILLIS, DEFAULT_MAX_USERS));
+    }
+
+    /**
+     * drop restrictions of user in all repositories
+     */
+    public static void invalidateUser(Object userKey) {
+        CACHES.values().forEach(cache -> cache.invalidate(userKey));
+    }
+
+    public static void invalidateAllUsers() {
+        CACHES.values().forEach(RestrictionCache::invalidateAll);
+    }
+
+    /**
+     * predicate compiled out of lock (it may run queries); if restrictions invalidated meanwhile, compiled predicate
+     * used by this call only and not cached, so a stale restriction never outlives its invalidation.
+     *
+     * @param compiler computes predicate of user, may return null if user is not restricted
+     * @return cached predicate of user, null if user is not restricted
+     */
+    public Predicate getPredicate(Object userKey, Supplier<Predicate> compiler) {
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(userKey);
+            if (null != entry && entry.expireAt > System.currentTimeMillis()) {
+                return entry.predicate;
+            }
+            generation = this.generation;
+        }
+        Predicate predicate = compiler.get();
+        synchronized (this) {
+            if (this.generation == generation) {
+                entries.put(userKey, new Entry(predicate, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return predicate;
+    }
+
+    public synchronized void invalidate(Object userKey) {
+        generation++;
+        entries.remove(userKey);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    private static class Entry {
+        private final Predicate predicate;
+        private final long expireAt;
+
+        private Entry(Predicate predicate, long expireAt) {
+            this.predicate = predicate;
+            this.expireAt = expireAt;
+        }
+    }
+}
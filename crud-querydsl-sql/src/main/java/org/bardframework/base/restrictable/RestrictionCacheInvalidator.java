@@ -0,0 +1,17 @@
+package org.bardframework.base.restrictable;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RestrictionCacheInvalidator {
+
+    @EventListener
+    public void onRestrictionsChanged(RestrictionsChanged event) {
+        if (null == event.getUserKey()) {
+            RestrictionCache.invalidateAllUsers();
+        } else {
+            RestrictionCache.invalidateUser(event.getUserKey());
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package org.bardframework.base.searchable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * in memory inverted index from n-grams of (normalized) search texts to identifiers of rows.
+ * index only narrows rows: result of {@link #search(String)} is a superset of rows that contain query, caller still filters them.
+ * built once in background, then kept up to date by {@link #put(Object, Collection)} and {@link #remove(Object)};
+ * if estimated size exceeds memory budget, index dropped and {@link #search(String)} returns null (caller scans table).
+ * searches share a read lock, so they run concurrently and only wait for changes.
+ */
+public class NGramSearchIndex<I> {
+
+    public static final int DEFAULT_GRAM_LENGTH = 3;
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NGramSearchIndex.class);
+    private static final Map<Object, NGramSearchIndex<?>> INDEXES = new ConcurrentHashMap<>();
+    private static final ExecutorService BUILDER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * rough sizes of hash map entries, keys and posting sets on a 64 bit jvm
+     */
+    private static final int ENTRY_BYTES = 48;
+    private static final int GRAM_BYTES = 56 + ENTRY_BYTES + 64;
+    private static final int DOCUMENT_BYTES = ENTRY_BYTES + 64;
+    private static final long RETRY_BUILD_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final int gramLength;
+    private final long memoryBudgetBytes;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Set<I>> postings = new HashMap<>();
+    private Map<I, Set<String>> documents = new HashMap<>();
+    private long estimatedBytes;
+    private boolean ready;
+    private boolean overBudget;
+    private long buildFailedAt;
+    /**
+     * changes made while index is building, applied on built index so they are not lost
+     */
+    private List<Consumer<NGramSearchIndex<I>>> changedDuringBuild;
+
+    public NGramSearchIndex(int gramLength, long memoryBudgetBytes) {
+        if (gramLength < 1) {
+            throw new IllegalArgumentException("gram length must be greater than 0");
+        }
+        if (memoryBudgetBytes < 1) {
+            throw new IllegalArgumentException("memory budget must be greater than 0");
+        }
+        this.gramLength = gramLength;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * @param key key of table (e.g. repository class), index created on first call for each key
+     */
+    @SuppressWarnings("unchecked")
+    public static <I> NGramSearchIndex<I> get(Object key, int gramLength, long memoryBudgetBytes) {
+        return (NGramSearchIndex<I>) INDEXES.computeIfAbsent(key, k -> new NGramSearchIndex<>(gramLength, memoryBudgetBytes));
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if index is ready or building, so changes must be reported to it
+     */
+    public boolean isMaintained() {
+        lock.readLock().lock();
+        try {
+            return ready || null != changedDuringBuild;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if index is not ready and can be built: not building, not exceeded memory budget and last build not failed recently
+     */
+    public boolean isBuildRequired() {
+        lock.readLock().lock();
+        try {
+            return !ready && !overBudget && null == changedDuringBuild && System.currentTimeMillis() - buildFailedAt > RETRY_BUILD_AFTER_MILLIS;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getEstimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return estimatedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getGramLength() {
+        return gramLength;
+    }
+
+    /**
+     * build index in background (only one build at a time), search falls back to table scan until index is ready.
+     *
+     * @param loader feeds all rows (identifier and search texts) to given consumer
+     */
+    public void buildAsync(Consumer<DocumentConsumer<I>> loader) {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        BUILDER.execute(() -> {
+            try {
+                this.build(loader);
+            } catch (RuntimeException e) {
+                LOGGER.error("building search index failed, search continues without index.", e);
+                lock.writeLock().lock();
+                try {
+                    changedDuringBuild = null;
+                    buildFailedAt = System.currentTimeMillis();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                building.set(false);
+            }
+        });
+    }
+
+    private void build(Consumer<DocumentConsumer<I>> loader) {
+        NGramSearchIndex<I> built = new NGramSearchIndex<>(gramLength, memoryBudgetBytes);
+        loader.accept((id, texts) -> {
+            if (!built.overBudget) {
+                built.doPut(id, texts);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            if (built.overBudget) {
+                LOGGER.warn("search index exceeds memory budget of {} bytes, search continues without index.", memoryBudgetBytes);
+                changedDuringBuild = null;
+                this.drop();
+                return;
+            }
+            postings = built.postings;
+            documents = built.documents;
+            estimatedBytes = built.estimatedBytes;
+            overBudget = false;
+            for (Consumer<NGramSearchIndex<I>> change : changedDuringBuild) {
+                change.accept(this);
+            }
+            changedDuringBuild = null;
+            ready = !overBudget;
+            LOGGER.info("search index built, {} rows, {} grams, about {} bytes.", documents.size(), postings.size(), estimatedBytes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * add or replace texts of a row
+     */
+    public void put(I id, Collection<String> texts) {
+        lock.writeLock().lock();
+        try {
+            if (null != changedDuringBuild) {
+                changedDuringBuild.add(index -> index.doPut(id, texts));
+            }
+            if (ready) {
+                this.doPut(id, texts);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(I id) {
+        lock.writeLock().lock();
+        try {
+            if (null != changedDuringBuild) {
+                changedDuringBuild.add(index -> index.doRemove(id));
+            }
+            if (ready) {
+                this.doRemove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return identifiers of rows that contain all grams of query, null if index can't answer query
+     * (not ready, or query shorter than gram length)
+     */
+    public Set<I> search(String query) {
+        if (null == query) {
+            return null;
+        }
+        Set<String> grams = this.toGrams(SearchTextNormalizer.normalize(query));
+        if (grams.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return null;
+            }
+            List<Set<I>> candidates = new ArrayList<>();
+            for (String gram : grams) {
+                Set<I> ids = postings.get(gram);
+                if (null == ids) {
+                    return Collections.emptySet();
+                }
+                candidates.add(ids);
+            }
+            candidates.sort(Comparator.comparingInt(Set::size));
+            /*
+              only rows of smallest posting set that are in all other sets copied, not the whole set
+             */
+            Set<I> result = new HashSet<>();
+            for (I id : candidates.get(0)) {
+                if (this.containsAll(candidates, id)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean containsAll(List<Set<I>> candidates, I id) {
+        for (int i = 1; i < candidates.size(); i++) {
+            if (!candidates.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void doPut(I id, Collection<String> texts) {
+        this.doRemove(id);
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            if (null != text) {
+                grams.addAll(this.toGrams(SearchTextNormalizer.normalize(text)));
+            }
+        }
+        if (grams.isEmpty()) {
+            return;
+        }
+        for (String gram : grams) {
+            Set<I> ids = postings.get(gram);
+            if (null == ids) {
+                ids = new HashSet<>();
+                postings.put(gram, ids);
+                estimatedBytes += GRAM_BYTES + 2L * gram.length();
+            }
+            ids.add(id);
+        }
+        documents.put(id, grams);
+        estimatedBytes += DOCUMENT_BYTES + (long) ENTRY_BYTES * grams.size() * 2;
+        if (estimatedBytes > memoryBudgetBytes) {
+            if (ready) {
+                LOGGER.warn("search index exceeds memory budget of {} bytes, search continues without index.", memoryBudgetBytes);
+            }
+            this.drop();
+        }
+    }
+
+    private void doRemove(I id) {
+        Set<String> grams = documents.remove(id);
+        if (null == grams) {
+            return;
+        }
+        for (String gram : grams) {
+            Set<I> ids = postings.get(gram);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+                estimatedBytes -= GRAM_BYTES + 2L * gram.length();
+            }
+        }
+        estimatedBytes -= DOCUMENT_BYTES + (long) ENTRY_BYTES * grams.size() * 2;
+    }
+
+    private void drop() {
+        postings = new HashMap<>();
+        documents = new HashMap<>();
+        estimatedBytes = 0;
+        ready = false;
+        overBudget = true;
+    }
+
+    private Set<String> toGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + gramLength <= text.length(); i++) {
+            grams.add(text.substring(i, i + gramLength));
+        }
+        return grams;
+    }
+
+    @FunctionalInterface
+    public interface DocumentConsumer<I> {
+        void accept(I id, Collection<String> texts);
+    }
+}
@@ -0,0 +1,19 @@
+package org.bardframework.base.searchable;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * start building search indexes at startup, so first searches not wait for (or scan instead of) index.
+ */
+@Component
+public class SearchIndexInitializer {
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        for (SearchableEntityRepositoryQdslSql<?, ?, ?, ?> repository : event.getApplicationContext().getBeansOfType(SearchableEntityRepositoryQdslSql.class).values()) {
+            repository.getSearchIndex();
+        }
+    }
+}
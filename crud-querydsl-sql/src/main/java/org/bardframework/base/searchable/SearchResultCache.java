@@ -0,0 +1,156 @@
+package org.bardframework.base.searchable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * results of type-ahead searches keyed by scope (user and other conditions of criteria) and query.
+ * results of longer queries are subset of results of their prefixes, so if result of a prefix was complete
+ * (all matched rows fetched), result of query computed by filtering it in memory.
+ * a result limited by page size only served for requests of same or smaller size.
+ * entries expire after <code>ttlMillis</code>, and all entries of a table dropped on its writes.
+ */
+public class SearchResultCache<M> {
+
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final Map<Object, SearchResultCache<?>> CACHES = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final Map<Key, Entry<M>> entries;
+    /**
+     * incremented on each invalidation, results loaded before it not cached
+     */
+    private long generation;
+
+    public SearchResultCache(long ttlMillis, int maxEntries) {
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("ttl must be greater than 0");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("max entries must be greater than 0");
+        }
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Key, Entry<M>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<M>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key key of table (e.g. repository class), cache created on first call for each key
+     */
+    @SuppressWarnings("unchecked")
+    public static <M> SearchResultCache<M> get(Object key) {
+        return (SearchResultCache<M>) CACHES.computeIfAbsent(key, k -> new SearchResultCache<>(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES));
+    }
+
+    /**
+     * @param size    requested count of rows
+     * @param matcher matches a row of result against <code>query</code>, used to narrow result of a prefix, null if query can't be matched in memory
+     * @return result of query (may be more than <code>size</code> rows), null if not cached with enough rows and can't be computed from result of a prefix
+     */
+    public synchronized List<M> get(Object scope, String query, long size, Predicate<M> matcher) {
+        Entry<M> entry = this.getAlive(new Key(scope, query));
+        if (null != entry && (entry.complete || entry.models.size() >= size)) {
+            return entry.models;
+        }
+        if (null == matcher) {
+            return null;
+        }
+        for (int length = query.length() - 1; length > 0; length--) {
+            Entry<M> prefixEntry = this.getAlive(new Key(scope, query.substring(0, length)));
+            if (null != prefixEntry && prefixEntry.complete) {
+                List<M> narrowed = new ArrayList<>();
+                for (M model : prefixEntry.models) {
+                    if (matcher.test(model)) {
+                        narrowed.add(model);
+                    }
+                }
+                /*
+                  expires with its prefix, it's not fresher than it
+                 */
+                List<M> result = Collections.unmodifiableList(narrowed);
+                entries.put(new Key(scope, query), new Entry<>(result, true, prefixEntry.loadedAt));
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return generation to pass to {@link #put(Object, String, List, boolean, long)}, read before loading result
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @param complete true if all matched rows are in result (not limited by page size)
+     * @param generation generation read before result loaded, result not cached if cache invalidated meanwhile
+     */
+    public synchronized void put(Object scope, String query, List<M> models, boolean complete, long generation) {
+        if (this.generation != generation) {
+            return;
+        }
+        entries.put(new Key(scope, query), new Entry<>(Collections.unmodifiableList(new ArrayList<>(models)), complete, System.currentTimeMillis()));
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        entries.clear();
+    }
+
+    private Entry<M> getAlive(Key key) {
+        Entry<M> entry = entries.get(key);
+        if (null != entry && System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static class Key {
+        private final Object scope;
+        private final String query;
+
+        private Key(Object scope, String query) {
+            this.scope = scope;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(scope, key.scope) && query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, query);
+        }
+    }
+
+    private static class Entry<M> {
+        private final List<M> models;
+        private final boolean complete;
+        private final long loadedAt;
+
+        private Entry(List<M> models, boolean complete, long loadedAt) {
+            this.models = models;
+            this.complete = complete;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
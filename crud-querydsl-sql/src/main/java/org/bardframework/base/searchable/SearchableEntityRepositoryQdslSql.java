@@ -1,22 +1,38 @@
 package org.bardframework.base.searchable;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Ops;
 import com.querydsl.core.types.Path;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringExpression;
 import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.RelationalPath;
 import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
 import org.bardframework.base.crud.BaseCriteria;
 import org.bardframework.base.crud.BaseModelAbstract;
 import org.bardframework.base.crud.ReadExtendedRepositoryQdslSql;
+import org.bardframework.base.crud.RepositoryListener;
+import org.bardframework.base.crud.RepositoryListenerQdslSql;
+import org.bardframework.base.utils.TransactionUtils;
 import org.bardframework.commons.reflection.ReflectionUtils;
 import org.bardframework.commons.utils.StringUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+@RepositoryListener(SearchableEntityRepositoryQdslSql.SearchableListener.class)
 public interface SearchableEntityRepositoryQdslSql<M extends BaseModelAbstract<I>, C extends BaseCriteria<I> & SearchableCriteria, I extends Serializable, U> extends SearchableEntityRepository<M, C, I, U>, ReadExtendedRepositoryQdslSql<C, I, U> {
 
     StringPath[] getSearchPaths();
@@ -29,27 +45,247 @@ public interface SearchableEntityRepositoryQdslSql<M extends BaseModelAbstract<I
 
     SQLQuery<?> prepareQuery(C criteria, U user);
 
+    SQLQueryFactory getQueryFactory();
+
+    /**
+     * provided by base repository, used only when search index enabled
+     */
+    PlatformTransactionManager getTransactionManager();
+
+    C getEmptyCriteria();
+
+    /**
+     * @return table of repository, resolved from identifier path
+     */
+    default RelationalPath<?> getSearchEntity() {
+        return (RelationalPath<?>) this.getIdentifierPath().getRoot();
+    }
+
+    /**
+     * criteria classes without writable <code>query</code> property must override it
+     */
+    @Override
+    default C newSearchCriteria(String query) {
+        C criteria = this.getEmptyCriteria();
+        try {
+            PropertyAccessorFactory.forBeanPropertyAccess(criteria).setPropertyValue("query", query);
+        } catch (BeansException e) {
+            throw new IllegalStateException("can't set query of " + criteria.getClass() + ", override 'newSearchCriteria'", e);
+        }
+        return criteria;
+    }
+
+    @Override
+    default String getSearchType() {
+        return this.getEmptyModel().getClass().getSimpleName();
+    }
+
     @Transactional(readOnly = true)
     @Override
     default List<M> search(C criteria, U user) {
+        SearchResultCache<M> cache = this.isSearchCacheEnabled() ? this.getSearchResultCache() : null;
+        if (null == cache || StringUtils.hasNotText(criteria.getQuery()) || criteria.getPage() != 1) {
+            return this.searchUncached(criteria, user);
+        }
+        Object scope = this.getSearchScope(criteria, user);
+        List<M> cached = cache.get(scope, criteria.getQuery(), criteria.getSize(), this.getSearchMatcher(criteria.getQuery()));
+        if (null != cached) {
+            return new ArrayList<>(cached.size() > criteria.getSize() ? cached.subList(0, (int) criteria.getSize()) : cached);
+        }
+        long generation = cache.getGeneration();
+        List<M> models = this.searchUncached(criteria, user);
+        cache.put(scope, criteria.getQuery(), models, models.size() < criteria.getSize(), generation);
+        return models;
+    }
+
+    default List<M> searchUncached(C criteria, U user) {
         List<Path<?>> selectPaths = this.getSelectOnSearchPaths();
         selectPaths.add(this.getIdentifierPath());
         SQLQuery<Tuple> query = this.prepareQuery(criteria, user).select(selectPaths.toArray(new Path<?>[selectPaths.size()]));
         this.setPageAndSize(criteria, query, user);
         List<M> models = new ArrayList<>();
-        M model;
         for (Tuple tuple : query.fetch()) {
-            model = this.getEmptyModel();
-            for (Path<?> searchPath : selectPaths) {
-                try {
-                    ReflectionUtils.setValue(model, this.getStringPath(searchPath), tuple.get(searchPath));
-                } catch (Exception e) {
-                    throw new IllegalStateException("can't set value", e);
+            models.add(this.toSearchModel(tuple, selectPaths));
+        }
+        return models;
+    }
+
+    default M toSearchModel(Tuple tuple, List<Path<?>> selectPaths) {
+        M model = this.getEmptyModel();
+        for (Path<?> searchPath : selectPaths) {
+            try {
+                ReflectionUtils.setValue(model, this.getStringPath(searchPath), tuple.get(searchPath));
+            } catch (Exception e) {
+                throw new IllegalStateException("can't set value", e);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * matches searched tier by tier, from most relevant (exact match on heaviest path) to least relevant (substring of lightest path),
+     * each tier fetches at most <code>limit</code> not seen rows, shortest values first.
+     * scan stopped when <code>limit</code> hits found that no row of remaining tiers can beat, so substring tiers (not indexable)
+     * usually not queried.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    default List<SearchHit<M>> searchRanked(C criteria, int limit, U user) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        if (StringUtils.hasNotText(criteria.getQuery())) {
+            return new ArrayList<>();
+        }
+        String query = criteria.getQuery();
+        double[] weights = this.getSearchPathWeights();
+        if (weights.length != this.getSearchPaths().length) {
+            throw new IllegalStateException("count of search path weights must be same as count of search paths");
+        }
+        List<Path<?>> selectPaths = this.getSelectOnSearchPaths();
+        selectPaths.add(this.getIdentifierPath());
+        Path<?>[] select = selectPaths.toArray(new Path<?>[selectPaths.size()]);
+        PriorityQueue<SearchHit<M>> hits = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(SearchHit::getScore));
+        Set<Object> seen = new HashSet<>();
+        for (SearchTier tier : this.getSearchTiers(query, weights)) {
+            if (hits.size() == limit && hits.peek().getScore() >= tier.maxScore) {
+                break;
+            }
+            SQLQuery<?> tierQuery = this.prepareQuery(criteria, user);
+            tierQuery.getMetadata().clearOrderBy();
+            if (null != tier.predicate) {
+                tierQuery.where(tier.predicate);
+            }
+            if (!seen.isEmpty()) {
+                tierQuery.where(Expressions.predicate(Ops.IN, this.getIdentifierPath(), Expressions.constant(seen)).not());
+            }
+            for (Tuple tuple : tierQuery.select(select).orderBy(tier.value.length().asc()).limit(limit).fetch()) {
+                seen.add(tuple.get(this.getIdentifierPath()));
+                M model = this.toSearchModel(tuple, selectPaths);
+                double score = Math.max(tier.minScore, this.getSearchScore(model, query, weights));
+                hits.add(new SearchHit<>(model, score));
+                if (hits.size() > limit) {
+                    hits.poll();
                 }
             }
-            models.add(model);
         }
-        return models;
+        List<SearchHit<M>> result = new ArrayList<>(hits);
+        result.sort(Comparator.comparingDouble((SearchHit<M> hit) -> hit.getScore()).reversed());
+        return result;
+    }
+
+    /**
+     * tier of each match kind on each search path, most relevant first. a row of a tier scored at least by kind of tier on its path
+     * (closeness computed in memory by {@link #getSearchScore}).
+     */
+    default List<SearchTier> getSearchTiers(String query, double[] weights) {
+        StringPath[] searchPaths = this.getSearchPaths();
+        List<SearchTier> tiers = new ArrayList<>();
+        for (MatchKind kind : MatchKind.values()) {
+            for (int i = 0; i < searchPaths.length; i++) {
+                tiers.add(new SearchTier(kind.toPredicate(searchPaths[i], query), searchPaths[i], kind.getScore(weights[i], 0), kind.getScore(weights[i], 1)));
+            }
+        }
+        tiers.sort(Comparator.comparingDouble((SearchTier tier) -> tier.maxScore).reversed());
+        return tiers;
+    }
+
+    /**
+     * @return form of values and query that ranking compares, same form that <code>process</code> searches on
+     */
+    default String toMatchText(String text) {
+        return text;
+    }
+
+    /**
+     * @return weight of each search path (same order as <code>getSearchPaths()</code>) between 0 and 100, by default earlier paths are heavier
+     */
+    default double[] getSearchPathWeights() {
+        int count = this.getSearchPaths().length;
+        double[] weights = new double[count];
+        for (int i = 0; i < count; i++) {
+            weights[i] = 100.0 * (count - i) / count;
+        }
+        return weights;
+    }
+
+    /**
+     * @return best score of values of search paths of model, 0 if no value matches query
+     */
+    default double getSearchScore(M model, String query, double[] weights) {
+        List<String> texts = this.getSearchTexts(model);
+        String matchQuery = this.toMatchText(query);
+        double score = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            String text = this.toMatchText(texts.get(i));
+            MatchKind kind = MatchKind.of(matchQuery, text);
+            if (null != kind) {
+                score = Math.max(score, kind.getScore(weights[i], MatchKind.getCloseness(matchQuery, text)));
+            }
+        }
+        return score;
+    }
+
+    /**
+     * cache of type-ahead search results, disabled by default.
+     */
+    default boolean isSearchCacheEnabled() {
+        return false;
+    }
+
+    /**
+     * cache created once per repository class
+     */
+    default SearchResultCache<M> getSearchResultCache() {
+        return SearchResultCache.get(this.getClass());
+    }
+
+    /**
+     * @return every thing except query that affects search result, results cached per scope.
+     * repositories with other conditions in criteria (or restrictions not determined by user) must override it.
+     */
+    default Object getSearchScope(C criteria, U user) {
+        return Arrays.asList(user, criteria.getIds(), criteria.getExcludes());
+    }
+
+    /**
+     * default matcher is same as <code>like '%query%'</code> of <code>process</code> on a case sensitive collation,
+     * repositories on case insensitive collations (or with their own <code>process</code>) must override it.
+     *
+     * @return matcher of models (with values of search paths) that same as <code>process</code> decides they match query,
+     * null if query can't be matched in memory
+     */
+    default Predicate<M> getSearchMatcher(String query) {
+        /*
+          wildcards and escape character of like pattern not matched in memory
+         */
+        if (query.indexOf('%') >= 0 || query.indexOf('_') >= 0 || query.indexOf(' ') >= 0) {
+            return null;
+        }
+        return model -> {
+            for (String text : this.getSearchTexts(model)) {
+                if (null != text && text.contains(query)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * @return values of search paths of model
+     */
+    default List<String> getSearchTexts(M model) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(model);
+        List<String> texts = new ArrayList<>();
+        for (StringPath path : this.getSearchPaths()) {
+            try {
+                texts.add((String) wrapper.getPropertyValue(this.getStringPath(path)));
+            } catch (BeansException e) {
+                throw new IllegalStateException("can't read value of search path '" + path + "' from model", e);
+            }
+        }
+        return texts;
     }
 
     default List<Path<?>> getSelectOnSearchPaths() {
@@ -64,11 +300,22 @@ public interface SearchableEntityRepositoryQdslSql<M extends BaseModelAbstract<I
         return stringPath;
     }
 
+    /**
+     * when index can answer query, only candidate rows scanned by <code>like</code>.
+     */
     @Override
     default <T> SQLQuery<T> process(C criteria, SQLQuery<T> query, U user) {
         if (StringUtils.hasNotText(criteria.getQuery())) {
             return query;
         }
+        Set<I> candidates = this.getSearchCandidates(criteria.getQuery());
+        if (null != candidates) {
+            if (candidates.isEmpty()) {
+                query.where(Expressions.FALSE.isTrue());
+                return query;
+            }
+            query.where(Expressions.predicate(Ops.IN, this.getIdentifierPath(), Expressions.constant(candidates)));
+        }
         BooleanExpression searchExpression = this.getSearchPaths()[0].like("%" + criteria.getQuery() + "%", ' ');
         for (int i = 1; i < this.getSearchPaths().length; i++) {
             searchExpression = searchExpression.or(this.getSearchPaths()[i].like("%" + criteria.getQuery() + "%", ' '));
@@ -76,4 +323,224 @@ public interface SearchableEntityRepositoryQdslSql<M extends BaseModelAbstract<I
         query.where(searchExpression);
         return query;
     }
-}
\ No newline at end of file
+
+    /**
+     * n-gram index of search paths, disabled by default.
+     * index only usable when all search paths are columns of entity (values of joined tables change out of this repository).
+     */
+    default boolean isSearchIndexEnabled() {
+        return false;
+    }
+
+    default long getSearchIndexMemoryBudget() {
+        return NGramSearchIndex.DEFAULT_MEMORY_BUDGET_BYTES;
+    }
+
+    /**
+     * candidates more than this count make <code>in</code> clause more expensive than scan
+     */
+    default int getSearchIndexMaxCandidates() {
+        return 1000;
+    }
+
+    /**
+     * index created once per repository class, built in background on first call
+     *
+     * @return null if index is disabled
+     */
+    default NGramSearchIndex<I> getSearchIndex() {
+        if (!this.isSearchIndexEnabled()) {
+            return null;
+        }
+        NGramSearchIndex<I> index = NGramSearchIndex.get(this.getClass(), NGramSearchIndex.DEFAULT_GRAM_LENGTH, this.getSearchIndexMemoryBudget());
+        if (index.isBuildRequired()) {
+            this.buildSearchIndex(index);
+        }
+        return index;
+    }
+
+    /**
+     * @return identifiers of rows that may contain query, null if index can't answer query (caller must scan table)
+     */
+    default Set<I> getSearchCandidates(String query) {
+        /*
+          '%' and '_' are wildcards of like, and space is its escape character; such queries are not plain substrings
+         */
+        if (query.indexOf('%') >= 0 || query.indexOf('_') >= 0 || query.indexOf(' ') >= 0) {
+            return null;
+        }
+        NGramSearchIndex<I> index = this.getSearchIndex();
+        if (null == index) {
+            return null;
+        }
+        Set<I> candidates = index.search(query);
+        return null == candidates || candidates.size() > this.getSearchIndexMaxCandidates() ? null : candidates;
+    }
+
+    default void buildSearchIndex(NGramSearchIndex<I> index) {
+        for (StringPath path : this.getSearchPaths()) {
+            if (!this.getSearchEntity().equals(path.getRoot())) {
+                throw new IllegalStateException("search path '" + path + "' is not a column of " + this.getSearchEntity() + ", search index not applicable.");
+            }
+        }
+        index.buildAsync(consumer -> {
+            /*
+              index built on background thread, out of caller transaction
+             */
+            TransactionTemplate transactionTemplate = new TransactionTemplate(this.getTransactionManager());
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transactionTemplate.execute(status -> {
+                this.readSearchTexts(null, consumer);
+                return null;
+            });
+        });
+    }
+
+    /**
+     * @param ids identifiers of rows to read, all rows if null
+     */
+    default void readSearchTexts(Collection<I> ids, NGramSearchIndex.DocumentConsumer<I> consumer) {
+        StringPath[] searchPaths = this.getSearchPaths();
+        Path<?>[] select = Arrays.copyOf(searchPaths, searchPaths.length + 1, Path[].class);
+        select[searchPaths.length] = this.getIdentifierPath();
+        SQLQuery<Tuple> query = this.getQueryFactory().query().from(this.getSearchEntity()).select(select);
+        if (null != ids) {
+            query.where(Expressions.predicate(Ops.IN, this.getIdentifierPath(), Expressions.constant(ids)));
+        }
+        try (CloseableIterator<Tuple> iterator = query.iterate()) {
+            while (iterator.hasNext()) {
+                Tuple tuple = iterator.next();
+                List<String> texts = new ArrayList<>(searchPaths.length);
+                for (StringPath path : searchPaths) {
+                    texts.add(tuple.get(path));
+                }
+                consumer.accept((I) tuple.get(this.getIdentifierPath()), texts);
+            }
+        }
+    }
+
+    /**
+     * called by {@link SearchableListener} after rows saved or updated, current texts of rows read in transaction and put in index after commit.
+     */
+    default void onSearchableSave(Collection<I> ids) {
+        this.invalidateSearchResultCache();
+        NGramSearchIndex<I> index = this.getSearchIndex();
+        if (null == index || !index.isMaintained() || ids.isEmpty()) {
+            return;
+        }
+        Map<I, Collection<String>> texts = new HashMap<>();
+        this.readSearchTexts(ids, texts::put);
+        TransactionUtils.afterCommit(() -> texts.forEach(index::put));
+    }
+
+    /**
+     * called by {@link SearchableListener} after rows deleted, rows removed from index after commit.
+     */
+    default void onSearchableDelete(Collection<I> ids) {
+        this.invalidateSearchResultCache();
+        NGramSearchIndex<I> index = this.getSearchIndex();
+        if (null == index || !index.isMaintained()) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> ids.forEach(index::remove));
+    }
+
+    /**
+     * results cached by other transactions before commit of this one are invalid too, so cache dropped again after commit
+     */
+    default void invalidateSearchResultCache() {
+        if (!this.isSearchCacheEnabled()) {
+            return;
+        }
+        SearchResultCache<M> cache = this.getSearchResultCache();
+        cache.invalidate();
+        TransactionUtils.afterCommit(cache::invalidate);
+    }
+
+    /**
+     * kinds of matching a value with query, from least to most relevant.
+     * score of a match is <code>1000 * (ordinal + 1) + weight of path + closeness</code>, weight between 0 and 100 and closeness
+     * (length of query per length of value) between 0 and 1, so kind always wins over path and path over closeness.
+     */
+    enum MatchKind {
+        SUBSTRING {
+            @Override
+            BooleanExpression toPredicate(StringPath path, String query) {
+                return path.contains(query);
+            }
+        },
+        PREFIX {
+            @Override
+            BooleanExpression toPredicate(StringPath path, String query) {
+                return path.startsWith(query);
+            }
+        },
+        EXACT {
+            @Override
+            BooleanExpression toPredicate(StringPath path, String query) {
+                return path.eq(query);
+            }
+        };
+
+        abstract BooleanExpression toPredicate(StringPath path, String query);
+
+        public double getScore(double weight, double closeness) {
+            return 1000 * (this.ordinal() + 1) + weight + closeness;
+        }
+
+        /**
+         * @return most relevant kind of matching, null if value doesn't contain query
+         */
+        public static MatchKind of(String query, String value) {
+            if (null == value) {
+                return null;
+            }
+            if (value.equals(query)) {
+                return EXACT;
+            }
+            if (value.startsWith(query)) {
+                return PREFIX;
+            }
+            return value.contains(query) ? SUBSTRING : null;
+        }
+
+        public static double getCloseness(String query, String value) {
+            return null == value || value.isEmpty() ? 0 : Math.min(1.0, (double) query.length() / value.length());
+        }
+    }
+
+    /**
+     * one query of ranked search: rows matched by <code>predicate</code> (all rows of search if null) fetched shortest <code>value</code> first,
+     * scored between <code>minScore</code> and <code>maxScore</code>
+     */
+    final class SearchTier {
+        private final BooleanExpression predicate;
+        private final StringExpression value;
+        private final double minScore;
+        private final double maxScore;
+
+        public SearchTier(BooleanExpression predicate, StringExpression value, double minScore, double maxScore) {
+            this.predicate = predicate;
+            this.value = value;
+            this.minScore = minScore;
+            this.maxScore = maxScore;
+        }
+    }
+
+    /**
+     * keeps search index and result cache in sync with writes
+     */
+    class SearchableListener<M extends BaseModelAbstract<I>, C extends BaseCriteria<I> & SearchableCriteria, I extends Serializable, U> implements RepositoryListenerQdslSql<SearchableEntityRepositoryQdslSql<M, C, I, U>, M, C, I, U> {
+
+        @Override
+        public void afterSave(SearchableEntityRepositoryQdslSql<M, C, I, U> repository, List<M> models, boolean update, Object state) {
+            repository.onSearchableSave(models.stream().map(BaseModelAbstract::getId).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void afterDelete(SearchableEntityRepositoryQdslSql<M, C, I, U> repository, List<I> ids, Object state) {
+            repository.onSearchableDelete(ids);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.bardframework.base.searchable;
+
+import com.querydsl.core.dml.StoreClause;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.dml.SQLUpdateClause;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.bardframework.base.crud.WriteExtendedRepositoryQdslSql;
+import org.bardframework.commons.utils.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * search on a shadow column of entity that keeps normalized tokens of search paths (separated by space), written on each save and update.
+ * query matched as prefix of tokens (<code>tokens like 'q%' or tokens like '% q%'</code>), so arabic and persian forms of letters,
+ * zero width non-joiners and diacritics of texts or query don't affect result, and no leading wildcard scan on original columns needed.
+ */
+public interface TokenSearchableEntityRepositoryQdslSql<M extends BaseModelAbstract<I>, C extends BaseCriteria<I> & SearchableCriteria, I extends Serializable, U> extends SearchableEntityRepositoryQdslSql<M, C, I, U>, WriteExtendedRepositoryQdslSql<M, U> {
+
+    int REFRESH_BATCH_SIZE = 500;
+
+    /**
+     * @return shadow column of tokens, not exposed in model
+     */
+    StringPath getSearchTokensPath();
+
+    @Override
+    default <S extends StoreClause<S>> S process(S clause, M model, U user) {
+        clause.set(this.getSearchTokensPath(), this.toSearchTokens(this.getSearchTexts(model)));
+        return clause;
+    }
+
+    /**
+     * every token of query must be prefix of a token of row
+     */
+    @Override
+    default <T> SQLQuery<T> process(C criteria, SQLQuery<T> query, U user) {
+        if (StringUtils.hasNotText(criteria.getQuery())) {
+            return query;
+        }
+        List<String> tokens = SearchTextNormalizer.tokenize(criteria.getQuery());
+        if (tokens.isEmpty()) {
+            query.where(Expressions.FALSE.isTrue());
+            return query;
+        }
+        StringPath tokensPath = this.getSearchTokensPath();
+        for (String token : tokens) {
+            /*
+              tokens only contain letters and digits, no escape needed
+             */
+            query.where(tokensPath.like(token + "%").or(tokensPath.like("% " + token + "%")));
+        }
+        return query;
+    }
+
+    @Override
+    default Predicate<M> getSearchMatcher(String query) {
+        List<String> queryTokens = SearchTextNormalizer.tokenize(query);
+        return model -> {
+            List<String> tokens = SearchTextNormalizer.tokenize(this.toSearchTokens(this.getSearchTexts(model)));
+            for (String queryToken : queryTokens) {
+                if (tokens.stream().noneMatch(token -> token.startsWith(queryToken))) {
+                    return false;
+                }
+            }
+            return !queryTokens.isEmpty();
+        };
+    }
+
+    /**
+     * rows that have each token of query as a whole token first, then other rows of <code>process</code> (tokens of query are prefix of tokens).
+     * tokens column doesn't tell which path matched, so both tiers may have rows of any path and kind.
+     */
+    @Override
+    default List<SearchTier> getSearchTiers(String query, double[] weights) {
+        List<String> tokens = SearchTextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        double minWeight = Arrays.stream(weights).min().orElse(0);
+        double maxScore = MatchKind.EXACT.getScore(Arrays.stream(weights).max().orElse(0), 1);
+        StringPath tokensPath = this.getSearchTokensPath();
+        BooleanExpression wholeTokens = null;
+        for (String token : tokens) {
+            BooleanExpression wholeToken = tokensPath.eq(token).or(tokensPath.like(token + " %")).or(tokensPath.like("% " + token)).or(tokensPath.like("% " + token + " %"));
+            wholeTokens = null == wholeTokens ? wholeToken : wholeTokens.and(wholeToken);
+        }
+        List<SearchTier> tiers = new ArrayList<>();
+        tiers.add(new SearchTier(wholeTokens, tokensPath, MatchKind.PREFIX.getScore(minWeight, 0), maxScore));
+        tiers.add(new SearchTier(null, tokensPath, MatchKind.SUBSTRING.getScore(minWeight, 0), maxScore));
+        return tiers;
+    }
+
+    /**
+     * values ranked by normal form, same as tokens searched
+     */
+    @Override
+    default String toMatchText(String text) {
+        return SearchTextNormalizer.normalize(text);
+    }
+
+    /**
+     * @return distinct tokens of texts separated by space, null if texts have no token
+     */
+    default String toSearchTokens(Collection<String> texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            tokens.addAll(SearchTextNormalizer.tokenize(text));
+        }
+        return tokens.isEmpty() ? null : String.join(" ", tokens);
+    }
+
+    /**
+     * recompute tokens of all rows from current values of search paths, e.g. after shadow column added or search paths changed.
+     *
+     * @return count of updated rows
+     */
+    @Transactional
+    default long refreshSearchTokens() {
+        Map<I, Collection<String>> texts = new LinkedHashMap<>();
+        this.readSearchTexts(null, texts::put);
+        long updated = 0;
+        SQLUpdateClause updateClause = this.getQueryFactory().update(this.getSearchEntity());
+        int batchSize = 0;
+        for (Map.Entry<I, Collection<String>> entry : texts.entrySet()) {
+            updateClause.set(this.getSearchTokensPath(), this.toSearchTokens(entry.getValue()))
+                    .where(Expressions.predicate(Ops.EQ, this.getIdentifierPath(), Expressions.constant(entry.getKey())))
+                    .addBatch();
+            if (++batchSize == REFRESH_BATCH_SIZE) {
+                updated += updateClause.execute();
+                updateClause = this.getQueryFactory().update(this.getSearchEntity());
+                batchSize = 0;
+            }
+        }
+        if (batchSize > 0) {
+            updated += updateClause.execute();
+        }
+        return updated;
+    }
+}
@@ -1,23 +1,33 @@
 package org.bardframework.base.tree;
 
+import com.querydsl.core.QueryFlag;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.QBean;
-import com.querydsl.core.types.dsl.SimpleExpression;
-import com.querydsl.sql.RelationalPathBase;
-import com.querydsl.sql.SQLExpressions;
-import com.querydsl.sql.SQLQuery;
+import com.querydsl.core.types.dsl.*;
+import com.querydsl.sql.*;
+import com.querydsl.sql.dml.SQLUpdateClause;
 import org.bardframework.base.crud.BaseCriteria;
 import org.bardframework.base.crud.BaseModelAbstract;
 import org.bardframework.base.crud.ReadExtendedRepositoryQdslSql;
+import org.bardframework.base.crud.RepositoryListener;
+import org.bardframework.base.crud.RepositoryListenerQdslSql;
+import org.bardframework.base.utils.TransactionUtils;
+import org.bardframework.commons.utils.AssertionUtils;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
-import java.util.List;
+import java.util.*;
 
 /**
  * Created by vahid (va.zafari@gmail.com) on 11/12/17.
  */
+@RepositoryListener(TreeEntityRepositoryQdslSql.TreeListener.class)
 public interface TreeEntityRepositoryQdslSql<M extends BaseModelAbstract<I> & TreeEntityModel<M>, C extends BaseCriteria<I> & TreeEntityCriteria<I>, I extends Serializable, U> extends TreeEntityRepository<M, I, U>, ReadExtendedRepositoryQdslSql<C, I, U> {
 
+    String PATH_SEPARATOR = "/";
+
     <T extends SimpleExpression<I>> T getParentPath();
 
     <T extends SimpleExpression<I>> T getIdentifierPath();
@@ -26,6 +36,63 @@ public interface TreeEntityRepositoryQdslSql<M extends BaseModelAbstract<I> & Tr
 
     QBean<M> getQBean();
 
+    SQLQueryFactory getQueryFactory();
+
+    SQLQuery<?> prepareQuery(C criteria, U user);
+
+    C getEmptyCriteria();
+
+    /**
+     * @return query of all rows that user can read, with joins, criteria conditions of user and restrictions of repository
+     * (same pipeline as other reads) but without orders
+     */
+    default SQLQuery<?> prepareTreeQuery(U user) {
+        SQLQuery<?> query = this.prepareQuery(this.getEmptyCriteria(), user);
+        query.getMetadata().clearOrderBy();
+        return query;
+    }
+
+    /**
+     * materialized path column, disabled by default (null). when enabled, repository keeps path of each node (identifiers of
+     * root to node, e.g. <code>/1/5/23/</code>) on save and update (including moves), so subtree is a prefix match and ancestors
+     * are an <code>in</code> on identifiers. identifiers must not contain {@link #PATH_SEPARATOR}.
+     * when column added to a table that has rows, {@link #refreshMaterializedPaths()} must be called once before enabling it,
+     * otherwise adding a child to an existing node fails because its parent has no path.
+     */
+    default StringPath getMaterializedPath() {
+        return null;
+    }
+
+    /**
+     * depth column (roots are 0), disabled by default (null).
+     * depth, child count and leaf columns (each one optional) kept consistent by repository when nodes added, moved or removed,
+     * so depth and leaf filters are plain predicates; {@link #refreshHierarchyMetadata()} computes them for existing rows.
+     */
+    default NumberPath<Integer> getDepthPath() {
+        return null;
+    }
+
+    /**
+     * count of direct children column, disabled by default (null)
+     */
+    default NumberPath<Integer> getChildCountPath() {
+        return null;
+    }
+
+    /**
+     * leaf flag column, disabled by default (null)
+     */
+    default BooleanPath getLeafPath() {
+        return null;
+    }
+
+    /**
+     * @return true if previous parents of updated or deleted nodes needed (to maintain depth, child count or leaf columns)
+     */
+    default boolean isParentChangeTracked() {
+        return null != this.getDepthPath() || null != this.getChildCountPath() || null != this.getLeafPath();
+    }
+
     @Override
     default <T> SQLQuery<T> process(C criteria, SQLQuery<T> query, U user) {
         if (null != criteria.getParentIds()) {
@@ -34,22 +101,538 @@ public interface TreeEntityRepositoryQdslSql<M extends BaseModelAbstract<I> & Tr
         if (null != criteria.getRoot()) {
             query.where(criteria.getRoot() ? this.getParentPath().isNull() : this.getParentPath().isNotNull());
         }
-        if (null != criteria.getLeaf()) {
+        if (null != criteria.getLeaf() && null != this.getLeafPath()) {
+            query.where(this.getLeafPath().eq(criteria.getLeaf()));
+        } else if (null != criteria.getLeaf() && null != this.getChildCountPath()) {
+            query.where(criteria.getLeaf() ? this.getChildCountPath().eq(0) : this.getChildCountPath().gt(0));
+        } else if (null != criteria.getLeaf()) {
             SQLQuery<I> parentIdsQuery = SQLExpressions.select(this.getParentPath()).from(this.getEntity()).where(this.getParentPath().isNotNull());
             query.where(criteria.getLeaf() ? this.getIdentifierPath().notIn(parentIdsQuery) : this.getIdentifierPath().in(parentIdsQuery));
         }
+        if (null != criteria.getDepth()) {
+            if (null == this.getDepthPath()) {
+                throw new IllegalStateException("depth filter requires depth column, see 'getDepthPath'");
+            }
+            query.where(this.getDepthPath().eq(criteria.getDepth()));
+        }
+        if (null != criteria.getSubtreeRootId()) {
+            query.where(this.getSubtreePredicate(criteria.getSubtreeRootId(), user));
+        }
         return query;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * @return predicate of nodes in subtree of given node (node itself included)
+     */
+    default Predicate getSubtreePredicate(I rootId, U user) {
+        StringPath materializedPath = this.getMaterializedPath();
+        if (null != materializedPath) {
+            String rootPath = this.getMaterializedPathOf(rootId);
+            return null == rootPath ? Expressions.FALSE.isTrue() : materializedPath.startsWith(rootPath);
+        }
+        List<I> ids = this.getHierarchyQuery(rootId, -1, true, user).select(this.getIdentifierPath()).fetch();
+        return ids.isEmpty() ? Expressions.FALSE.isTrue() : this.getIdentifierPath().in(ids);
+    }
+
     @Override
     default List<M> getWithChildren(I id, U user) {
-//        SQLQuery<M> query = this.getQueryFactory().select(this.getQBean()).from(this.getEntity());
-//        query = this.setJoins(query);
-//        return query.startWith(this.getIdentifierPath().eq(id))
-//                .connectByPrior(this.getIdentifierPath().eq(this.getParentPath()))
-//                .orderSiblingsBy(this.getIdentifierPath())
-//                .fetch();
-        return null;
+        return this.getWithChildren(id, -1, user);
+    }
+
+    /**
+     * subtree fetched in one query: by prefix of materialized path if enabled, otherwise by recursive query (see {@link #getHierarchyQuery}).
+     * nodes ordered by depth, so each parent comes before its children.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    default List<M> getWithChildren(I id, int maxDepth, U user) {
+        AssertionUtils.notNull(id, "id should not be null.");
+        StringPath materializedPath = this.getMaterializedPath();
+        if (null == materializedPath) {
+            return this.getHierarchyQuery(id, maxDepth, true, user).select(this.getQBean()).fetch();
+        }
+        String rootPath = this.getMaterializedPathOf(id);
+        if (null == rootPath) {
+            return new ArrayList<>();
+        }
+        SQLQuery<?> query = this.prepareTreeQuery(user);
+        query.where(materializedPath.startsWith(rootPath)).orderBy(materializedPath.length().asc(), this.getIdentifierPath().asc());
+        int rootDepth = this.getDepth(rootPath);
+        if (maxDepth >= 0 && null != this.getDepthPath()) {
+            /*
+              path of a root has two separators, its depth column is 0
+             */
+            query.where(this.getDepthPath().loe(rootDepth - 2 + maxDepth));
+        }
+        List<M> nodes = new ArrayList<>();
+        for (Tuple tuple : query.select(this.getQBean(), materializedPath).fetch()) {
+            if (maxDepth < 0 || this.getDepth(tuple.get(materializedPath)) - rootDepth <= maxDepth) {
+                nodes.add(tuple.get(this.getQBean()));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @return ancestors of node of given id, root first (node itself not included)
+     */
+    @Transactional(readOnly = true)
+    @Override
+    default List<M> getAncestors(I id, U user) {
+        AssertionUtils.notNull(id, "id should not be null.");
+        if (null == this.getMaterializedPath()) {
+            SQLQuery<?> query = this.getHierarchyQuery(id, -1, false, user);
+            query.where(this.getIdentifierPath().ne(id));
+            return query.select(this.getQBean()).fetch();
+        }
+        List<I> ids = this.toIdentifiers(this.getMaterializedPathOf(id));
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        SQLQuery<?> query = this.prepareTreeQuery(user);
+        List<M> ancestors = query.where(this.getIdentifierPath().in(ids)).select(this.getQBean()).fetch();
+        ancestors.sort(Comparator.comparingInt(ancestor -> ids.indexOf(ancestor.getId())));
+        return ancestors;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    default boolean isDescendant(I id, I ancestorId, U user) {
+        AssertionUtils.notNull(id, "id should not be null.");
+        AssertionUtils.notNull(ancestorId, "ancestor id should not be null.");
+        if (id.equals(ancestorId)) {
+            return false;
+        }
+        if (null == this.getMaterializedPath()) {
+            return this.getAncestors(id, user).stream().anyMatch(ancestor -> ancestorId.equals(ancestor.getId()));
+        }
+        String path = this.getMaterializedPathOf(id);
+        return null != path && path.contains(PATH_SEPARATOR + ancestorId + PATH_SEPARATOR);
+    }
+
+    /**
+     * nodes of subtree (or ancestors) of given node in one query, by recursive common table expression or
+     * <code>connect by</code> (see {@link #isConnectByRequired()}). node of given id included.
+     * whole hierarchy walked, then nodes that user can't read (see {@link #prepareTreeQuery(Object)}) filtered out.
+     *
+     * @param maxDepth    maximum distance from given node, negative for no limit
+     * @param descendants true to walk down to descendants (ordered by depth), false to walk up to ancestors (root first)
+     */
+    default SQLQuery<?> getHierarchyQuery(I id, int maxDepth, boolean descendants, U user) {
+        return this.addHierarchy(this.prepareTreeQuery(user), id, maxDepth, descendants);
+    }
+
+    /**
+     * same as {@link #getHierarchyQuery(Serializable, int, boolean, Object)} on all rows (no joins, criteria or restrictions), used to maintain tree.
+     */
+    default SQLQuery<?> getHierarchyQuery(I id, int maxDepth, boolean descendants) {
+        return this.addHierarchy(this.getQueryFactory().query().from(this.getEntity()), id, maxDepth, descendants);
+    }
+
+    /**
+     * @param query query from entity
+     */
+    default SQLQuery<?> addHierarchy(SQLQuery<?> query, I id, int maxDepth, boolean descendants) {
+        if (this.isConnectByRequired()) {
+            NumberExpression<Integer> level = Expressions.numberTemplate(Integer.class, "level");
+            Predicate connectBy = descendants ? Expressions.booleanTemplate("prior {0} = {1}", this.getIdentifierPath(), this.getParentPath())
+                    : Expressions.booleanTemplate("prior {0} = {1}", this.getParentPath(), this.getIdentifierPath());
+            if (maxDepth >= 0) {
+                connectBy = level.loe(maxDepth + 1).and(connectBy);
+            }
+            query.addFlag(QueryFlag.Position.BEFORE_GROUP_BY, Expressions.template(Object.class, "\nstart with {0}", this.getIdentifierPath().eq(id)));
+            query.addFlag(QueryFlag.Position.BEFORE_GROUP_BY, Expressions.template(Object.class, "\nconnect by {0}", connectBy));
+            query.orderBy(descendants ? level.asc() : level.desc(), this.getIdentifierPath().asc());
+        } else {
+            PathBuilder<Tuple> hierarchy = new PathBuilder<>(Tuple.class, "hierarchy");
+            SimplePath<I> hierarchyId = hierarchy.getSimple("node_id", (Class<I>) this.getIdentifierPath().getType());
+            SimplePath<I> hierarchyParentId = hierarchy.getSimple("parent_id", (Class<I>) this.getIdentifierPath().getType());
+            NumberPath<Integer> hierarchyDepth = hierarchy.getNumber("depth", Integer.class);
+            SQLQuery<Tuple> next = SQLExpressions.select(this.getIdentifierPath(), this.getParentPath(), Expressions.numberTemplate(Integer.class, "{0} + 1", hierarchyDepth))
+                    .from(this.getEntity())
+                    .innerJoin(hierarchy).on(descendants ? this.getParentPath().eq(hierarchyId) : this.getIdentifierPath().eq(hierarchyParentId));
+            if (maxDepth >= 0) {
+                next.where(hierarchyDepth.lt(maxDepth));
+            }
+            query.withRecursive(hierarchy, hierarchyId, hierarchyParentId, hierarchyDepth).as(SQLExpressions.unionAll(
+                    SQLExpressions.select(this.getIdentifierPath(), this.getParentPath(), Expressions.numberTemplate(Integer.class, "0")).from(this.getEntity()).where(this.getIdentifierPath().eq(id)),
+                    next));
+            query.innerJoin(hierarchy).on(this.getIdentifierPath().eq(hierarchyId));
+            query.orderBy(descendants ? hierarchyDepth.asc() : hierarchyDepth.desc(), this.getIdentifierPath().asc());
+        }
+        return query;
+    }
+
+    /**
+     * @return true if database has no recursive common table expression (or querydsl templates of it not support them), so
+     * <code>connect by</code> used instead
+     */
+    default boolean isConnectByRequired() {
+        return this.getQueryFactory().getConfiguration().getTemplates() instanceof OracleTemplates;
+    }
+
+    default String getMaterializedPathOf(I id) {
+        return this.getQueryFactory().query().select(this.getMaterializedPath()).from(this.getEntity()).where(this.getIdentifierPath().eq(id)).fetchOne();
+    }
+
+    /**
+     * called by {@link TreeListener} after nodes saved or updated (in same transaction), keeps materialized paths and hierarchy metadata consistent.
+     * saved nodes and parents that their child count changed reported to tree cache after commit; when a move rewrote columns
+     * of a subtree, whole tree cache dropped instead.
+     *
+     * @param previousParents parents of nodes before update, null if not tracked (see {@link #isParentChangeTracked()}) or on insert
+     */
+    default void onTreeSave(List<M> models, boolean update, Map<I, I> previousParents) {
+        Set<I> changed = new LinkedHashSet<>();
+        models.forEach(model -> changed.add(model.getId()));
+        boolean subtreeShifted = this.updateMaterializedPaths(models, update);
+        if (this.isParentChangeTracked()) {
+            subtreeShifted = this.updateHierarchyMetadata(models, update, previousParents) || subtreeShifted;
+            for (M model : models) {
+                I parentId = null == model.getParent() ? null : model.getParent().getId();
+                I previousParentId = update && null != previousParents ? previousParents.get(model.getId()) : null;
+                if (update && Objects.equals(parentId, previousParentId)) {
+                    continue;
+                }
+                if (null != parentId) {
+                    changed.add(parentId);
+                }
+                if (null != previousParentId) {
+                    changed.add(previousParentId);
+                }
+            }
+        }
+        Class<?> modelClazz = this.getQBean().getType();
+        if (subtreeShifted) {
+            TransactionUtils.afterCommit(() -> TreeCache.invalidate(modelClazz));
+        } else {
+            TransactionUtils.afterCommit(() -> TreeCache.changed(modelClazz, changed));
+        }
+    }
+
+    /**
+     * when parent of a node changed, paths of all nodes of its subtree rewritten by one update.
+     *
+     * @return true if paths of a moved subtree rewritten
+     */
+    default boolean updateMaterializedPaths(List<M> models, boolean update) {
+        StringPath materializedPath = this.getMaterializedPath();
+        if (null == materializedPath) {
+            return false;
+        }
+        boolean subtreeShifted = false;
+        Map<I, String> paths = new HashMap<>();
+        SQLUpdateClause insertedPaths = this.getQueryFactory().update(this.getEntity());
+        int inserted = 0;
+        for (M model : models) {
+            I parentId = null == model.getParent() ? null : model.getParent().getId();
+            String parentPath = PATH_SEPARATOR;
+            if (null != parentId) {
+                parentPath = paths.containsKey(parentId) ? paths.get(parentId) : this.getMaterializedPathOf(parentId);
+                if (null == parentPath) {
+                    throw new IllegalStateException("path of parent '" + parentId + "' of node '" + model.getId() + "' not found.");
+                }
+            }
+            String path = parentPath + model.getId() + PATH_SEPARATOR;
+            paths.put(model.getId(), path);
+            String oldPath = update ? this.getMaterializedPathOf(model.getId()) : null;
+            if (null == oldPath) {
+                insertedPaths.set(materializedPath, path).where(this.getIdentifierPath().eq(model.getId())).addBatch();
+                inserted++;
+            } else if (!oldPath.equals(path)) {
+                if (parentPath.startsWith(oldPath)) {
+                    throw new IllegalArgumentException("can't move node '" + model.getId() + "' under its descendant '" + parentId + "'.");
+                }
+                this.getQueryFactory().update(this.getEntity())
+                        .set(materializedPath, Expressions.asString(path).concat(materializedPath.substring(oldPath.length())))
+                        .where(materializedPath.startsWith(oldPath))
+                        .execute();
+                subtreeShifted = true;
+            }
+        }
+        if (inserted > 0) {
+            insertedPaths.execute();
+        }
+        return subtreeShifted;
+    }
+
+    /**
+     * depth of each inserted or moved node (and shift of depth of its subtree), and child count and leaf flag of old and new parents updated.
+     *
+     * @return true if depth of a moved subtree shifted
+     */
+    default boolean updateHierarchyMetadata(List<M> models, boolean update, Map<I, I> previousParents) {
+        NumberPath<Integer> depthPath = this.getDepthPath();
+        boolean subtreeShifted = false;
+        Map<I, Integer> childCountChanges = new LinkedHashMap<>();
+        Map<I, Integer> depths = new HashMap<>();
+        SQLUpdateClause insertedNodes = this.getQueryFactory().update(this.getEntity());
+        for (M model : models) {
+            I parentId = null == model.getParent() ? null : model.getParent().getId();
+            I previousParentId = update && null != previousParents ? previousParents.get(model.getId()) : null;
+            if (update && Objects.equals(parentId, previousParentId)) {
+                continue;
+            }
+            if (null != previousParentId) {
+                childCountChanges.merge(previousParentId, -1, Integer::sum);
+            }
+            if (null != parentId) {
+                childCountChanges.merge(parentId, 1, Integer::sum);
+            }
+            Integer depth = null;
+            if (null != depthPath) {
+                depth = null == parentId ? 0 : (depths.containsKey(parentId) ? depths.get(parentId) : this.getDepthOf(parentId)) + 1;
+                depths.put(model.getId(), depth);
+            }
+            if (update) {
+                Integer previousDepth = null == depthPath ? null : this.getDepthOf(model.getId());
+                if (null != depth && !depth.equals(previousDepth)) {
+                    int shift = depth - (null == previousDepth ? 0 : previousDepth);
+                    this.getQueryFactory().update(this.getEntity())
+                            .set(depthPath, depthPath.add(shift))
+                            .where(this.getSubtreePredicate(model.getId()))
+                            .execute();
+                    subtreeShifted = true;
+                }
+            } else {
+                if (null != depthPath) {
+                    insertedNodes.set(depthPath, depth);
+                }
+                if (null != this.getChildCountPath()) {
+                    insertedNodes.set(this.getChildCountPath(), 0);
+                }
+                if (null != this.getLeafPath()) {
+                    insertedNodes.set(this.getLeafPath(), true);
+                }
+                insertedNodes.where(this.getIdentifierPath().eq(model.getId())).addBatch();
+            }
+        }
+        if (!update && !models.isEmpty()) {
+            insertedNodes.execute();
+        }
+        childCountChanges.forEach(this::updateChildCount);
+        return subtreeShifted;
+    }
+
+    /**
+     * @return predicate of nodes in subtree of given node (node itself included), without joins
+     */
+    default Predicate getSubtreePredicate(I rootId) {
+        StringPath materializedPath = this.getMaterializedPath();
+        if (null != materializedPath) {
+            String rootPath = this.getMaterializedPathOf(rootId);
+            return null == rootPath ? Expressions.FALSE.isTrue() : materializedPath.startsWith(rootPath);
+        }
+        List<I> ids = this.getHierarchyQuery(rootId, -1, true).select(this.getIdentifierPath()).fetch();
+        return ids.isEmpty() ? Expressions.FALSE.isTrue() : this.getIdentifierPath().in(ids);
+    }
+
+    default void updateChildCount(I parentId, int change) {
+        if (change == 0 || (null == this.getChildCountPath() && null == this.getLeafPath())) {
+            return;
+        }
+        SQLUpdateClause clause = this.getQueryFactory().update(this.getEntity()).where(this.getIdentifierPath().eq(parentId));
+        if (null != this.getChildCountPath()) {
+            clause.set(this.getChildCountPath(), this.getChildCountPath().add(change));
+        }
+        if (null != this.getLeafPath()) {
+            clause.set(this.getLeafPath(), change < 0 && null == this.getQueryFactory().query().select(this.getIdentifierPath()).from(this.getEntity()).where(this.getParentPath().eq(parentId)).fetchFirst());
+        }
+        clause.execute();
+    }
+
+    default Integer getDepthOf(I id) {
+        return this.getQueryFactory().query().select(this.getDepthPath()).from(this.getEntity()).where(this.getIdentifierPath().eq(id)).fetchOne();
+    }
+
+    /**
+     * @return parent of each node of given identifiers (null for roots)
+     */
+    default Map<I, I> getParentIds(Collection<I> ids) {
+        Map<I, I> parents = new HashMap<>();
+        if (ids.isEmpty()) {
+            return parents;
+        }
+        for (Tuple tuple : this.getQueryFactory().query().select(this.getIdentifierPath(), this.getParentPath()).from(this.getEntity()).where(this.getIdentifierPath().in(ids)).fetch()) {
+            parents.put(tuple.get(this.getIdentifierPath()), tuple.get(this.getParentPath()));
+        }
+        return parents;
+    }
+
+    /**
+     * called by {@link TreeListener} after nodes deleted (in same transaction), child count and leaf flag of their remaining parents updated
+     * (and reported to tree cache).
+     *
+     * @param previousParents parents of deleted nodes, null if not tracked
+     */
+    default void onTreeDelete(List<I> ids, Map<I, I> previousParents) {
+        Class<?> modelClazz = this.getQBean().getType();
+        TransactionUtils.afterCommit(() -> TreeCache.removed(modelClazz, ids));
+        if (null == previousParents) {
+            return;
+        }
+        Map<I, Integer> childCountChanges = new LinkedHashMap<>();
+        Set<I> deleted = new HashSet<>(ids);
+        previousParents.forEach((id, parentId) -> {
+            if (null != parentId && !deleted.contains(parentId)) {
+                childCountChanges.merge(parentId, -1, Integer::sum);
+            }
+        });
+        childCountChanges.forEach(this::updateChildCount);
+        TransactionUtils.afterCommit(() -> TreeCache.changed(modelClazz, childCountChanges.keySet()));
+    }
+
+    /**
+     * compute depth, child count and leaf flag of all nodes, e.g. after columns added to existing table
+     *
+     * @return count of updated rows
+     */
+    @Transactional
+    default long refreshHierarchyMetadata() {
+        if (!this.isParentChangeTracked()) {
+            return 0;
+        }
+        Map<I, I> parents = new LinkedHashMap<>();
+        for (Tuple tuple : this.getQueryFactory().query().select(this.getIdentifierPath(), this.getParentPath()).from(this.getEntity()).fetch()) {
+            parents.put(tuple.get(this.getIdentifierPath()), tuple.get(this.getParentPath()));
+        }
+        Map<I, Integer> childCounts = new HashMap<>();
+        parents.values().stream().filter(Objects::nonNull).forEach(parentId -> childCounts.merge(parentId, 1, Integer::sum));
+        long updated = 0;
+        SQLUpdateClause clause = this.getQueryFactory().update(this.getEntity());
+        int batchSize = 0;
+        for (I id : parents.keySet()) {
+            if (null != this.getDepthPath()) {
+                int depth = 0;
+                for (I ancestor = parents.get(id); null != ancestor; ancestor = parents.get(ancestor)) {
+                    if (++depth > parents.size()) {
+                        throw new IllegalStateException("tree has a cycle, node '" + id + "' is its own ancestor.");
+                    }
+                }
+                clause.set(this.getDepthPath(), depth);
+            }
+            int childCount = childCounts.getOrDefault(id, 0);
+            if (null != this.getChildCountPath()) {
+                clause.set(this.getChildCountPath(), childCount);
+            }
+            if (null != this.getLeafPath()) {
+                clause.set(this.getLeafPath(), childCount == 0);
+            }
+            clause.where(this.getIdentifierPath().eq(id)).addBatch();
+            if (++batchSize == 500) {
+                updated += clause.execute();
+                clause = this.getQueryFactory().update(this.getEntity());
+                batchSize = 0;
+            }
+        }
+        if (batchSize > 0) {
+            updated += clause.execute();
+        }
+        return updated;
+    }
+
+    /**
+     * compute materialized path of all nodes from their parents, e.g. after column added to existing table
+     *
+     * @return count of updated rows
+     */
+    @Transactional
+    default long refreshMaterializedPaths() {
+        StringPath materializedPath = this.getMaterializedPath();
+        if (null == materializedPath) {
+            return 0;
+        }
+        Map<I, I> parents = new LinkedHashMap<>();
+        for (Tuple tuple : this.getQueryFactory().query().select(this.getIdentifierPath(), this.getParentPath()).from(this.getEntity()).fetch()) {
+            parents.put(tuple.get(this.getIdentifierPath()), tuple.get(this.getParentPath()));
+        }
+        Map<I, String> paths = new HashMap<>();
+        long updated = 0;
+        SQLUpdateClause clause = this.getQueryFactory().update(this.getEntity());
+        int batchSize = 0;
+        for (I id : parents.keySet()) {
+            clause.set(materializedPath, this.computeMaterializedPath(id, parents, paths)).where(this.getIdentifierPath().eq(id)).addBatch();
+            if (++batchSize == 500) {
+                updated += clause.execute();
+                clause = this.getQueryFactory().update(this.getEntity());
+                batchSize = 0;
+            }
+        }
+        if (batchSize > 0) {
+            updated += clause.execute();
+        }
+        return updated;
+    }
+
+    /**
+     * @param paths computed paths, filled by this method
+     */
+    default String computeMaterializedPath(I id, Map<I, I> parents, Map<I, String> paths) {
+        List<I> ancestors = new ArrayList<>();
+        String path = PATH_SEPARATOR;
+        for (I node = id; null != node; node = parents.get(node)) {
+            if (paths.containsKey(node)) {
+                path = paths.get(node);
+                break;
+            }
+            if (ancestors.size() > parents.size()) {
+                throw new IllegalStateException("tree has a cycle, node '" + id + "' is its own ancestor.");
+            }
+            ancestors.add(node);
+        }
+        for (int i = ancestors.size() - 1; i >= 0; i--) {
+            path = path + ancestors.get(i) + PATH_SEPARATOR;
+            paths.put(ancestors.get(i), path);
+        }
+        return path;
+    }
+
+    default int getDepth(String materializedPath) {
+        int depth = 0;
+        for (int i = 0; i < materializedPath.length(); i++) {
+            if (materializedPath.startsWith(PATH_SEPARATOR, i)) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * @return identifiers of materialized path, root first
+     */
+    default List<I> toIdentifiers(String materializedPath) {
+        List<I> ids = new ArrayList<>();
+        if (null == materializedPath) {
+            return ids;
+        }
+        Class<I> idType = (Class<I>) this.getIdentifierPath().getType();
+        for (String part : materializedPath.split(PATH_SEPARATOR)) {
+            if (!part.isEmpty()) {
+                ids.add(DefaultConversionService.getSharedInstance().convert(part, idType));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * keeps materialized paths, hierarchy metadata and tree cache in sync with writes, previous parents read before change if tracked
+     */
+    class TreeListener<M extends BaseModelAbstract<I> & TreeEntityModel<M>, C extends BaseCriteria<I> & TreeEntityCriteria<I>, I extends Serializable, U> implements RepositoryListenerQdslSql<TreeEntityRepositoryQdslSql<M, C, I, U>, M, C, I, U> {
+
+        @Override
+        public Object beforeChange(TreeEntityRepositoryQdslSql<M, C, I, U> repository, List<I> ids) {
+            return repository.isParentChangeTracked() ? repository.getParentIds(ids) : null;
+        }
+
+        @Override
+        public void afterSave(TreeEntityRepositoryQdslSql<M, C, I, U> repository, List<M> models, boolean update, Object state) {
+            repository.onTreeSave(models, update, (Map<I, I>) state);
+        }
+
+        @Override
+        public void afterDelete(TreeEntityRepositoryQdslSql<M, C, I, U> repository, List<I> ids, Object state) {
+            repository.onTreeDelete(ids, (Map<I, I>) state);
+        }
     }
 }
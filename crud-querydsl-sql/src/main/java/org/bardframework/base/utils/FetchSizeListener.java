@@ -0,0 +1,30 @@
+package org.bardframework.base.utils;
+
+import com.querydsl.sql.SQLBaseListener;
+import com.querydsl.sql.SQLListenerContext;
+
+import java.sql.SQLException;
+
+/**
+ * set fetch size of prepared statements, used to stream large results from <code>ResultSet</code> instead of buffering them.
+ */
+public class FetchSizeListener extends SQLBaseListener {
+
+    private final int fetchSize;
+
+    public FetchSizeListener(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void prepared(SQLListenerContext context) {
+        if (null == context.getPreparedStatement()) {
+            return;
+        }
+        try {
+            context.getPreparedStatement().setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            throw new IllegalStateException("can't set fetch size of statement", e);
+        }
+    }
+}
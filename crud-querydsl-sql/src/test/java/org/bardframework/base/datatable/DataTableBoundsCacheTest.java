@@ -0,0 +1,81 @@
+package org.bardframework.base.datatable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataTableBoundsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final DataTableBoundsCache cache = new DataTableBoundsCache(() -> {
+        loads.incrementAndGet();
+        Map<String, MinMaxBounds> bounds = new HashMap<>();
+        bounds.put("age", new MinMaxBounds(1, 100));
+        return bounds;
+    }, TimeUnit.HOURS.toMillis(1));
+
+    @Test
+    public void testFirstReadLoadsOnce() {
+        assertThat(cache.isLoaded()).isFalse();
+        assertThat(cache.getBounds()).containsEntry("age", new MinMaxBounds(1, 100));
+        cache.getBounds();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testIncludeWidensBounds() {
+        cache.getBounds();
+        cache.include(Collections.singletonMap("age", 150));
+        cache.include(Collections.singletonMap("age", 50));
+        assertThat(cache.getBounds()).containsEntry("age", new MinMaxBounds(1, 150));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testIncludeIgnoredBeforeLoad() {
+        cache.include(Collections.singletonMap("age", 150));
+        assertThat(cache.getBounds()).containsEntry("age", new MinMaxBounds(1, 100));
+    }
+
+    @Test
+    public void testRemovedInsideBoundsNotStale() {
+        cache.getBounds();
+        assertThat(cache.markStaleIfOnBounds(Collections.singletonMap("age", new MinMaxBounds(2, 99)))).isFalse();
+        assertThat(cache.markStaleIfOnBounds(Collections.singletonMap("name", new MinMaxBounds(1, 100)))).isFalse();
+        assertThat(cache.markStaleIfOnBounds(Collections.singletonMap("age", new MinMaxBounds(null, null)))).isFalse();
+        cache.getBounds();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testRemovedOnBoundRefreshed() throws InterruptedException {
+        cache.getBounds();
+        assertThat(cache.markStaleIfOnBounds(Collections.singletonMap("age", new MinMaxBounds(50, 100)))).isTrue();
+        this.awaitLoads(2);
+        assertThat(cache.markStaleIfOnBounds(Collections.singletonMap("age", new MinMaxBounds(1, 50)))).isTrue();
+        this.awaitLoads(3);
+    }
+
+    @Test
+    public void testNotLoadedNeverStale() {
+        assertThat(cache.markStaleIfOnBounds(Collections.singletonMap("age", new MinMaxBounds(1, 100)))).isFalse();
+    }
+
+    /**
+     * reads until background refresh done, a read while previous refresh is finishing doesn't start a new one
+     */
+    private void awaitLoads(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (loads.get() < count && System.currentTimeMillis() < deadline) {
+            cache.getBounds();
+            Thread.sleep(10);
+        }
+        assertThat(loads).hasValue(count);
+    }
+}
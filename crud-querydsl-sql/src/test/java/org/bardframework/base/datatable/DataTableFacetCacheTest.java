@@ -0,0 +1,85 @@
+package org.bardframework.base.datatable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class DataTableFacetCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testSameKeyLoadedOnce() {
+        DataTableFacetCache cache = new DataTableFacetCache(60_000, 10);
+        Map<String, Map<String, Long>> first = cache.get("sql", this.loader());
+        Map<String, Map<String, Long>> second = cache.get("sql", this.loader());
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        cache.get("other sql", this.loader());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testCachedCountsReadOnly() {
+        Map<String, Map<String, Long>> counts = new DataTableFacetCache(60_000, 10).get("sql", this.loader());
+        assertThat(counts.get("city")).containsEntry("1", 5L);
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> counts.get("city").put("2", 1L));
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> counts.remove("city"));
+    }
+
+    @Test
+    public void testZeroTtlNotCached() {
+        DataTableFacetCache cache = new DataTableFacetCache(0, 10);
+        cache.get("sql", this.loader());
+        cache.get("sql", this.loader());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testBoundedEntries() {
+        DataTableFacetCache cache = new DataTableFacetCache(60_000, 2);
+        cache.get("a", this.loader());
+        cache.get("b", this.loader());
+        cache.get("c", this.loader());
+        assertThat(loads).hasValue(3);
+        /*
+          cache was full of not expired entries, so it was cleared before c added
+         */
+        cache.get("c", this.loader());
+        assertThat(loads).hasValue(3);
+        cache.get("a", this.loader());
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    public void testClear() {
+        DataTableFacetCache cache = new DataTableFacetCache(60_000, 10);
+        cache.get("sql", this.loader());
+        cache.clear();
+        cache.get("sql", this.loader());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new DataTableFacetCache(-1, 10));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new DataTableFacetCache(1000, 0));
+    }
+
+    private Supplier<Map<String, Map<String, Long>>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            Map<String, Long> city = new HashMap<>();
+            city.put("1", 5L);
+            Map<String, Map<String, Long>> counts = new HashMap<>();
+            counts.put("city", city);
+            return counts;
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.core.types.dsl.StringPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class DataTableFilterEngineTest {
+
+    private final NumberPath<Long> id = Expressions.numberPath(Long.class, "id");
+    private final NumberPath<Long> age = Expressions.numberPath(Long.class, "age");
+    private final NumberPath<Long> city = Expressions.numberPath(Long.class, "city");
+    private final StringPath name = Expressions.stringPath("name");
+    private final DataTableFilterEngine engine = DataTableFilterEngine.compile(Arrays.asList(
+            this.header("age", FilteringType.MIN_MAX, age, true, null),
+            this.header("city", FilteringType.MULTI_SELECT, city, false, null),
+            this.header("name", FilteringType.SEARCH, name, true, Sort.ASC),
+            this.header("transient", FilteringType.NONE, null, false, null)), id);
+
+    @Test
+    public void testNoConstraint() {
+        assertThat(engine.getPredicate(new DataTableCachedStructure("person"), null)).isNull();
+        DataTableCachedStructure filter = this.filter(this.rangeDto("age", null, null), this.selectDto("city"));
+        assertThat(engine.getPredicate(filter, null)).isNull();
+        assertThat(engine.isFiltered(filter, "age")).isFalse();
+    }
+
+    @Test
+    public void testMinMaxAndSelectConverted() {
+        DataTableCachedStructure filter = this.filter(this.rangeDto("age", "10", "20"), this.selectDto("city", "1", "2"));
+        Predicate predicate = engine.getPredicate(filter, null);
+        assertThat(predicate.toString()).isEqualTo("age >= 10 && age <= 20 && city in [1, 2]");
+        assertThat(engine.isFiltered(filter, "age")).isTrue();
+        assertThat(engine.isFiltered(filter, "name")).isFalse();
+    }
+
+    @Test
+    public void testExcludedHeader() {
+        DataTableCachedStructure filter = this.filter(this.rangeDto("age", "10", null), this.selectDto("city", "1"));
+        assertThat(engine.getPredicate(filter, "city").toString()).isEqualTo("age >= 10");
+    }
+
+    @Test
+    public void testUnboundAndUnknownHeadersIgnored() {
+        HeaderDto unbound = this.selectDto("transient");
+        unbound.setQuery("x");
+        DataTableCachedStructure filter = this.filter(unbound, this.selectDto("unknown", "1"));
+        assertThat(engine.getPredicate(filter, null)).isNull();
+        assertThat(engine.getHeader("transient")).isNull();
+        assertThat(engine.getHeaders()).extracting("path").containsExactly("age", "city", "name");
+    }
+
+    @Test
+    public void testGlobalQuerySearchesSearchableHeaders() {
+        DataTableCachedStructure filter = new DataTableCachedStructure("person");
+        filter.setQuery("ali");
+        assertThat(engine.getPredicate(filter, null)).isNotNull();
+    }
+
+    @Test
+    public void testInvalidValue() {
+        DataTableCachedStructure filter = this.filter(this.rangeDto("age", "ten", null));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> engine.getPredicate(filter, null));
+    }
+
+    @Test
+    public void testDefaultOrdersFollowedByIdentifier() {
+        List<OrderSpecifier<?>> orders = engine.getOrders(new DataTableCachedStructure("person"));
+        assertThat(orders).containsExactly(name.asc(), new OrderSpecifier<>(Order.ASC, id));
+    }
+
+    @Test
+    public void testOrdersBySequence() {
+        HeaderDto byAge = this.selectDto("age");
+        byAge.setSort(Sort.DESC);
+        byAge.setSortSequence(2);
+        HeaderDto byName = this.selectDto("name");
+        byName.setSort(Sort.DESC);
+        byName.setSortSequence(1);
+        HeaderDto byCity = this.selectDto("city");
+        byCity.setSort(Sort.ASC);
+        List<OrderSpecifier<?>> orders = engine.getOrders(this.filter(byAge, byName, byCity));
+        /*
+          city is not sortable
+         */
+        assertThat(orders).containsExactly(name.desc(), age.desc(), new OrderSpecifier<>(Order.ASC, id));
+    }
+
+    private HeaderQdsl header(String path, FilteringType filteringType, SimpleExpression<?> queryPath, boolean sortable, Sort sort) {
+        HeaderQdsl header = new HeaderQdsl();
+        header.setPath(path);
+        header.setFilterType(filteringType);
+        header.setQueryType(null == queryPath ? QueryType.NONE : QueryType.DB_COLUMN);
+        header.setSortable(sortable);
+        header.setSort(sort);
+        if (queryPath instanceof NumberPath) {
+            header.setInputConverter((Converter<String, Long>) Long::valueOf);
+        }
+        header.setQueryPath(Object.class, String.class, path, "person", queryPath);
+        return header;
+    }
+
+    private HeaderDto selectDto(String id, String... selected) {
+        HeaderDto dto = new HeaderDto();
+        dto.setId(id);
+        dto.setSelected(0 == selected.length ? null : Arrays.asList(selected));
+        return dto;
+    }
+
+    private HeaderDto rangeDto(String id, String min, String max) {
+        HeaderDto dto = new HeaderDto();
+        dto.setId(id);
+        dto.setMin(min);
+        dto.setMax(max);
+        return dto;
+    }
+
+    private DataTableCachedStructure filter(HeaderDto... headers) {
+        DataTableCachedStructure filter = new DataTableCachedStructure("person");
+        filter.setHeaders(Arrays.asList(headers));
+        return filter;
+    }
+}
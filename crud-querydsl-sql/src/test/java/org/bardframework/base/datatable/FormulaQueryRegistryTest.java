@@ -0,0 +1,72 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.sql.SQLExpressions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class FormulaQueryRegistryTest {
+
+    private final AtomicInteger compiles = new AtomicInteger();
+    private final NumberPath<Long> orderCount = Expressions.numberPath(Long.class, "order_count");
+
+    @AfterEach
+    public void tearDown() {
+        FormulaQueryRegistry.remove("person", "orderCount");
+    }
+
+    @Test
+    public void testExpressionCompiledOnce() {
+        FormulaQueryRegistry.Formula<Long> formula = this.register();
+        SimpleExpression<Long> expression = formula.getExpression();
+        assertThat(formula.getExpression()).isSameAs(expression);
+        assertThat(formula.getQueryPath()).isSameAs(expression);
+        assertThat(formula.isMaterialized()).isFalse();
+        assertThat(compiles).hasValue(1);
+        assertThat(FormulaQueryRegistry.get("person", "orderCount")).isSameAs(formula);
+    }
+
+    @Test
+    public void testMaterializeKeepsCompiledExpression() {
+        SimpleExpression<Long> expression = this.register().getExpression();
+        FormulaQueryRegistry.Formula<Long> materialized = FormulaQueryRegistry.materialize("person", "orderCount", orderCount);
+        assertThat(materialized.isMaterialized()).isTrue();
+        assertThat(materialized.getQueryPath()).isSameAs(orderCount);
+        assertThat(materialized.getExpression()).isSameAs(expression);
+        assertThat(compiles).hasValue(1);
+        assertThat(FormulaQueryRegistry.get("person", "orderCount")).isSameAs(materialized);
+    }
+
+    @Test
+    public void testMaterializeNotRegistered() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> FormulaQueryRegistry.materialize("person", "unknown", orderCount));
+    }
+
+    @Test
+    public void testRefreshNotMaterialized() {
+        FormulaQueryRegistry.Formula<Long> formula = this.register();
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> formula.refresh(null, null, null));
+    }
+
+    @Test
+    public void testRemove() {
+        this.register();
+        FormulaQueryRegistry.remove("person", "orderCount");
+        assertThat(FormulaQueryRegistry.get("person", "orderCount")).isNull();
+    }
+
+    private FormulaQueryRegistry.Formula<Long> register() {
+        NumberPath<Long> orderId = Expressions.numberPath(Long.class, "id");
+        return FormulaQueryRegistry.register("person", "orderCount", Long.class, () -> {
+            compiles.incrementAndGet();
+            return SQLExpressions.select(orderId.count()).from(Expressions.path(Object.class, "orders"));
+        });
+    }
+}
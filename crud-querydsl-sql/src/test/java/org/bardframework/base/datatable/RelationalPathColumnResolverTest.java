@@ -0,0 +1,53 @@
+package org.bardframework.base.datatable;
+
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RelationalPathColumnResolverTest {
+
+    private final QPerson person = new QPerson();
+
+    @Test
+    public void testResolveByPropertyName() {
+        RelationalPathColumnResolver resolver = new RelationalPathColumnResolver(Collections.singletonList(person));
+        assertThat(resolver.getTableName(Person.class)).isEqualTo("PERSON");
+        assertThat(resolver.getColumn("PERSON", "firstName")).isSameAs(person.firstName);
+        assertThat(resolver.getColumn("PERSON", "id")).isSameAs(person.id);
+    }
+
+    @Test
+    public void testResolveByColumnNameIgnoreCase() {
+        RelationalPathColumnResolver resolver = new RelationalPathColumnResolver().register(Person.class, person);
+        assertThat(resolver.getColumn("PERSON", "FIRST_NAME")).isSameAs(person.firstName);
+        assertThat(resolver.getColumn("PERSON", "first_name")).isSameAs(person.firstName);
+    }
+
+    @Test
+    public void testUnknownTableOrColumn() {
+        RelationalPathColumnResolver resolver = new RelationalPathColumnResolver().register(Person.class, person);
+        assertThat(resolver.getTableName(String.class)).isNull();
+        assertThat(resolver.getColumn("CITY", "id")).isNull();
+        assertThat(resolver.getColumn("PERSON", "lastName")).isNull();
+    }
+
+    public static class Person {
+    }
+
+    private static class QPerson extends RelationalPathBase<Person> {
+        private final NumberPath<Long> id = createNumber("id", Long.class);
+        private final StringPath firstName = createString("firstName");
+
+        private QPerson() {
+            super(Person.class, "person", "PUBLIC", "PERSON");
+            addMetadata(id, ColumnMetadata.named("ID"));
+            addMetadata(firstName, ColumnMetadata.named("FIRST_NAME"));
+        }
+    }
+}
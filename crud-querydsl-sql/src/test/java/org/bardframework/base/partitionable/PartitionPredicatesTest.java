@@ -0,0 +1,58 @@
+package org.bardframework.base.partitionable;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class PartitionPredicatesTest {
+
+    private final NumberPath<Long> id = Expressions.numberPath(Long.class, "id");
+
+    @Test
+    public void testRangeCountWhenMinNotMultipleOfPartitions() {
+        List<Predicate> predicates = PartitionableEntityRepositoryQdslSql.getRangePredicates(id, 1, 7, 4);
+        assertThat(predicates).containsExactly(
+                id.goe(1L).and(id.lt(3L)),
+                id.goe(3L).and(id.lt(5L)),
+                id.goe(5L).and(id.lt(7L)),
+                id.goe(7L));
+    }
+
+    @Test
+    public void testRangeCountWhenRangeNotMultipleOfPartitions() {
+        List<Predicate> predicates = PartitionableEntityRepositoryQdslSql.getRangePredicates(id, 0, 10, 2);
+        assertThat(predicates).containsExactly(id.goe(0L).and(id.lt(6L)), id.goe(6L));
+    }
+
+    @Test
+    public void testRangeCountAlwaysEqualsPartitions() {
+        long[][] bounds = {{0, 0}, {0, 1}, {1, 7}, {0, 10}, {-5, 5}, {3, 1000}, {Long.MIN_VALUE, Long.MAX_VALUE}, {Long.MAX_VALUE - 3, Long.MAX_VALUE}};
+        for (long[] bound : bounds) {
+            for (int partitions = 1; partitions <= 16; partitions++) {
+                assertThat(PartitionableEntityRepositoryQdslSql.getRangePredicates(id, bound[0], bound[1], partitions)).hasSize(partitions);
+            }
+        }
+    }
+
+    @Test
+    public void testSinglePartitionIsOpenEnded() {
+        assertThat(PartitionableEntityRepositoryQdslSql.getRangePredicates(id, 5, 100, 1)).containsExactly(id.goe(5L));
+    }
+
+    @Test
+    public void testFullLongRangeDoesNotOverflow() {
+        List<Predicate> predicates = PartitionableEntityRepositoryQdslSql.getRangePredicates(id, Long.MIN_VALUE, Long.MAX_VALUE, 2);
+        assertThat(predicates).containsExactly(id.goe(Long.MIN_VALUE).and(id.lt(0L)), id.goe(0L));
+    }
+
+    @Test
+    public void testInvalidPartitions() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> PartitionableEntityRepositoryQdslSql.getRangePredicates(id, 0, 10, 0));
+    }
+}
@@ -0,0 +1,126 @@
+package org.bardframework.base.restrictable;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class RestrictionCacheTest {
+
+    private final NumberPath<Long> ownerId = Expressions.numberPath(Long.class, "owner_id");
+    private final AtomicInteger compiles = new AtomicInteger();
+
+    @Test
+    public void testPredicateCachedPerUser() {
+        RestrictionCache cache = new RestrictionCache(60_000, 10);
+        Predicate predicate = cache.getPredicate("ali", this.compiler(1L));
+        assertThat(cache.getPredicate("ali", this.compiler(1L))).isSameAs(predicate);
+        assertThat(compiles).hasValue(1);
+        assertThat(cache.getPredicate("reza", this.compiler(2L))).isNotEqualTo(predicate);
+        assertThat(compiles).hasValue(2);
+    }
+
+    @Test
+    public void testNotRestrictedUserCached() {
+        RestrictionCache cache = new RestrictionCache(60_000, 10);
+        Supplier<Predicate> compiler = () -> {
+            compiles.incrementAndGet();
+            return null;
+        };
+        assertThat(cache.getPredicate("admin", compiler)).isNull();
+        assertThat(cache.getPredicate("admin", compiler)).isNull();
+        assertThat(compiles).hasValue(1);
+    }
+
+    @Test
+    public void testInvalidateUser() {
+        RestrictionCache cache = new RestrictionCache(60_000, 10);
+        cache.getPredicate("ali", this.compiler(1L));
+        cache.getPredicate("reza", this.compiler(2L));
+        cache.invalidate("ali");
+        assertThat(cache.getPredicate("ali", this.compiler(3L))).isEqualTo(ownerId.eq(3L));
+        assertThat(cache.getPredicate("reza", this.compiler(4L))).isEqualTo(ownerId.eq(2L));
+        cache.invalidateAll();
+        assertThat(cache.getPredicate("reza", this.compiler(4L))).isEqualTo(ownerId.eq(4L));
+    }
+
+    /**
+     * predicate compiled before an invalidation must not be cached, even if invalidation happened while compiling
+     */
+    @Test
+    public void testPredicateCompiledDuringInvalidationNotCached() {
+        RestrictionCache cache = new RestrictionCache(60_000, 10);
+        Predicate stale = cache.getPredicate("ali", () -> {
+            cache.invalidate("ali");
+            return ownerId.eq(1L);
+        });
+        assertThat(stale).isEqualTo(ownerId.eq(1L));
+        assertThat(cache.getPredicate("ali", this.compiler(2L))).isEqualTo(ownerId.eq(2L));
+        assertThat(compiles).hasValue(1);
+        /*
+          no invalidation while compiling, cached
+         */
+        assertThat(cache.getPredicate("ali", this.compiler(3L))).isEqualTo(ownerId.eq(2L));
+    }
+
+    @Test
+    public void testInvalidationOfOtherUserDuringCompileNotCached() {
+        RestrictionCache cache = new RestrictionCache(60_000, 10);
+        cache.getPredicate("ali", () -> {
+            cache.invalidateAll();
+            return ownerId.eq(1L);
+        });
+        assertThat(cache.getPredicate("ali", this.compiler(2L))).isEqualTo(ownerId.eq(2L));
+    }
+
+    @Test
+    public void testExpiredEntryRecompiled() throws InterruptedException {
+        RestrictionCache cache = new RestrictionCache(1, 10);
+        cache.getPredicate("ali", this.compiler(1L));
+        Thread.sleep(5);
+        assertThat(cache.getPredicate("ali", this.compiler(2L))).isEqualTo(ownerId.eq(2L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedUserEvicted() {
+        RestrictionCache cache = new RestrictionCache(60_000, 2);
+        cache.getPredicate("ali", this.compiler(1L));
+        cache.getPredicate("reza", this.compiler(2L));
+        cache.getPredicate("ali", this.compiler(1L));
+        cache.getPredicate("sara", this.compiler(3L));
+        assertThat(compiles).hasValue(3);
+        cache.getPredicate("ali", this.compiler(1L));
+        assertThat(compiles).hasValue(3);
+        assertThat(cache.getPredicate("reza", this.compiler(4L))).isEqualTo(ownerId.eq(4L));
+    }
+
+    @Test
+    public void testStaticInvalidationReachesAllCaches() {
+        RestrictionCache first = RestrictionCache.get(RestrictionCacheTest.class);
+        RestrictionCache second = RestrictionCache.get(String.class);
+        first.getPredicate("ali", this.compiler(1L));
+        second.getPredicate("ali", this.compiler(1L));
+        RestrictionCache.invalidateUser("ali");
+        assertThat(first.getPredicate("ali", this.compiler(2L))).isEqualTo(ownerId.eq(2L));
+        assertThat(second.getPredicate("ali", this.compiler(2L))).isEqualTo(ownerId.eq(2L));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new RestrictionCache(0, 10));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new RestrictionCache(1000, 0));
+    }
+
+    private Supplier<Predicate> compiler(long owner) {
+        return () -> {
+            compiles.incrementAndGet();
+            return ownerId.eq(owner);
+        };
+    }
+}
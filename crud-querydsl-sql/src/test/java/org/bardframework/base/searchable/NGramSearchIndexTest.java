@@ -0,0 +1,153 @@
+package org.bardframework.base.searchable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class NGramSearchIndexTest {
+
+    @Test
+    public void testSearchBeforeBuild() {
+        NGramSearchIndex<Long> index = new NGramSearchIndex<>(3, 1024 * 1024);
+        assertThat(index.isBuildRequired()).isTrue();
+        assertThat(index.search("ali")).isNull();
+        index.put(1L, Collections.singletonList("ali"));
+        assertThat(index.getEstimatedBytes()).isZero();
+    }
+
+    @Test
+    public void testBuildAndSearch() throws InterruptedException {
+        NGramSearchIndex<Long> index = this.build(new NGramSearchIndex<>(3, 1024 * 1024));
+        assertThat(index.isBuildRequired()).isFalse();
+        assertThat(index.search("ALI")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("reza")).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.search("xyz")).isEmpty();
+        /*
+          shorter than gram length, index can't answer
+         */
+        assertThat(index.search("al")).isNull();
+    }
+
+    @Test
+    public void testPutAndRemoveAfterBuild() throws InterruptedException {
+        NGramSearchIndex<Long> index = this.build(new NGramSearchIndex<>(3, 1024 * 1024));
+        long bytes = index.getEstimatedBytes();
+        index.put(4L, Collections.singletonList("alireza"));
+        assertThat(index.search("ali")).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(index.getEstimatedBytes()).isGreaterThan(bytes);
+        index.put(1L, Collections.singletonList("sara"));
+        assertThat(index.search("ali")).containsExactlyInAnyOrder(3L, 4L);
+        index.remove(4L);
+        assertThat(index.search("ali")).containsExactly(3L);
+        assertThat(index.search("sara")).containsExactly(1L);
+    }
+
+    @Test
+    public void testChangesDuringBuildApplied() throws InterruptedException {
+        NGramSearchIndex<Long> index = new NGramSearchIndex<>(3, 1024 * 1024);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        index.buildAsync(consumer -> {
+            consumer.accept(1L, Collections.singletonList("ali"));
+            consumer.accept(2L, Collections.singletonList("reza"));
+            loading.countDown();
+            try {
+                changed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(index.isMaintained()).isTrue();
+        assertThat(index.isReady()).isFalse();
+        index.put(3L, Collections.singletonList("alireza"));
+        index.remove(2L);
+        changed.countDown();
+        this.await(index::isReady);
+        assertThat(index.search("ali")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("rez")).containsExactly(3L);
+    }
+
+    @Test
+    public void testBuildOverBudgetDropped() throws InterruptedException {
+        NGramSearchIndex<Long> index = new NGramSearchIndex<>(3, 1024);
+        index.buildAsync(consumer -> {
+            for (long id = 0; id < 100; id++) {
+                consumer.accept(id, Collections.singletonList("text of row " + id));
+            }
+        });
+        this.await(() -> !index.isMaintained());
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.isBuildRequired()).isFalse();
+        assertThat(index.getEstimatedBytes()).isZero();
+        assertThat(index.search("row")).isNull();
+    }
+
+    @Test
+    public void testPutOverBudgetDropped() throws InterruptedException {
+        NGramSearchIndex<Long> index = this.build(new NGramSearchIndex<>(3, 4096));
+        for (long id = 10; id < 100 && index.isReady(); id++) {
+            index.put(id, Collections.singletonList("another long text of row " + id));
+        }
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.isMaintained()).isFalse();
+        assertThat(index.isBuildRequired()).isFalse();
+        assertThat(index.search("ali")).isNull();
+    }
+
+    @Test
+    public void testRebuildReplacesContent() throws InterruptedException {
+        NGramSearchIndex<Long> index = this.build(new NGramSearchIndex<>(3, 1024 * 1024));
+        /*
+          previous build may still be finishing, so build requested until new content is searchable
+         */
+        this.await(() -> {
+            index.buildAsync(consumer -> consumer.accept(5L, Collections.singletonList("sara")));
+            return !index.search("sara").isEmpty();
+        });
+        assertThat(index.search("sara")).containsExactly(5L);
+        assertThat(index.search("ali")).isEmpty();
+    }
+
+    @Test
+    public void testFailedBuildNotRetriedImmediately() throws InterruptedException {
+        NGramSearchIndex<Long> index = new NGramSearchIndex<>(3, 1024 * 1024);
+        index.buildAsync(consumer -> {
+            throw new IllegalStateException("database unavailable");
+        });
+        this.await(() -> !index.isMaintained());
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.isBuildRequired()).isFalse();
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new NGramSearchIndex<>(0, 1024));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new NGramSearchIndex<>(3, 0));
+    }
+
+    private NGramSearchIndex<Long> build(NGramSearchIndex<Long> index) throws InterruptedException {
+        index.buildAsync(consumer -> {
+            consumer.accept(1L, Arrays.asList("Ali", "Tehran"));
+            consumer.accept(2L, Collections.singletonList("Reza"));
+            consumer.accept(3L, Arrays.asList(null, "Alireza"));
+        });
+        this.await(index::isReady);
+        return index;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,257 @@
+package org.bardframework.base.searchable;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.RelationalPathBase;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.SQLTemplates;
+import org.bardframework.base.crud.BaseCriteriaAbstract;
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * ranked search over stub queries: each query of a tier answered by next canned rows, so queried tiers are counted
+ */
+public class SearchRankedTest {
+
+    private static final QPerson PERSON = new QPerson();
+
+    @Test
+    public void testTiersMostRelevantFirst() {
+        List<SearchableEntityRepositoryQdslSql.SearchTier> tiers = new PersonRepository().getSearchTiers("ali", new double[]{100, 50});
+        assertThat(tiers).hasSize(6);
+        assertThat(tiers).extracting("maxScore").containsExactly(3101.0, 3051.0, 2101.0, 2051.0, 1101.0, 1051.0);
+    }
+
+    @Test
+    public void testStopWhenRemainingTiersCantBeatHits() {
+        PersonRepository repository = new PersonRepository(Arrays.asList(this.person(1, "ali", "a1"), this.person(2, "ali", "a2")));
+        List<SearchHit<Person>> hits = repository.searchRanked(this.criteria("ali"), 2, null);
+        assertThat(repository.queries).isEqualTo(1);
+        assertThat(hits).extracting("model.id").containsExactlyInAnyOrder(1L, 2L);
+        assertThat(hits).extracting("score").containsOnly(3101.0);
+    }
+
+    @Test
+    public void testLowerTierQueriedUntilHitsBeatIt() {
+        PersonRepository repository = new PersonRepository(Collections.singletonList(this.person(1, "ali", "x")), Collections.singletonList(this.person(2, "reza", "ali")));
+        List<SearchHit<Person>> hits = repository.searchRanked(this.criteria("ali"), 2, null);
+        /*
+          exact match on heavier path, then exact match on lighter path; prefix tiers can't beat 3051
+         */
+        assertThat(repository.queries).isEqualTo(2);
+        assertThat(hits).extracting("model.id").containsExactly(1L, 2L);
+        assertThat(hits).extracting("score").containsExactly(3101.0, 3051.0);
+    }
+
+    @Test
+    public void testAllTiersQueriedWhenNotEnoughHits() {
+        PersonRepository repository = new PersonRepository(Collections.singletonList(this.person(1, "ali", "x")));
+        List<SearchHit<Person>> hits = repository.searchRanked(this.criteria("ali"), 5, null);
+        assertThat(repository.queries).isEqualTo(6);
+        assertThat(hits).hasSize(1);
+    }
+
+    @Test
+    public void testBestHitsKeptAndSortedByScore() {
+        PersonRepository repository = new PersonRepository(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Arrays.asList(this.person(1, "alireza", "x"), this.person(2, "alia", "x")),
+                Collections.emptyList(),
+                Collections.singletonList(this.person(3, "xali", "x")));
+        List<SearchHit<Person>> hits = repository.searchRanked(this.criteria("ali"), 2, null);
+        /*
+          prefix tier of name filled the limit and scores above 2051, so rest of tiers skipped
+         */
+        assertThat(repository.queries).isEqualTo(3);
+        assertThat(hits).extracting("model.id").containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testEmptyQueryAndInvalidLimit() {
+        PersonRepository repository = new PersonRepository();
+        assertThat(repository.searchRanked(this.criteria(" "), 10, null)).isEmpty();
+        assertThat(repository.queries).isZero();
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> repository.searchRanked(this.criteria("ali"), 0, null));
+    }
+
+    private PersonCriteria criteria(String query) {
+        PersonCriteria criteria = new PersonCriteria();
+        criteria.setQuery(query);
+        return criteria;
+    }
+
+    private Person person(long id, String name, String code) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setCode(code);
+        return person;
+    }
+
+    public static class Person extends BaseModelAbstract<Long> {
+        private String name;
+        private String code;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+    }
+
+    public static class PersonCriteria extends BaseCriteriaAbstract<Long> implements SearchableCriteria {
+        private String query;
+
+        @Override
+        public String getQuery() {
+            return query;
+        }
+
+        public void setQuery(String query) {
+            this.query = query;
+        }
+    }
+
+    private static class QPerson extends RelationalPathBase<Person> {
+        private final NumberPath<Long> id = createNumber("id", Long.class);
+        private final StringPath name = createString("name");
+        private final StringPath code = createString("code");
+
+        private QPerson() {
+            super(Person.class, "person", "PUBLIC", "PERSON");
+        }
+    }
+
+    private static class PersonRepository implements SearchableEntityRepositoryQdslSql<Person, PersonCriteria, Long, Object> {
+        private final Deque<List<Person>> answers;
+        private int queries;
+
+        @SafeVarargs
+        private PersonRepository(List<Person>... answers) {
+            this.answers = new ArrayDeque<>(Arrays.asList(answers));
+        }
+
+        @Override
+        public StringPath[] getSearchPaths() {
+            return new StringPath[]{PERSON.name, PERSON.code};
+        }
+
+        @Override
+        public Person getEmptyModel() {
+            return new Person();
+        }
+
+        @Override
+        public Path<?> getIdentifierPath() {
+            return PERSON.id;
+        }
+
+        @Override
+        public <T> SQLQuery<T> setPageAndSize(PersonCriteria criteria, SQLQuery<T> query, Object user) {
+            return query;
+        }
+
+        @Override
+        public SQLQuery<?> prepareQuery(PersonCriteria criteria, Object user) {
+            this.queries++;
+            List<Person> rows = this.answers.isEmpty() ? Collections.emptyList() : this.answers.poll();
+            return new StubQuery(rows);
+        }
+
+        @Override
+        public Person toSearchModel(Tuple tuple, List<Path<?>> selectPaths) {
+            return ((PersonTuple) tuple).person;
+        }
+
+        @Override
+        public SQLQueryFactory getQueryFactory() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PlatformTransactionManager getTransactionManager() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PersonCriteria getEmptyCriteria() {
+            return new PersonCriteria();
+        }
+    }
+
+    /**
+     * detached query that answers fetch with given rows, select returns same query
+     */
+    private static class StubQuery extends SQLQuery<Object> {
+        private final List<Person> rows;
+
+        private StubQuery(List<Person> rows) {
+            super(SQLTemplates.DEFAULT);
+            this.rows = rows;
+        }
+
+        @Override
+        public List<Object> fetch() {
+            List<Object> tuples = new ArrayList<>();
+            this.rows.forEach(person -> tuples.add(new PersonTuple(person)));
+            return tuples;
+        }
+    }
+
+    private static class PersonTuple implements Tuple {
+        private final Person person;
+
+        private PersonTuple(Person person) {
+            this.person = person;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Expression<T> expr) {
+            if (PERSON.id.equals(expr)) {
+                return (T) person.getId();
+            }
+            if (PERSON.name.equals(expr)) {
+                return (T) person.getName();
+            }
+            return PERSON.code.equals(expr) ? (T) person.getCode() : null;
+        }
+
+        @Override
+        public int size() {
+            return 3;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return new Object[]{person.getId(), person.getName(), person.getCode()};
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.bardframework.base.searchable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class SearchResultCacheTest {
+
+    private static final List<String> ROWS = Arrays.asList("ali", "alireza", "alma", "sara");
+
+    @Test
+    public void testExactQuery() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS.subList(0, 3), true, cache.getGeneration());
+        assertThat(cache.get("user", "al", 10, null)).containsExactly("ali", "alireza", "alma");
+        assertThat(cache.get("other user", "al", 10, null)).isNull();
+        assertThat(cache.get("user", "s", 10, null)).isNull();
+    }
+
+    @Test
+    public void testCompletePrefixNarrowed() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS.subList(0, 3), true, cache.getGeneration());
+        assertThat(cache.get("user", "alir", 10, this.matcher("alir"))).containsExactly("alireza");
+        /*
+          shortest complete prefix is enough, narrowed result cached for query itself
+         */
+        assertThat(cache.get("user", "alir", 10, null)).containsExactly("alireza");
+        assertThat(cache.get("user", "alx", 10, this.matcher("alx"))).isEmpty();
+    }
+
+    @Test
+    public void testIncompletePrefixNotNarrowed() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS.subList(0, 2), false, cache.getGeneration());
+        assertThat(cache.get("user", "alm", 10, this.matcher("alm"))).isNull();
+    }
+
+    @Test
+    public void testNarrowingWithoutMatcher() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS.subList(0, 3), true, cache.getGeneration());
+        assertThat(cache.get("user", "alm", 10, null)).isNull();
+    }
+
+    @Test
+    public void testLimitedResultServedForSameOrSmallerSize() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS.subList(0, 2), false, cache.getGeneration());
+        assertThat(cache.get("user", "al", 2, null)).hasSize(2);
+        assertThat(cache.get("user", "al", 1, null)).hasSize(2);
+        assertThat(cache.get("user", "al", 3, null)).isNull();
+    }
+
+    @Test
+    public void testResultLoadedBeforeInvalidationNotCached() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        long generation = cache.getGeneration();
+        cache.invalidate();
+        cache.put("user", "al", ROWS, true, generation);
+        assertThat(cache.get("user", "al", 10, null)).isNull();
+    }
+
+    @Test
+    public void testInvalidateDropsAll() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS, true, cache.getGeneration());
+        cache.invalidate();
+        assertThat(cache.get("user", "al", 10, null)).isNull();
+        assertThat(cache.get("user", "ali", 10, this.matcher("ali"))).isNull();
+    }
+
+    @Test
+    public void testExpiredEntry() throws InterruptedException {
+        SearchResultCache<String> cache = new SearchResultCache<>(1, 100);
+        cache.put("user", "al", ROWS, true, cache.getGeneration());
+        Thread.sleep(5);
+        assertThat(cache.get("user", "al", 10, null)).isNull();
+        assertThat(cache.get("user", "ali", 10, this.matcher("ali"))).isNull();
+    }
+
+    @Test
+    public void testCachedResultReadOnly() {
+        SearchResultCache<String> cache = new SearchResultCache<>(60_000, 100);
+        cache.put("user", "al", ROWS, true, cache.getGeneration());
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> cache.get("user", "al", 10, null).clear());
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> cache.get("user", "ali", 10, this.matcher("ali")).clear());
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> cache.get("user", "ali", 10, null).clear());
+    }
+
+    private Predicate<String> matcher(String query) {
+        return row -> row.contains(query);
+    }
+}
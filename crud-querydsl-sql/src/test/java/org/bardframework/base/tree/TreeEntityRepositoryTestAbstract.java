@@ -0,0 +1,228 @@
+package org.bardframework.base.tree;
+
+import com.querydsl.core.types.dsl.SimpleExpression;
+import org.bardframework.base.crud.BaseCriteria;
+import org.bardframework.base.crud.BaseModelAbstract;
+import org.bardframework.base.crud.BaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * subtree, ancestors and moves of a tree repository. extended once for each mode: repository with materialized path
+ * (path mode) and repository without it (recursive query mode, see <code>getHierarchyQuery</code>).
+ * depth, child count and leaf columns (if repository has them) checked after each change.
+ * each test adds its own tree: root -> (a -> (c -> d)), b
+ */
+public abstract class TreeEntityRepositoryTestAbstract<M extends BaseModelAbstract<I> & TreeEntityModel<M>, C extends BaseCriteria<I> & TreeEntityCriteria<I>, R extends BaseRepository<M, C, I, U> & TreeEntityRepositoryQdslSql<M, C, I, U>, I extends Serializable, U> {
+
+    protected final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+    @Autowired
+    protected R repository;
+
+    protected M root;
+    protected M a;
+    protected M b;
+    protected M c;
+    protected M d;
+
+    /**
+     * @return new (not saved) node with all required properties, child of given parent (root if null)
+     */
+    protected abstract M newNode(M parent);
+
+    protected abstract U getUser();
+
+    @BeforeEach
+    public void addTree() {
+        root = this.save(null);
+        a = this.save(root);
+        b = this.save(root);
+        c = this.save(a);
+        d = this.save(c);
+        LOGGER.debug("tree added, root '{}', a '{}', b '{}', c '{}', d '{}'.", root.getId(), a.getId(), b.getId(), c.getId(), d.getId());
+    }
+
+    @Test
+    public void testSubtree() {
+        List<I> subtree = this.ids(repository.getWithChildren(root.getId(), this.getUser()));
+        assertThat(subtree).containsExactlyInAnyOrder(root.getId(), a.getId(), b.getId(), c.getId(), d.getId());
+        /*
+          each parent before its children
+         */
+        assertThat(subtree.get(0)).isEqualTo(root.getId());
+        assertThat(subtree.indexOf(c.getId())).isGreaterThan(subtree.indexOf(a.getId()));
+        assertThat(subtree.indexOf(d.getId())).isGreaterThan(subtree.indexOf(c.getId()));
+        assertThat(this.ids(repository.getWithChildren(a.getId(), this.getUser()))).containsExactly(a.getId(), c.getId(), d.getId());
+        assertThat(this.ids(repository.getWithChildren(d.getId(), this.getUser()))).containsExactly(d.getId());
+    }
+
+    @Test
+    public void testSubtreeMaxDepth() {
+        assertThat(this.ids(repository.getWithChildren(root.getId(), 0, this.getUser()))).containsExactly(root.getId());
+        assertThat(this.ids(repository.getWithChildren(root.getId(), 1, this.getUser()))).containsExactlyInAnyOrder(root.getId(), a.getId(), b.getId());
+        assertThat(this.ids(repository.getWithChildren(a.getId(), 1, this.getUser()))).containsExactly(a.getId(), c.getId());
+    }
+
+    @Test
+    public void testSubtreePredicate() {
+        SimpleExpression<I> idPath = repository.getIdentifierPath();
+        List<I> subtree = repository.getQueryFactory().query().select(idPath).from(repository.getEntity())
+                .where(repository.getSubtreePredicate(a.getId())).fetch();
+        assertThat(subtree).containsExactlyInAnyOrder(a.getId(), c.getId(), d.getId());
+    }
+
+    @Test
+    public void testAncestors() {
+        assertThat(this.ids(repository.getAncestors(d.getId(), this.getUser()))).containsExactly(root.getId(), a.getId(), c.getId());
+        assertThat(this.ids(repository.getAncestors(b.getId(), this.getUser()))).containsExactly(root.getId());
+        assertThat(repository.getAncestors(root.getId(), this.getUser())).isEmpty();
+    }
+
+    @Test
+    public void testIsDescendant() {
+        assertThat(repository.isDescendant(d.getId(), a.getId(), this.getUser())).isTrue();
+        assertThat(repository.isDescendant(d.getId(), root.getId(), this.getUser())).isTrue();
+        assertThat(repository.isDescendant(a.getId(), d.getId(), this.getUser())).isFalse();
+        assertThat(repository.isDescendant(b.getId(), a.getId(), this.getUser())).isFalse();
+        assertThat(repository.isDescendant(a.getId(), a.getId(), this.getUser())).isFalse();
+    }
+
+    @Test
+    public void testMoveSubtree() {
+        this.move(c, b);
+        assertThat(this.ids(repository.getWithChildren(b.getId(), this.getUser()))).containsExactly(b.getId(), c.getId(), d.getId());
+        assertThat(this.ids(repository.getWithChildren(a.getId(), this.getUser()))).containsExactly(a.getId());
+        assertThat(this.ids(repository.getAncestors(d.getId(), this.getUser()))).containsExactly(root.getId(), b.getId(), c.getId());
+        assertThat(repository.isDescendant(d.getId(), a.getId(), this.getUser())).isFalse();
+        assertThat(repository.isDescendant(d.getId(), b.getId(), this.getUser())).isTrue();
+    }
+
+    @Test
+    public void testMoveToRoot() {
+        this.move(c, null);
+        assertThat(this.ids(repository.getWithChildren(root.getId(), this.getUser()))).containsExactlyInAnyOrder(root.getId(), a.getId(), b.getId());
+        assertThat(this.ids(repository.getAncestors(d.getId(), this.getUser()))).containsExactly(c.getId());
+        assertThat(repository.getAncestors(c.getId(), this.getUser())).isEmpty();
+    }
+
+    @Test
+    public void testMaterializedPaths() {
+        assumeTrue(null != repository.getMaterializedPath(), "path mode only");
+        assertThat(repository.getMaterializedPathOf(d.getId())).isEqualTo(this.path(root, a, c, d));
+        this.move(c, b);
+        assertThat(repository.getMaterializedPathOf(c.getId())).isEqualTo(this.path(root, b, c));
+        assertThat(repository.getMaterializedPathOf(d.getId())).isEqualTo(this.path(root, b, c, d));
+        assertThat(repository.getMaterializedPathOf(a.getId())).isEqualTo(this.path(root, a));
+        /*
+          paths computed from parents same as paths kept by repository
+         */
+        repository.refreshMaterializedPaths();
+        assertThat(repository.getMaterializedPathOf(d.getId())).isEqualTo(this.path(root, b, c, d));
+    }
+
+    @Test
+    public void testMoveUnderDescendantRejected() {
+        assumeTrue(null != repository.getMaterializedPath(), "path mode only");
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> this.move(a, d));
+    }
+
+    @Test
+    public void testHierarchyMetadataAfterInsert() {
+        assumeTrue(repository.isParentChangeTracked(), "hierarchy metadata only");
+        this.assertMetadata(root, 0, 2);
+        this.assertMetadata(a, 1, 1);
+        this.assertMetadata(b, 1, 0);
+        this.assertMetadata(c, 2, 1);
+        this.assertMetadata(d, 3, 0);
+    }
+
+    @Test
+    public void testHierarchyMetadataAfterMove() {
+        assumeTrue(repository.isParentChangeTracked(), "hierarchy metadata only");
+        this.move(c, b);
+        this.assertMetadata(a, 1, 0);
+        this.assertMetadata(b, 1, 1);
+        this.assertMetadata(c, 2, 1);
+        this.assertMetadata(d, 3, 0);
+        this.move(c, null);
+        this.assertMetadata(root, 0, 2);
+        this.assertMetadata(b, 1, 0);
+        this.assertMetadata(c, 0, 1);
+        this.assertMetadata(d, 1, 0);
+        this.move(c, root);
+        this.assertMetadata(root, 0, 3);
+        this.assertMetadata(c, 1, 1);
+        this.assertMetadata(d, 2, 0);
+    }
+
+    @Test
+    public void testHierarchyMetadataAfterDelete() {
+        assumeTrue(repository.isParentChangeTracked(), "hierarchy metadata only");
+        repository.delete(d.getId(), this.getUser());
+        this.assertMetadata(c, 2, 0);
+        repository.delete(b.getId(), this.getUser());
+        this.assertMetadata(root, 0, 1);
+        this.assertMetadata(a, 1, 1);
+    }
+
+    @Test
+    public void testRefreshHierarchyMetadata() {
+        assumeTrue(repository.isParentChangeTracked(), "hierarchy metadata only");
+        this.move(c, b);
+        repository.refreshHierarchyMetadata();
+        this.assertMetadata(a, 1, 0);
+        this.assertMetadata(b, 1, 1);
+        this.assertMetadata(d, 3, 0);
+    }
+
+    protected M save(M parent) {
+        return repository.save(this.newNode(parent), this.getUser());
+    }
+
+    protected M move(M node, M parent) {
+        node.setParent(parent);
+        return repository.update(node, this.getUser());
+    }
+
+    protected List<I> ids(List<M> nodes) {
+        return nodes.stream().map(BaseModelAbstract::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * checks columns of node that repository has
+     */
+    protected void assertMetadata(M node, int depth, int childCount) {
+        SimpleExpression<I> idPath = repository.getIdentifierPath();
+        if (null != repository.getDepthPath()) {
+            assertThat(repository.getDepthOf(node.getId())).as("depth of '%s'", node.getId()).isEqualTo(depth);
+        }
+        if (null != repository.getChildCountPath()) {
+            assertThat(repository.getQueryFactory().query().select(repository.getChildCountPath()).from(repository.getEntity()).where(idPath.eq(node.getId())).fetchOne())
+                    .as("child count of '%s'", node.getId()).isEqualTo(childCount);
+        }
+        if (null != repository.getLeafPath()) {
+            assertThat(repository.getQueryFactory().query().select(repository.getLeafPath()).from(repository.getEntity()).where(idPath.eq(node.getId())).fetchOne())
+                    .as("leaf of '%s'", node.getId()).isEqualTo(childCount == 0);
+        }
+    }
+
+    @SafeVarargs
+    private final String path(M... nodes) {
+        StringBuilder path = new StringBuilder(TreeEntityRepositoryQdslSql.PATH_SEPARATOR);
+        for (M node : nodes) {
+            path.append(node.getId()).append(TreeEntityRepositoryQdslSql.PATH_SEPARATOR);
+        }
+        return path.toString();
+    }
+}